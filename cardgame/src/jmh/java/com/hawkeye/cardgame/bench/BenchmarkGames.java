@@ -0,0 +1,26 @@
+package com.hawkeye.cardgame.bench;
+
+import com.hawkeye.cardgame.engine.GameMailboxes;
+import com.hawkeye.cardgame.service.CardService;
+import com.hawkeye.cardgame.service.GameEventListener;
+import com.hawkeye.cardgame.service.GameService;
+import com.hawkeye.cardgame.store.GameStore;
+import com.hawkeye.cardgame.store.ShardedGameStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.Duration;
+import java.util.List;
+
+// Wires the game engine the same way Spring does, without a context
+final class BenchmarkGames {
+
+    private BenchmarkGames() {}
+
+    static GameStore store() {
+        return new ShardedGameStore(64, 2_000_000, Duration.ofMinutes(30), Duration.ofMinutes(2));
+    }
+
+    static GameService gameService(GameStore store, GameMailboxes mailboxes, GameEventListener... listeners) {
+        return new GameService(store, mailboxes, new CardService(1, null), List.of(listeners), new SimpleMeterRegistry());
+    }
+}
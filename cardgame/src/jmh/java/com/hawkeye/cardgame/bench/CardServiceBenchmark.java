@@ -0,0 +1,55 @@
+package com.hawkeye.cardgame.bench;
+
+import com.hawkeye.cardgame.engine.Deck;
+import com.hawkeye.cardgame.model.Card;
+import com.hawkeye.cardgame.service.CardService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CardServiceBenchmark {
+
+    private CardService cardService;
+    private Deck deck;
+
+    @Setup
+    public void setUp() {
+        cardService = new CardService(1, null);
+        deck = cardService.newDeck();
+    }
+
+    // A full deck drawn out, as a game that plays to the end of the shoe does
+    @Benchmark
+    public void drawFullDeck(Blackhole bh) {
+        Deck fresh = cardService.newDeck();
+        for (int i = 0; i < Card.DECK_SIZE; i++) {
+            bh.consume(fresh.draw());
+        }
+    }
+
+    @Benchmark
+    public Card deckDraw() {
+        return deck.draw();
+    }
+
+    @Benchmark
+    public Deck newDeck() {
+        return cardService.newDeck();
+    }
+}
@@ -0,0 +1,98 @@
+package com.hawkeye.cardgame.bench;
+
+import com.hawkeye.cardgame.engine.GameMailboxes;
+import com.hawkeye.cardgame.model.GameState;
+import com.hawkeye.cardgame.service.GameService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GameServiceBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Engine {
+        GameMailboxes mailboxes;
+        GameService gameService;
+
+        @Setup
+        public void setUp() {
+            mailboxes = new GameMailboxes(0);
+            gameService = BenchmarkGames.gameService(BenchmarkGames.store(), mailboxes);
+        }
+
+        @TearDown
+        public void tearDown() {
+            mailboxes.destroy();
+        }
+    }
+
+    // One game per benchmark thread: measures the uncontended guess path
+    @State(Scope.Thread)
+    public static class OwnGame {
+        String gameId;
+
+        @Setup
+        public void setUp(Engine engine) {
+            gameId = engine.gameService.startNewGame().getGameId();
+        }
+    }
+
+    // A handful of games shared by every thread: guesses queue in the same mailboxes
+    @State(Scope.Benchmark)
+    public static class HotGames {
+        final String[] gameIds = new String[4];
+
+        @Setup
+        public void setUp(Engine engine) {
+            for (int i = 0; i < gameIds.length; i++) {
+                gameIds[i] = engine.gameService.startNewGame().getGameId();
+            }
+        }
+    }
+
+    @Benchmark
+    public GameState startNewGame(Engine engine) {
+        return engine.gameService.startNewGame();
+    }
+
+    @Benchmark
+    public GameState makeGuess(Engine engine, OwnGame game) {
+        GameState state = engine.gameService.makeGuess(game.gameId, guess());
+        if (state.isGameOver()) {
+            game.gameId = engine.gameService.startNewGame().getGameId();
+        }
+        return state;
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public GameState makeGuessContended(Engine engine, HotGames games) {
+        int slot = ThreadLocalRandom.current().nextInt(games.gameIds.length);
+        GameState state = engine.gameService.makeGuess(games.gameIds[slot], guess());
+        if (state.isGameOver()) {
+            games.gameIds[slot] = engine.gameService.startNewGame().getGameId();
+        }
+        return state;
+    }
+
+    private static String guess() {
+        return ThreadLocalRandom.current().nextBoolean() ? "higher" : "lower";
+    }
+}
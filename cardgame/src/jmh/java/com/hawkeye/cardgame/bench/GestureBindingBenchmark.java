@@ -0,0 +1,84 @@
+package com.hawkeye.cardgame.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hawkeye.cardgame.config.JsonMessageConverter;
+import com.hawkeye.cardgame.model.Card;
+import com.hawkeye.cardgame.model.GestureDetectCommand;
+import com.hawkeye.cardgame.model.GestureMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Inbound gesture.detect binding and outbound reply encoding, old path vs typed
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GestureBindingBenchmark {
+
+    private MappingJackson2MessageConverter genericConverter;
+    private JsonMessageConverter typedConverter;
+    private Message<byte[]> detectFrame;
+    private GestureMessage reply;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper mapper = new ObjectMapper();
+        genericConverter = new MappingJackson2MessageConverter();
+        genericConverter.setObjectMapper(mapper);
+        typedConverter = new JsonMessageConverter(mapper);
+
+        String json = "{\"sessionId\":\"" + UUID.randomUUID() + "\",\"gesture\":\"higher\",\"gameId\":\""
+                + UUID.randomUUID() + "\",\"timestamp\":" + System.currentTimeMillis() + "}";
+        detectFrame = MessageBuilder.withPayload(json.getBytes(StandardCharsets.UTF_8)).build();
+
+        reply = new GestureMessage(UUID.randomUUID().toString(), "higher", "Correct! Your score: 3");
+        reply.setGameId(UUID.randomUUID().toString());
+        reply.setCurrentCard(Card.of(5));
+        reply.setNextCard(Card.of(30));
+        reply.setScore(3);
+        reply.setGameOver(false);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public void bindDetectAsMap(Blackhole bh) {
+        Map<String, Object> payload = (Map<String, Object>) genericConverter.fromMessage(detectFrame, Map.class);
+        bh.consume((String) payload.get("sessionId"));
+        bh.consume((String) payload.get("gesture"));
+        bh.consume((String) payload.get("gameId"));
+    }
+
+    @Benchmark
+    public GestureDetectCommand bindDetectTyped() {
+        return (GestureDetectCommand) typedConverter.fromMessage(detectFrame, GestureDetectCommand.class);
+    }
+
+    @Benchmark
+    public Message<?> encodeReplyGeneric() {
+        return genericConverter.toMessage(reply, null);
+    }
+
+    @Benchmark
+    public Message<?> encodeReplyTyped() {
+        return typedConverter.toMessage(reply, null);
+    }
+}
@@ -0,0 +1,135 @@
+package com.hawkeye.cardgame.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hawkeye.cardgame.journal.GameJournal;
+import com.hawkeye.cardgame.model.Card;
+import com.hawkeye.cardgame.model.GameMessage;
+import com.hawkeye.cardgame.model.GameState;
+import com.hawkeye.cardgame.service.CardService;
+import com.hawkeye.cardgame.service.GameSnapshots;
+import com.hawkeye.cardgame.store.GameStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+@Fork(1)
+public class JournalBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Appender {
+        Path directory;
+        GameJournal journal;
+        GameState gameState;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            directory = Files.createTempDirectory("journal-bench");
+            CardService cardService = new CardService(1, null);
+            journal = new GameJournal(directory.toString(), 64, 10, Long.MAX_VALUE / 2,
+                    BenchmarkGames.store(), cardService, new GameSnapshots(new ObjectMapper()));
+            journal.afterPropertiesSet();
+            gameState = new GameState(UUID.randomUUID().toString(), Card.of(3), Card.of(40), 1, false, null);
+            gameState.setMessageType(GameMessage.CORRECT);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            journal.destroy();
+            delete(directory);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Warmup(iterations = 2, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    public void append(Appender appender) {
+        appender.journal.onGuessResolved(appender.gameState);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Warmup(iterations = 2, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    @Threads(Threads.MAX)
+    public void appendContended(Appender appender) {
+        appender.journal.onGuessResolved(appender.gameState);
+    }
+
+    // Recovery time for a journal holding `games` started games plus one guess each
+    @State(Scope.Benchmark)
+    public static class Recovery {
+        @Param({"1000000"})
+        int games;
+
+        Path directory;
+        GameStore store;
+
+        @Setup(Level.Trial)
+        public void writeJournal() throws Exception {
+            directory = Files.createTempDirectory("journal-recovery");
+            CardService cardService = new CardService(1, null);
+            GameJournal journal = new GameJournal(directory.toString(), 64, 10, Long.MAX_VALUE / 2,
+                    BenchmarkGames.store(), cardService, new GameSnapshots(new ObjectMapper()));
+            journal.afterPropertiesSet();
+            for (int i = 0; i < games; i++) {
+                GameState state = new GameState(UUID.randomUUID().toString(),
+                        Card.of(i % Card.DECK_SIZE), Card.of((i + 7) % Card.DECK_SIZE), i % 20, false, null);
+                state.setMessageType(GameMessage.CORRECT);
+                journal.onGameStarted(state);
+                journal.onGuessResolved(state);
+            }
+            journal.destroy();
+        }
+
+        @Setup(Level.Invocation)
+        public void freshStore() {
+            store = BenchmarkGames.store();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            delete(directory);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 5)
+    public GameStore recover(Recovery recovery) throws Exception {
+        GameJournal journal = new GameJournal(recovery.directory.toString(), 64, 10, Long.MAX_VALUE / 2,
+                recovery.store, new CardService(1, null), new GameSnapshots(new ObjectMapper()));
+        journal.afterPropertiesSet();
+        journal.destroy();
+        return recovery.store;
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.hawkeye.cardgame.bench;
+
+import com.hawkeye.cardgame.gesture.LandmarkClassifier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Landmark frames classified per second on one thread, i.e. per core. Each
+// invocation classifies one full batch; scores are per frame.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LandmarkClassifierBenchmark {
+
+    private static final int BATCH = 64;
+
+    // 1 is the unbatched cost of one frame per call
+    @Param({"1", "64"})
+    public int batchSize;
+
+    private LandmarkClassifier classifier;
+    private float[] landmarks;
+    private byte[] hands;
+    private byte[] leftMask;
+    private byte[] labels;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        classifier = new LandmarkClassifier(BATCH);
+        landmarks = new float[BATCH * LandmarkClassifier.FRAME_STRIDE];
+        for (int i = 0; i < landmarks.length; i++) {
+            landmarks[i] = (float) random.nextDouble();
+        }
+        hands = new byte[BATCH];
+        leftMask = new byte[BATCH];
+        labels = new byte[BATCH];
+        for (int i = 0; i < BATCH; i++) {
+            hands[i] = (byte) random.nextInt(3);
+            leftMask[i] = (byte) random.nextInt(4);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public byte[] classify() {
+        for (int start = 0; start < BATCH; start += batchSize) {
+            classifier.classify(landmarks, hands, leftMask, batchSize, labels);
+        }
+        return labels;
+    }
+}
@@ -0,0 +1,97 @@
+package com.hawkeye.cardgame.bench;
+
+import com.hawkeye.cardgame.leaderboard.Leaderboard;
+import com.hawkeye.cardgame.model.LeaderboardSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Game-overs recorded from many threads at once, and the cost of the
+// periodic rebuild that readers are served from
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LeaderboardBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Board {
+        @Param({"100"})
+        int size;
+
+        Leaderboard leaderboard;
+
+        @Setup
+        public void setUp() {
+            leaderboard = new Leaderboard(size, List.of("1h", "24h"), 0);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Games {
+        final String[] gameIds = new String[1024];
+        int next;
+
+        @Setup
+        public void setUp() {
+            for (int i = 0; i < gameIds.length; i++) {
+                gameIds[i] = UUID.randomUUID().toString();
+            }
+        }
+
+        String next() {
+            return gameIds[next++ & (gameIds.length - 1)];
+        }
+    }
+
+    @Benchmark
+    public void record(Board board, Games games) {
+        board.leaderboard.record(games.next(), ThreadLocalRandom.current().nextInt(52), System.currentTimeMillis());
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void recordContended(Board board, Games games) {
+        board.leaderboard.record(games.next(), ThreadLocalRandom.current().nextInt(52), System.currentTimeMillis());
+    }
+
+    // Every slice of both windows already full, so this is the merge readers wait on
+    @State(Scope.Benchmark)
+    public static class FullBoard {
+        Leaderboard leaderboard;
+
+        @Setup
+        public void setUp(Board board) {
+            leaderboard = new Leaderboard(board.size, List.of("1h", "24h"), 0);
+            long now = System.currentTimeMillis();
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < 200_000; i++) {
+                leaderboard.record(UUID.randomUUID().toString(), random.nextInt(52),
+                        now - random.nextLong(TimeUnit.HOURS.toMillis(24)));
+            }
+            leaderboard.rebuild();
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public LeaderboardSnapshot rebuild(FullBoard board) {
+        board.leaderboard.rebuild();
+        return board.leaderboard.snapshot();
+    }
+}
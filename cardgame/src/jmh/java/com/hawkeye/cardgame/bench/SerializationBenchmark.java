@@ -0,0 +1,75 @@
+package com.hawkeye.cardgame.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.hawkeye.cardgame.model.Card;
+import com.hawkeye.cardgame.model.GameMessage;
+import com.hawkeye.cardgame.model.GameState;
+import com.hawkeye.cardgame.model.GestureMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SerializationBenchmark {
+
+    // Same module set Spring Boot registers on its ObjectMapper
+    private final ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private ObjectWriter gameStateWriter;
+    private ObjectWriter gestureWriter;
+    private GameState gameState;
+    private GestureMessage gestureMessage;
+
+    @Setup
+    public void setUp() {
+        String gameId = UUID.randomUUID().toString();
+        gameState = new GameState(gameId, Card.of(3), Card.of(40), 7, false, null);
+        gameState.setMessageType(GameMessage.CORRECT);
+
+        gestureMessage = new GestureMessage(UUID.randomUUID().toString(), "higher", gameState.getMessage());
+        gestureMessage.setGameId(gameId);
+        gestureMessage.setCurrentCard(gameState.getCurrentCard());
+        gestureMessage.setNextCard(gameState.getNextCard());
+        gestureMessage.setScore(gameState.getScore());
+        gestureMessage.setGameOver(false);
+
+        gameStateWriter = mapper.writerFor(GameState.class);
+        gestureWriter = mapper.writerFor(GestureMessage.class);
+    }
+
+    @Benchmark
+    public byte[] gameStateToJson() throws Exception {
+        return mapper.writeValueAsBytes(gameState);
+    }
+
+    @Benchmark
+    public byte[] gameStateToJsonCachedWriter() throws Exception {
+        return gameStateWriter.writeValueAsBytes(gameState);
+    }
+
+    @Benchmark
+    public byte[] gestureMessageToJson() throws Exception {
+        return mapper.writeValueAsBytes(gestureMessage);
+    }
+
+    @Benchmark
+    public byte[] gestureMessageToJsonCachedWriter() throws Exception {
+        return gestureWriter.writeValueAsBytes(gestureMessage);
+    }
+}
@@ -0,0 +1,107 @@
+package com.hawkeye.cardgame.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.hawkeye.cardgame.model.Card;
+import com.hawkeye.cardgame.model.GameMessage;
+import com.hawkeye.cardgame.model.GameState;
+import com.hawkeye.cardgame.service.GameSnapshots;
+import com.hawkeye.cardgame.spectate.SpectatorHub;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.messaging.MessageChannel;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// One game update fanned out to every spectator, until the last message is
+// on the outbound channel; divide by viewers for the cost of one more. The
+// channel completes each send inline, as if every socket kept up.
+// perViewerSerialization is the old shape: one serialization per send
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SpectatorFanoutBenchmark {
+
+    @Param({"1", "100", "1000", "10000"})
+    int viewers;
+
+    @Param({"1", "4"})
+    int fanoutThreads;
+
+    private final ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final AtomicLong delivered = new AtomicLong();
+    private SpectatorHub hub;
+    private GameState state;
+    private ObjectWriter stateWriter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        GameSnapshots snapshots = new GameSnapshots(mapper);
+        SpectatorHub[] self = new SpectatorHub[1];
+        MessageChannel channel = (message, timeout) -> {
+            delivered.incrementAndGet();
+            self[0].afterMessageHandled(message, null, null, null);
+            return true;
+        };
+        hub = new SpectatorHub(BenchmarkGames.store(), snapshots, channel, null, false, fanoutThreads, 1);
+        self[0] = hub;
+
+        String gameId = UUID.randomUUID().toString();
+        state = new GameState(gameId, Card.of(3), Card.of(40), 7, false, null);
+        state.setMessageType(GameMessage.CORRECT);
+        state.setVersion(2);
+        snapshots.onGuessResolved(state);
+        stateWriter = mapper.writerFor(GameState.class);
+
+        for (int i = 0; i < viewers; i++) {
+            hub.subscribe("connection-" + i, "sub-0", gameId, null);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        hub.destroy();
+    }
+
+    @Benchmark
+    public long fanout() {
+        long before = delivered.get();
+        hub.onGuessResolved(state);
+        return awaitDelivered(before);
+    }
+
+    @Benchmark
+    public long perViewerSerialization() throws Exception {
+        long bytes = 0;
+        for (int i = 0; i < viewers; i++) {
+            bytes += stateWriter.writeValueAsBytes(state).length;
+        }
+        return bytes;
+    }
+
+    private long awaitDelivered(long before) {
+        long target = before + viewers;
+        long now;
+        while ((now = delivered.get()) < target) {
+            Thread.onSpinWait();
+        }
+        return now;
+    }
+}
@@ -0,0 +1,221 @@
+package com.hawkeye.cardgame.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hawkeye.cardgame.CardgameApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * What an idle watcher costs the server: N clients watch one game without
+ * it changing, once as SSE streams on /api/game/{id}/stream and once as
+ * STOMP sessions over SockJS subscribed to /topic/spectate/{id}, and the
+ * server's live heap and thread count are compared before and after.
+ *
+ * The server runs in this JVM and the clients in a child JVM, so client
+ * objects never show up in the server's heap.
+ *
+ *   ./gradlew idleConnections -Pload.args="--sessions=5000"
+ */
+public final class IdleConnections {
+
+    private static final int CONNECT_BATCH = 200;
+
+    private IdleConnections() {}
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].startsWith("--client=")) {
+            client(args);
+            return;
+        }
+        LoadOptions options = LoadOptions.parse(args);
+        System.out.println("Idle connections: " + options.sessions + " per protocol");
+
+        SpringApplication app = new SpringApplication(CardgameApplication.class);
+        app.setDefaultProperties(Map.of("server.port", "0"));
+        ConfigurableApplicationContext server = app.run();
+        String baseUrl = "http://localhost:" + ((WebServerApplicationContext) server).getWebServer().getPort();
+
+        HttpResponse<String> started = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create(baseUrl + "/api/game/start")).POST(HttpRequest.BodyPublishers.noBody()).build(),
+                HttpResponse.BodyHandlers.ofString());
+        String gameId = new ObjectMapper().readTree(started.body()).get("gameId").asText();
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("connections", options.sessions);
+        for (String protocol : List.of("sse", "sockjs")) {
+            report.put(protocol, measure(protocol, baseUrl, gameId, options.sessions));
+        }
+
+        String json = new ObjectMapper().writerWithDefaultPrettyPrinter().writeValueAsString(report);
+        System.out.println(json);
+        String reportDir = System.getProperty("idle.reportDir");
+        if (reportDir != null) {
+            File dir = new File(reportDir);
+            dir.mkdirs();
+            Files.writeString(new File(dir, "idle-connections.json").toPath(), json);
+        }
+        server.close();
+        System.exit(0);
+    }
+
+    private static Map<String, Object> measure(String protocol, String baseUrl, String gameId, int sessions) throws Exception {
+        long heapBefore = settledHeapBytes();
+        int threadsBefore = ManagementFactory.getThreadMXBean().getThreadCount();
+
+        Process clients = new ProcessBuilder(
+                ProcessHandle.current().info().command().orElse("java"),
+                "-cp", System.getProperty("java.class.path"),
+                IdleConnections.class.getName(),
+                "--client=" + protocol, baseUrl, gameId, Integer.toString(sessions))
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        BufferedReader out = new BufferedReader(new InputStreamReader(clients.getInputStream(), StandardCharsets.UTF_8));
+        String ready = out.readLine();
+        if (ready == null || !ready.startsWith("open ")) {
+            clients.destroyForcibly();
+            throw new IllegalStateException(protocol + " clients did not start: " + ready);
+        }
+        int open = Integer.parseInt(ready.substring(5).trim());
+
+        // Let connects finish on the server before weighing it
+        Thread.sleep(2000);
+        long heapAfter = settledHeapBytes();
+        int threadsAfter = ManagementFactory.getThreadMXBean().getThreadCount();
+
+        // Closing stdin tells the clients to go
+        clients.getOutputStream().close();
+        clients.waitFor();
+        Thread.sleep(2000);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("open", open);
+        result.put("heapBytes", heapAfter - heapBefore);
+        result.put("heapBytesPerConnection", open > 0 ? (heapAfter - heapBefore) / open : 0);
+        result.put("threads", threadsAfter - threadsBefore);
+        System.out.println(String.format("%-7s open=%d heap=%+.1fMB (%d bytes each) threads=%+d",
+                protocol, open, (heapAfter - heapBefore) / 1048576.0, result.get("heapBytesPerConnection"),
+                threadsAfter - threadsBefore));
+        return result;
+    }
+
+    // Live heap after a few full collections, so garbage doesn't count
+    private static long settledHeapBytes() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(200);
+        }
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            MemoryUsage afterGc = pool.getCollectionUsage();
+            if (pool.getType() == MemoryType.HEAP && afterGc != null) {
+                used += afterGc.getUsed();
+            }
+        }
+        return used;
+    }
+
+    // Child JVM: open the connections, report how many, hold them until stdin closes
+    private static void client(String[] args) throws Exception {
+        String protocol = args[0].substring("--client=".length());
+        String baseUrl = args[1];
+        String gameId = args[2];
+        int sessions = Integer.parseInt(args[3]);
+
+        List<AutoCloseable> held = new ArrayList<>();
+        AtomicInteger open = new AtomicInteger();
+        List<CompletableFuture<?>> pending = new ArrayList<>();
+        if ("sse".equals(protocol)) {
+            HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            HttpRequest stream = HttpRequest.newBuilder(URI.create(baseUrl + "/api/game/" + gameId + "/stream"))
+                    .header("Accept", "text/event-stream")
+                    .build();
+            for (int i = 0; i < sessions; i++) {
+                pending.add(http.sendAsync(stream, HttpResponse.BodyHandlers.ofInputStream())
+                        .thenAccept(response -> {
+                            InputStream body = response.body();
+                            synchronized (held) {
+                                held.add(body);
+                            }
+                            open.incrementAndGet();
+                        }));
+                joinEvery(pending);
+            }
+        } else {
+            WebSocketStompClient stompClient = new WebSocketStompClient(
+                    new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient()))));
+            stompClient.setMessageConverter(new MappingJackson2MessageConverter());
+            stompClient.setDefaultHeartbeat(new long[] {0, 0});
+            StompSessionHandlerAdapter ignore = new StompSessionHandlerAdapter() {
+                @Override
+                public Type getPayloadType(StompHeaders headers) {
+                    return byte[].class;
+                }
+            };
+            for (int i = 0; i < sessions; i++) {
+                pending.add(stompClient.connectAsync(baseUrl + "/ws", ignore)
+                        .thenAccept((StompSession session) -> {
+                            session.subscribe("/topic/spectate/" + gameId, ignore);
+                            synchronized (held) {
+                                held.add(session::disconnect);
+                            }
+                            open.incrementAndGet();
+                        }));
+                joinEvery(pending);
+            }
+        }
+        CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).exceptionally(e -> null).join();
+
+        System.out.println("open " + open.get());
+        System.out.flush();
+        while (System.in.read() != -1) {
+            // Held until the parent closes our stdin
+        }
+        for (AutoCloseable connection : held) {
+            try {
+                connection.close();
+            } catch (Exception ignored) {
+                // already gone
+            }
+        }
+        System.exit(0);
+    }
+
+    // Keep the connect burst bounded; failed connects just don't count as open
+    private static void joinEvery(List<CompletableFuture<?>> pending) {
+        if (pending.size() == CONNECT_BATCH) {
+            CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).exceptionally(e -> null).join();
+            pending.clear();
+        }
+    }
+}
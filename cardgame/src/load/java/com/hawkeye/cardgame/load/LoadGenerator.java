@@ -0,0 +1,197 @@
+package com.hawkeye.cardgame.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hawkeye.cardgame.CardgameApplication;
+import com.hawkeye.cardgame.service.GestureGate;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Headless load generator for the gesture game. Opens one STOMP-over-
+ * WebSocket session per simulated player against /ws, starts a game for
+ * each over REST and fires gesture.detect traffic at a fixed rate,
+ * measuring the time until the matching reply arrives on the player's
+ * /topic/gesture/{sessionId}.
+ *
+ * Without --url an in-process server is started on a random port, which
+ * also lets soak mode (--soak=true) watch the server's live heap.
+ *
+ *   ./gradlew loadTest -Pload.args="--sessions=5000 --rate=0.5 --duration=300"
+ */
+public final class LoadGenerator {
+
+    private LoadGenerator() {}
+
+    public static void main(String[] args) throws Exception {
+        LoadOptions options = LoadOptions.parse(args);
+        System.out.println("Load test: " + options);
+
+        ConfigurableApplicationContext server = null;
+        String baseUrl = options.url;
+        if (baseUrl == null) {
+            SpringApplication app = new SpringApplication(CardgameApplication.class);
+            app.setDefaultProperties(Map.of("server.port", "0"));
+            server = app.run();
+            baseUrl = "http://localhost:" + ((WebServerApplicationContext) server).getWebServer().getPort();
+        }
+
+        LoadStats stats = new LoadStats();
+        List<Player> players = connectPlayers(baseUrl, options, stats);
+        System.out.println("Connected " + players.size() + " of " + options.sessions + " sessions");
+
+        int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        ScheduledExecutorService ticker = Executors.newScheduledThreadPool(threads);
+        long periodMicros = (long) (1_000_000 / options.rate);
+        for (Player player : players) {
+            // Spread the first gesture over the ramp-up so sessions don't fire in lockstep
+            long delay = ThreadLocalRandom.current().nextLong(Math.max(1, options.rampUp.toMillis() * 1000));
+            ticker.scheduleAtFixedRate(player::tick, delay, periodMicros, TimeUnit.MICROSECONDS);
+        }
+
+        long started = System.nanoTime();
+        long end = started + options.duration.toNanos();
+        long firstHeap = -1;
+        long lastHeap = -1;
+        while (System.nanoTime() < end) {
+            long sleep = Math.min(options.reportInterval.toMillis(), TimeUnit.NANOSECONDS.toMillis(end - System.nanoTime()));
+            Thread.sleep(Math.max(1, sleep));
+
+            Histogram interval = stats.interval();
+            double elapsed = (System.nanoTime() - started) / 1e9;
+            StringBuilder line = new StringBuilder(String.format("[%6.0fs] ", elapsed))
+                    .append(LoadStats.describe(interval, options.reportInterval.toMillis() / 1000.0))
+                    .append(" errors=").append(stats.errors());
+            if (server != null) {
+                long heap = liveHeapBytes();
+                if (firstHeap < 0) firstHeap = heap;
+                lastHeap = heap;
+                line.append(String.format(" liveHeap=%.1fMB", heap / 1048576.0));
+            }
+            System.out.println(line);
+        }
+
+        ticker.shutdownNow();
+        double seconds = (System.nanoTime() - started) / 1e9;
+        stats.interval();
+        Histogram total = stats.total();
+
+        System.out.println();
+        System.out.println("=== Summary ===");
+        System.out.println("sessions    " + players.size());
+        System.out.println("sent        " + stats.sent.sum());
+        System.out.println("latency     " + LoadStats.describe(total, seconds));
+        System.out.println("errors      replies=" + stats.errorReplies.sum() + " sendFailures=" + stats.sendFailures.sum()
+                + " timeouts=" + stats.timeouts.sum() + " connectFailures=" + stats.connectFailures.sum());
+        if (server != null) {
+            // Gestures the gate drops get no reply, so they are only counted server-side
+            System.out.println("gate        " + server.getBean(GestureGate.class).stats());
+        }
+        System.out.println("skipped     " + stats.skipped.sum() + " ticks (previous gesture still in flight)");
+        if (server != null && firstHeap >= 0) {
+            double hours = seconds / 3600.0;
+            System.out.println(String.format("live heap   %.1fMB -> %.1fMB (%.1fMB/hour)",
+                    firstHeap / 1048576.0, lastHeap / 1048576.0,
+                    hours > 0 ? (lastHeap - firstHeap) / 1048576.0 / hours : 0.0));
+        }
+
+        for (Player player : players) {
+            try {
+                player.disconnect();
+            } catch (RuntimeException ignored) {
+                // already gone
+            }
+        }
+        if (server != null) {
+            server.close();
+        }
+        System.exit(0);
+    }
+
+    private static List<Player> connectPlayers(String baseUrl, LoadOptions options, LoadStats stats) {
+        HttpClient http = HttpClient.newHttpClient();
+        ObjectMapper mapper = new ObjectMapper();
+        WebSocketStompClient stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+        stompClient.setMessageConverter(new MappingJackson2MessageConverter());
+        stompClient.setDefaultHeartbeat(new long[] {0, 0});
+
+        // SockJS endpoints also accept plain WebSocket connections on /websocket
+        String wsUrl = baseUrl.replaceFirst("^http", "ws") + "/ws/websocket";
+        HttpRequest startGame = HttpRequest.newBuilder(URI.create(baseUrl + "/api/game/start"))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .header("Content-Type", "application/json")
+                .build();
+
+        List<Player> players = new ArrayList<>(options.sessions);
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
+        for (int i = 0; i < options.sessions; i++) {
+            CompletableFuture<Void> connected = http.sendAsync(startGame, HttpResponse.BodyHandlers.ofString())
+                    .thenApply(response -> {
+                        try {
+                            return mapper.readTree(response.body()).get("gameId").asText();
+                        } catch (Exception e) {
+                            throw new IllegalStateException("Could not start game: " + response.statusCode(), e);
+                        }
+                    })
+                    .thenCompose(gameId -> {
+                        Player player = new Player(UUID.randomUUID().toString(), gameId, stats, options);
+                        return stompClient.connectAsync(wsUrl, new StompSessionHandlerAdapter() {})
+                                .thenAccept((StompSession session) -> {
+                                    player.attach(session);
+                                    synchronized (players) {
+                                        players.add(player);
+                                    }
+                                });
+                    })
+                    .exceptionally(e -> {
+                        stats.connectFailures.increment();
+                        return null;
+                    });
+            pending.add(connected);
+
+            // Keep the connect burst bounded
+            if (pending.size() == 200) {
+                CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).join();
+                pending.clear();
+            }
+        }
+        CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).join();
+        return players;
+    }
+
+    // Heap still in use after the last collection of each heap pool
+    private static long liveHeapBytes() {
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            MemoryUsage afterGc = pool.getCollectionUsage();
+            if (pool.getType() == MemoryType.HEAP && afterGc != null) {
+                used += afterGc.getUsed();
+            }
+        }
+        return used;
+    }
+}
@@ -0,0 +1,60 @@
+package com.hawkeye.cardgame.load;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Command line options for the load generator, given as --name=value.
+ */
+final class LoadOptions {
+
+    // Target server; when no url is given an in-process server is started
+    final String url;
+    final int sessions;
+    // Gestures per second, per session. Above the server's
+    // game.gesture.rate-per-second its gate drops them unanswered, as timeouts
+    final double rate;
+    // Share of gestures that are resets rather than guesses
+    final double resetRatio;
+    final Duration duration;
+    final Duration rampUp;
+    final Duration replyTimeout;
+    // Should match the server's game.gesture.debounce-ms
+    final Duration debounce;
+    // Soak mode samples server heap and prints stats every reportInterval
+    final boolean soak;
+    final Duration reportInterval;
+
+    private LoadOptions(Map<String, String> values) {
+        this.url = values.get("url");
+        this.sessions = Integer.parseInt(values.getOrDefault("sessions", "1000"));
+        this.rate = Double.parseDouble(values.getOrDefault("rate", "1"));
+        this.resetRatio = Double.parseDouble(values.getOrDefault("reset-ratio", "0.05"));
+        this.soak = Boolean.parseBoolean(values.getOrDefault("soak", "false"));
+        this.duration = Duration.ofSeconds(Long.parseLong(values.getOrDefault("duration", soak ? "14400" : "60")));
+        this.rampUp = Duration.ofSeconds(Long.parseLong(values.getOrDefault("ramp-up", "10")));
+        this.replyTimeout = Duration.ofMillis(Long.parseLong(values.getOrDefault("reply-timeout-ms", "5000")));
+        this.debounce = Duration.ofMillis(Long.parseLong(values.getOrDefault("debounce-ms", "1000")));
+        this.reportInterval = Duration.ofSeconds(Long.parseLong(values.getOrDefault("report-interval", soak ? "300" : "10")));
+    }
+
+    static LoadOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            values.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        return new LoadOptions(values);
+    }
+
+    @Override
+    public String toString() {
+        return "sessions=" + sessions + ", rate=" + rate + "/s, resetRatio=" + resetRatio
+                + ", duration=" + duration + ", rampUp=" + rampUp + ", soak=" + soak
+                + (url != null ? ", url=" + url : ", in-process server");
+    }
+}
@@ -0,0 +1,56 @@
+package com.hawkeye.cardgame.load;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Round-trip latency and error counters shared by every simulated player.
+ * Latencies go into an HdrHistogram recorder so reporting never blocks the
+ * threads that receive replies.
+ */
+final class LoadStats {
+
+    private final Recorder recorder = new Recorder(TimeUnit.SECONDS.toNanos(60), 3);
+    private final Histogram total = new Histogram(TimeUnit.SECONDS.toNanos(60), 3);
+
+    final LongAdder sent = new LongAdder();
+    final LongAdder replies = new LongAdder();
+    final LongAdder errorReplies = new LongAdder();
+    final LongAdder sendFailures = new LongAdder();
+    final LongAdder timeouts = new LongAdder();
+    final LongAdder connectFailures = new LongAdder();
+    final LongAdder skipped = new LongAdder();
+
+    void recordLatency(long nanos) {
+        replies.increment();
+        recorder.recordValue(Math.min(nanos, TimeUnit.SECONDS.toNanos(60)));
+    }
+
+    // Latencies since the previous interval; also folded into the run total
+    synchronized Histogram interval() {
+        Histogram interval = recorder.getIntervalHistogram();
+        total.add(interval);
+        return interval;
+    }
+
+    synchronized Histogram total() {
+        return total.copy();
+    }
+
+    long errors() {
+        return errorReplies.sum() + sendFailures.sum() + timeouts.sum() + connectFailures.sum();
+    }
+
+    static String describe(Histogram h, double seconds) {
+        return String.format("replies=%d (%.0f/s) p50=%.2fms p99=%.2fms p999=%.2fms max=%.2fms",
+                h.getTotalCount(),
+                seconds > 0 ? h.getTotalCount() / seconds : 0.0,
+                h.getValueAtPercentile(50) / 1e6,
+                h.getValueAtPercentile(99) / 1e6,
+                h.getValueAtPercentile(99.9) / 1e6,
+                h.getMaxValue() / 1e6);
+    }
+}
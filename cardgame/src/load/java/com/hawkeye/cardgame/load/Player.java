@@ -0,0 +1,130 @@
+package com.hawkeye.cardgame.load;
+
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One simulated browser: a STOMP session that registers, plays a game and
+ * sends gestures, with at most one gesture in flight so each reply on
+ * /topic/gesture/{sessionId} can be matched to the send that caused it.
+ */
+final class Player implements StompFrameHandler {
+
+    final String sessionId;
+    private final LoadStats stats;
+    private final LoadOptions options;
+
+    private volatile StompSession session;
+    private volatile String gameId;
+    private volatile boolean gameOver;
+    // System.nanoTime() of the unanswered gesture, 0 when idle
+    private final AtomicLong inFlightSince = new AtomicLong();
+    // Only touched by tick(), which never runs twice at once for a player
+    private String lastGesture;
+    private long lastSentAt;
+
+    Player(String sessionId, String gameId, LoadStats stats, LoadOptions options) {
+        this.sessionId = sessionId;
+        this.gameId = gameId;
+        this.stats = stats;
+        this.options = options;
+    }
+
+    void attach(StompSession session) {
+        this.session = session;
+        session.subscribe("/topic/gesture/" + sessionId, this);
+        session.send("/app/tensorflow/gesture.register", Map.of("sessionId", sessionId));
+    }
+
+    void tick() {
+        StompSession current = session;
+        if (current == null || !current.isConnected()) {
+            return;
+        }
+        long now = System.nanoTime();
+        long since = inFlightSince.get();
+        if (since != 0) {
+            if (now - since < options.replyTimeout.toNanos()) {
+                stats.skipped.increment();
+                return;
+            }
+            if (inFlightSince.compareAndSet(since, 0)) {
+                stats.timeouts.increment();
+            }
+        }
+
+        String gesture;
+        if (gameOver || ThreadLocalRandom.current().nextDouble() < options.resetRatio) {
+            gesture = "reset";
+        } else {
+            gesture = ThreadLocalRandom.current().nextBoolean() ? "higher" : "lower";
+        }
+        // The server drops a repeat inside its debounce window without a reply,
+        // which would only show up here as a timeout; send the other guess instead
+        if (gesture.equals(lastGesture) && now - lastSentAt < options.debounce.toNanos()) {
+            gesture = "higher".equals(gesture) ? "lower" : "higher";
+        }
+        lastGesture = gesture;
+        lastSentAt = now;
+
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("sessionId", sessionId);
+        payload.put("gesture", gesture);
+        payload.put("gameId", gameId);
+        payload.put("timestamp", System.currentTimeMillis());
+
+        inFlightSince.set(now);
+        try {
+            current.send("/app/tensorflow/gesture.detect", payload);
+            stats.sent.increment();
+        } catch (RuntimeException e) {
+            inFlightSince.set(0);
+            stats.sendFailures.increment();
+        }
+    }
+
+    void disconnect() {
+        StompSession current = session;
+        if (current != null && current.isConnected()) {
+            current.send("/app/tensorflow/gesture.unregister", Map.of("sessionId", sessionId));
+            current.disconnect();
+        }
+    }
+
+    @Override
+    public Type getPayloadType(StompHeaders headers) {
+        return Map.class;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void handleFrame(StompHeaders headers, Object payload) {
+        Map<String, Object> reply = (Map<String, Object>) payload;
+        Object gesture = reply.get("gesture");
+        if (!"higher".equals(gesture) && !"lower".equals(gesture)
+                && !"reset".equals(gesture) && !"error".equals(gesture)) {
+            // connected / started / stopped acknowledgements
+            return;
+        }
+
+        long since = inFlightSince.getAndSet(0);
+        if (since != 0) {
+            stats.recordLatency(System.nanoTime() - since);
+        }
+        if ("error".equals(gesture)) {
+            stats.errorReplies.increment();
+            return;
+        }
+        if ("reset".equals(gesture) && reply.get("gameId") != null) {
+            gameId = (String) reply.get("gameId");
+        }
+        gameOver = Boolean.TRUE.equals(reply.get("gameOver"));
+    }
+}
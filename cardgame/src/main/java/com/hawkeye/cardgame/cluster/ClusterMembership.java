@@ -0,0 +1,189 @@
+package com.hawkeye.cardgame.cluster;
+
+import com.hawkeye.cardgame.diagnostics.SampledLogger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Which nodes are up, and which of them owns a game. Nodes are listed in
+ * game.cluster.nodes by base URL; each one pings the others and rebuilds
+ * the hash ring when one joins or leaves, then tells its listeners so games
+ * can move to their new owners.
+ *
+ * With clustering off the ring is just this node and every game is local.
+ * Calls that change another node's games carry game.cluster.secret, which
+ * every node must share.
+ */
+@Component
+public class ClusterMembership {
+
+    public static final String SECRET_HEADER = "X-Cluster-Secret";
+
+    private static final SampledLogger log = SampledLogger.of(ClusterMembership.class, 10);
+
+    private final boolean enabled;
+    private final String self;
+    private final String secret;
+    private final List<String> seeds;
+    private final int virtualNodes;
+    private final Duration probeTimeout;
+    private final HttpClient http;
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile HashRing ring;
+    private volatile long changedAt = System.nanoTime();
+    private volatile boolean leaving;
+
+    public ClusterMembership(@Value("${game.cluster.enabled:false}") boolean enabled,
+                             @Value("${game.cluster.self-url:http://localhost:8080}") String self,
+                             @Value("${game.cluster.nodes:}") List<String> nodes,
+                             @Value("${game.cluster.virtual-nodes:128}") int virtualNodes,
+                             @Value("${game.cluster.request-timeout-ms:2000}") long requestTimeoutMs,
+                             @Value("${game.cluster.secret:}") String secret) {
+        if (enabled && secret.isBlank()) {
+            throw new IllegalStateException("game.cluster.secret must be set when game.cluster.enabled is true");
+        }
+        this.enabled = enabled;
+        this.self = trim(self);
+        this.secret = secret;
+        this.seeds = nodes.stream().map(ClusterMembership::trim).filter(node -> !node.isEmpty()
+                && !node.equals(this.self)).distinct().toList();
+        this.virtualNodes = virtualNodes;
+        this.probeTimeout = Duration.ofMillis(Math.max(100, requestTimeoutMs / 4));
+        this.http = HttpClient.newBuilder().connectTimeout(probeTimeout).build();
+        // Until the first probe this node only knows about itself
+        this.ring = new HashRing(List.of(this.self), virtualNodes);
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    public String self() {
+        return self;
+    }
+
+    public String secret() {
+        return secret;
+    }
+
+    // True if a node-to-node call carried the shared secret
+    public boolean authorizes(String presented) {
+        return enabled && presented != null && MessageDigest.isEqual(
+                secret.getBytes(StandardCharsets.UTF_8), presented.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String ownerOf(String gameId) {
+        return ring.owner(gameId);
+    }
+
+    public boolean isLocal(String gameId) {
+        return !enabled || ring.owner(gameId).equals(self);
+    }
+
+    // An id for a new game that lands on this node, or null while it is off the ring
+    public String newLocalGameId() {
+        return ring.idOwnedBy(self, UUID.randomUUID().getLeastSignificantBits());
+    }
+
+    public List<String> liveNodes() {
+        return ring.nodes();
+    }
+
+    // Games may still be in transit for a while after the ring changes
+    public boolean changedWithin(Duration window) {
+        return System.nanoTime() - changedAt < window.toNanos();
+    }
+
+    // Run after each ring change, on the probing thread; hand work off rather than block
+    public void onChange(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    public boolean leaving() {
+        return leaving;
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${game.cluster.probe-interval-ms:1000}")
+    public void probe() {
+        if (!enabled || leaving) {
+            return;
+        }
+        List<CompletableFuture<String>> pings = new ArrayList<>(seeds.size());
+        for (String node : seeds) {
+            HttpRequest ping = HttpRequest.newBuilder(URI.create(node + "/internal/cluster/ping"))
+                    .timeout(probeTimeout)
+                    .GET()
+                    .build();
+            pings.add(http.sendAsync(ping, HttpResponse.BodyHandlers.discarding())
+                    .handle((response, error) -> error == null && response.statusCode() == 200 ? node : null));
+        }
+        Set<String> live = new TreeSet<>();
+        live.add(self);
+        for (CompletableFuture<String> ping : pings) {
+            String node = ping.join();
+            if (node != null) {
+                live.add(node);
+            }
+        }
+        update(live);
+    }
+
+    // Stops taking games and hands ownership of ours to the remaining nodes
+    public void leave() {
+        if (!enabled) {
+            return;
+        }
+        leaving = true;
+        List<String> others = new ArrayList<>(ring.nodes());
+        others.remove(self);
+        if (!others.isEmpty()) {
+            update(new TreeSet<>(others));
+        }
+    }
+
+    private synchronized void update(Set<String> live) {
+        if (ring.nodes().equals(List.copyOf(live))) {
+            return;
+        }
+        log.info("Cluster membership changed: {} -> {}", ring.nodes(), live);
+        ring = new HashRing(live, virtualNodes);
+        changedAt = System.nanoTime();
+        for (Runnable listener : listeners) {
+            listener.run();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("self", self);
+        stats.put("liveNodes", ring.nodes());
+        stats.put("leaving", leaving);
+        stats.put("lastChangeSecondsAgo", (System.nanoTime() - changedAt) / 1_000_000_000L);
+        return stats;
+    }
+
+    private static String trim(String url) {
+        String trimmed = url.trim();
+        return trimmed.endsWith("/") ? trimmed.substring(0, trimmed.length() - 1) : trimmed;
+    }
+}
@@ -0,0 +1,346 @@
+package com.hawkeye.cardgame.cluster;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hawkeye.cardgame.diagnostics.SampledLogger;
+import com.hawkeye.cardgame.engine.Deck;
+import com.hawkeye.cardgame.model.Card;
+import com.hawkeye.cardgame.model.GameMessage;
+import com.hawkeye.cardgame.model.GameSnapshot;
+import com.hawkeye.cardgame.model.GameState;
+import com.hawkeye.cardgame.model.HandoffGame;
+import com.hawkeye.cardgame.service.GameService;
+import com.hawkeye.cardgame.store.GameStore;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Sends game operations to the node that owns the game. Local games go
+ * straight to GameService; anything else is forwarded over HTTP to the
+ * owner's own REST API, marked so the owner never forwards it again.
+ *
+ * New games get an id minted on this node's part of the ring, so the
+ * common case of a player staying on one node never leaves it. When the ring changes, games
+ * this node no longer owns are detached and pushed to their new owner;
+ * reads that arrive before a game does are retried for a short grace period.
+ * A push that fails leaves the games here, still served locally, and is
+ * tried again with backoff until the new owner takes them.
+ */
+@Component
+public class GameRouter implements DisposableBean {
+
+    public static final String FORWARDED_HEADER = "X-Game-Forwarded";
+
+    private static final SampledLogger log = SampledLogger.of(GameRouter.class, 10);
+    private static final int HANDOFF_BATCH = 500;
+    // Batches being pushed at once; the next batch is detached meanwhile
+    private static final int HANDOFFS_IN_FLIGHT = 4;
+    private static final int MISS_RETRIES = 10;
+    private static final long MISS_RETRY_MS = 100;
+    private static final long HANDOFF_RETRY_MS = 250;
+    private static final long HANDOFF_RETRY_MAX_MS = 30_000;
+
+    private final GameService gameService;
+    private final GameStore gameStore;
+    private final ClusterMembership membership;
+    private final ObjectMapper objectMapper;
+    private final Duration requestTimeout;
+    private final Duration handoffGrace;
+    private final HttpClient http;
+    private final ScheduledExecutorService rebalancer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "cluster-rebalance");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final LongAdder forwarded = new LongAdder();
+    private final LongAdder handedOff = new LongAdder();
+    private final LongAdder adopted = new LongAdder();
+    private final LongAdder missRetries = new LongAdder();
+    private final LongAdder handoffRetries = new LongAdder();
+
+    // Only touched on the rebalancer thread
+    private int failedRebalances;
+    private ScheduledFuture<?> retry;
+
+    public GameRouter(GameService gameService, GameStore gameStore, ClusterMembership membership,
+                      ObjectMapper objectMapper,
+                      @Value("${game.cluster.request-timeout-ms:2000}") long requestTimeoutMs) {
+        this.gameService = gameService;
+        this.gameStore = gameStore;
+        this.membership = membership;
+        this.objectMapper = objectMapper;
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMs);
+        this.handoffGrace = Duration.ofMillis(MISS_RETRIES * MISS_RETRY_MS);
+        this.http = HttpClient.newBuilder().connectTimeout(requestTimeout).build();
+        membership.onChange(() -> rebalancer.execute(this::rebalance));
+    }
+
+    public GameState startNewGame() {
+        if (!membership.enabled()) {
+            return gameService.startNewGame();
+        }
+        String gameId = membership.leaving() ? null : membership.newLocalGameId();
+        if (gameId == null) {
+            // Off the ring, so no id would ever be ours
+            throw new IllegalStateException("Not taking new games while leaving the cluster");
+        }
+        return gameService.startNewGame(gameId);
+    }
+
+    public CompletableFuture<GameState> makeGuessAsync(String gameId, String guess, boolean forwardedHere) {
+        return route(gameId, forwardedHere, () -> gameService.makeGuessAsync(gameId, guess),
+                owner -> send(gameId, HttpRequest.newBuilder(URI.create(owner + "/api/game/" + gameId + "/guess"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(json(Map.of("guess", guess))))), 0);
+    }
+
+    public CompletableFuture<GameState> getGameStateAsync(String gameId, boolean forwardedHere) {
+        return route(gameId, forwardedHere, () -> gameService.getGameStateAsync(gameId),
+                owner -> send(gameId, HttpRequest.newBuilder(URI.create(owner + "/api/game/" + gameId)).GET()), 0);
+    }
+
+    // Lets the game expire early wherever it is held. A game still waiting to be
+    // handed off is released here too; the forward never blocks the caller.
+    public void release(String gameId, boolean forwardedHere) {
+        gameStore.release(gameId);
+        if (forwardedHere || !membership.enabled() || membership.isLocal(gameId)) {
+            return;
+        }
+        String owner = membership.ownerOf(gameId);
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(URI.create(owner + "/internal/cluster/games/" + gameId + "/release"))
+                    .header(ClusterMembership.SECRET_HEADER, membership.secret())
+                    .timeout(requestTimeout)
+                    .POST(HttpRequest.BodyPublishers.noBody())
+                    .build();
+        } catch (IllegalArgumentException e) {
+            // Ids come from clients; one that is no valid path was never a game
+            return;
+        }
+        forwarded.increment();
+        http.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+            if (error != null || response.statusCode() != 200) {
+                // The owner's idle TTL still reclaims the game, just later
+                log.warn("Releasing game {} on {} failed: {}", gameId, owner,
+                        error != null ? error : "answered " + response.statusCode());
+            }
+        });
+    }
+
+    // Base URL of the node that owns the game, or null if it is this one
+    public String remoteOwner(String gameId) {
+        return membership.isLocal(gameId) ? null : membership.ownerOf(gameId);
+    }
+
+    // Games pushed here by their previous owner
+    public void adopt(List<HandoffGame> games) {
+        for (HandoffGame game : games) {
+            gameService.adopt(fromHandoff(game));
+            adopted.increment();
+        }
+    }
+
+    private CompletableFuture<GameState> route(String gameId, boolean forwardedHere,
+                                               Supplier<CompletableFuture<GameState>> local,
+                                               Function<String, CompletableFuture<GameState>> remote,
+                                               int attempt) {
+        // A game whose handoff has not gone through yet is still served from here
+        if (!forwardedHere && !membership.isLocal(gameId) && gameStore.get(gameId) == null) {
+            forwarded.increment();
+            return remote.apply(membership.ownerOf(gameId));
+        }
+        CompletableFuture<GameState> result = local.get();
+        if (!membership.enabled()) {
+            return result;
+        }
+        return result.exceptionallyCompose(error -> {
+            // The previous owner may not have pushed the game here yet
+            if (attempt < MISS_RETRIES && isMissing(error) && membership.changedWithin(handoffGrace)) {
+                missRetries.increment();
+                return CompletableFuture.runAsync(() -> {},
+                                CompletableFuture.delayedExecutor(MISS_RETRY_MS, TimeUnit.MILLISECONDS))
+                        .thenCompose(ignored -> route(gameId, forwardedHere, local, remote, attempt + 1));
+            }
+            return CompletableFuture.failedFuture(error);
+        });
+    }
+
+    private CompletableFuture<GameState> send(String gameId, HttpRequest.Builder request) {
+        HttpRequest forward = request.header(FORWARDED_HEADER, membership.self())
+                .timeout(requestTimeout)
+                .build();
+        return http.sendAsync(forward, HttpResponse.BodyHandlers.ofByteArray()).thenApply(response -> {
+            if (response.statusCode() == 404) {
+                throw new IllegalArgumentException("Game not found: " + gameId);
+            }
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Owner of game " + gameId + " answered " + response.statusCode());
+            }
+            try {
+                GameState state = objectMapper.readValue(response.body(), GameState.class);
+                // The owner's JSON is this version's snapshot, so it is not written again here
+                state.setSnapshot(new GameSnapshot(state.getVersion(), response.body()));
+                return state;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private void rebalance() {
+        if (retry != null) {
+            retry.cancel(false);
+            retry = null;
+        }
+        Map<String, List<String>> moving = new HashMap<>();
+        gameStore.forEach(state -> {
+            String owner = membership.ownerOf(state.getGameId());
+            if (!owner.equals(membership.self())) {
+                moving.computeIfAbsent(owner, node -> new ArrayList<>()).add(state.getGameId());
+            }
+        });
+        Semaphore inFlight = new Semaphore(HANDOFFS_IN_FLIGHT);
+        List<CompletableFuture<Boolean>> pushes = new ArrayList<>();
+        for (Map.Entry<String, List<String>> entry : moving.entrySet()) {
+            List<String> gameIds = entry.getValue();
+            for (int from = 0; from < gameIds.size(); from += HANDOFF_BATCH) {
+                inFlight.acquireUninterruptibly();
+                CompletableFuture<Boolean> push = handOff(entry.getKey(),
+                        gameIds.subList(from, Math.min(gameIds.size(), from + HANDOFF_BATCH)));
+                push.whenComplete((pushed, error) -> inFlight.release());
+                pushes.add(push);
+            }
+        }
+        boolean kept = false;
+        for (CompletableFuture<Boolean> push : pushes) {
+            kept |= !push.join();
+        }
+        if (!kept) {
+            failedRebalances = 0;
+            return;
+        }
+        long delay = Math.min(HANDOFF_RETRY_MAX_MS, HANDOFF_RETRY_MS << Math.min(failedRebalances++, 10));
+        try {
+            retry = rebalancer.schedule(() -> {
+                handoffRetries.increment();
+                rebalance();
+            }, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Shut down; the games stay with this node
+        }
+    }
+
+    // Completes with false if the games could not be pushed and were kept here
+    private CompletableFuture<Boolean> handOff(String owner, List<String> gameIds) {
+        List<GameState> detached = new ArrayList<>(gameIds.size());
+        List<HandoffGame> batch = new ArrayList<>(gameIds.size());
+        for (String gameId : gameIds) {
+            GameState state = gameService.detach(gameId);
+            if (state != null) {
+                detached.add(state);
+                batch.add(toHandoff(state));
+            }
+        }
+        if (batch.isEmpty()) {
+            return CompletableFuture.completedFuture(true);
+        }
+        HttpRequest push = HttpRequest.newBuilder(URI.create(owner + "/internal/cluster/games"))
+                .header("Content-Type", "application/json")
+                .header(ClusterMembership.SECRET_HEADER, membership.secret())
+                .timeout(requestTimeout)
+                .PUT(HttpRequest.BodyPublishers.ofByteArray(json(batch)))
+                .build();
+        return http.sendAsync(push, HttpResponse.BodyHandlers.discarding()).handle((response, error) -> {
+            if (error == null && response.statusCode() == 200) {
+                handedOff.add(batch.size());
+                return true;
+            }
+            String reason = error != null
+                    ? (error.getCause() != null ? error.getCause() : error).toString()
+                    : "answered " + response.statusCode();
+            // Keep them here rather than lose them; rebalance tries again later
+            log.warn("Handing {} games to {} failed, keeping them: {}", batch.size(), owner, reason);
+            detached.forEach(gameService::adopt);
+            return false;
+        });
+    }
+
+    private static HandoffGame toHandoff(GameState state) {
+        Deck deck = state.getDeck();
+        byte[] codes = new byte[deck.size()];
+        deck.writeTo(ByteBuffer.wrap(codes), 0);
+        GameMessage message = state.getMessageType() != null ? state.getMessageType() : GameMessage.NONE;
+        return new HandoffGame(state.getGameId(), state.getCurrentCard().code(), state.getNextCard().code(),
+                state.getScore(), state.isGameOver(), message.id(), state.getVersion(), deck.cursor(), codes);
+    }
+
+    private static GameState fromHandoff(HandoffGame game) {
+        GameState state = new GameState(game.gameId(), Card.of(game.currentCard()), Card.of(game.nextCard()),
+                game.score(), game.gameOver(), null);
+        state.setMessageType(GameMessage.of(game.message()));
+        state.setVersion(game.version());
+        state.setDeck(Deck.restore(ByteBuffer.wrap(game.deck()), 0, game.deck().length, game.deckCursor()));
+        return state;
+    }
+
+    private static boolean isMissing(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause instanceof IllegalArgumentException && String.valueOf(cause.getMessage()).startsWith("Game not found");
+    }
+
+    private byte[] json(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>(membership.stats());
+        stats.put("localGames", gameStore.size());
+        stats.put("forwarded", forwarded.sum());
+        stats.put("handedOff", handedOff.sum());
+        stats.put("adopted", adopted.sum());
+        stats.put("missRetries", missRetries.sum());
+        stats.put("handoffRetries", handoffRetries.sum());
+        return stats;
+    }
+
+    // Leaving the cluster: every game goes to the node that owns it without us
+    @Override
+    public void destroy() throws InterruptedException {
+        if (membership.enabled()) {
+            membership.leave();
+        }
+        rebalancer.shutdown();
+        rebalancer.awaitTermination(30, TimeUnit.SECONDS);
+    }
+}
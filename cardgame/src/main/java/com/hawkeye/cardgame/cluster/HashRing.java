@@ -0,0 +1,161 @@
+package com.hawkeye.cardgame.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Consistent-hash ring over node ids. Each node is placed at a number of
+ * virtual points so games spread evenly, and adding or removing a node only
+ * moves the games between it and its neighbours. Immutable; a membership
+ * change builds a new ring.
+ *
+ * A game id (a UUID) sits on the ring at its high 64 bits rather than at a
+ * hash, so a node can mint ids that land on its own arcs in one step.
+ */
+final class HashRing {
+
+    private final long[] points;
+    private final String[] owners;
+    private final List<String> nodes;
+    // Each node's arcs, so ids can be minted on them
+    private final Map<String, Arcs> arcs = new HashMap<>();
+
+    HashRing(Collection<String> nodes, int virtualNodes) {
+        if (nodes.isEmpty() || virtualNodes <= 0) {
+            throw new IllegalArgumentException("A ring needs at least one node and one point per node");
+        }
+        this.nodes = nodes.stream().sorted().distinct().toList();
+        int count = this.nodes.size() * virtualNodes;
+        long[] hashes = new long[count];
+        String[] names = new String[count];
+        int i = 0;
+        for (String node : this.nodes) {
+            for (int v = 0; v < virtualNodes; v++) {
+                hashes[i] = hash(node + "#" + v);
+                names[i] = node;
+                i++;
+            }
+        }
+        // Sort the points and carry their owners along
+        Integer[] order = new Integer[count];
+        for (int k = 0; k < count; k++) {
+            order[k] = k;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(hashes[a], hashes[b]));
+        this.points = new long[count];
+        this.owners = new String[count];
+        for (int k = 0; k < count; k++) {
+            points[k] = hashes[order[k]];
+            owners[k] = names[order[k]];
+        }
+        for (String node : this.nodes) {
+            int[] ends = new int[virtualNodes];
+            double[] cumulative = new double[virtualNodes];
+            double total = 0;
+            int n = 0;
+            for (int k = 0; k < count; k++) {
+                if (owners[k].equals(node)) {
+                    total += unsigned(points[k] - start(k));
+                    ends[n] = k;
+                    cumulative[n++] = total;
+                }
+            }
+            arcs.put(node, new Arcs(ends, cumulative));
+        }
+    }
+
+    // First point clockwise from the key's position
+    String owner(String key) {
+        int index = Arrays.binarySearch(points, position(key));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    List<String> nodes() {
+        return nodes;
+    }
+
+    /**
+     * A random version 4 UUID that the node owns: an arc is picked in
+     * proportion to its length and the high bits are a point on it. The low
+     * bits are the caller's, so they can stay unguessable. Null if the node
+     * is not on the ring.
+     */
+    String idOwnedBy(String node, long leastSignificantBits) {
+        Arcs owned = arcs.get(node);
+        if (owned == null) {
+            return null;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double[] cumulative = owned.cumulative();
+        while (true) {
+            int pick = Arrays.binarySearch(cumulative, random.nextDouble() * cumulative[cumulative.length - 1]);
+            int end = owned.ends()[pick < 0 ? Math.min(-pick - 1, cumulative.length - 1) : pick];
+            long length = points[end] - start(end);
+            // An arc wider than half the ring only happens with one or two points
+            long offset = length > 0 ? random.nextLong(length) : random.nextLong() >>> 1;
+            long position = start(end) + 1 + offset;
+            // Setting the version bits moves the point by less than 2^16, so this
+            // almost never has to go round again
+            UUID id = new UUID(position & ~0xF000L | 0x4000L, leastSignificantBits);
+            String gameId = id.toString();
+            if (node.equals(owner(gameId))) {
+                return gameId;
+            }
+        }
+    }
+
+    // Exclusive start of the arc that ends at point k
+    private long start(int k) {
+        return points[k == 0 ? points.length - 1 : k - 1];
+    }
+
+    private static double unsigned(long length) {
+        // The only arc of a one-point ring is the whole ring
+        return length == 0 ? 0x1p64 : length > 0 ? length : length + 0x1p64;
+    }
+
+    // Game ids sit at their high 64 bits; anything that isn't a UUID is hashed
+    static long position(String key) {
+        if (key.length() != 36 || key.charAt(8) != '-' || key.charAt(13) != '-' || key.charAt(18) != '-') {
+            return hash(key);
+        }
+        long bits = 0;
+        for (int i = 0; i < 18; i++) {
+            if (i == 8 || i == 13) {
+                continue;
+            }
+            int digit = Character.digit(key.charAt(i), 16);
+            if (digit < 0) {
+                return hash(key);
+            }
+            bits = bits << 4 | digit;
+        }
+        return bits;
+    }
+
+    // FNV-1a, finished with a 64-bit mix so similar ids land far apart
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private record Arcs(int[] ends, double[] cumulative) {}
+}
@@ -0,0 +1,81 @@
+package com.hawkeye.cardgame.config;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.support.AbstractSubscribableChannel;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tracks how many handler tasks are waiting on and running in a STOMP
+ * channel's executor. Works the same for a bounded pool and for virtual
+ * threads, which have no queue of their own to inspect.
+ */
+public class ChannelDepthInterceptor implements ExecutorChannelInterceptor {
+
+    private final AtomicLong queued = new AtomicLong();
+    private final AtomicLong active = new AtomicLong();
+    private final AtomicLong maxQueued = new AtomicLong();
+    private final LongAdder handled = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        long depth = queued.addAndGet(tasks(channel));
+        maxQueued.accumulateAndGet(depth, Math::max);
+        return message;
+    }
+
+    @Override
+    public void afterSendCompletion(Message<?> message, MessageChannel channel, boolean sent, Exception ex) {
+        // Rejected by the executor or stopped by a later interceptor, so beforeHandle
+        // will never run for it. A pool that rejects one task has usually rejected the
+        // first, so all of them are taken back
+        if (ex != null || !sent) {
+            queued.addAndGet(-tasks(channel));
+            failed.increment();
+        }
+    }
+
+    // One task is scheduled per subscribed handler
+    private static int tasks(MessageChannel channel) {
+        return channel instanceof AbstractSubscribableChannel subscribable
+                ? subscribable.getSubscribers().size() : 1;
+    }
+
+    @Override
+    public Message<?> beforeHandle(Message<?> message, MessageChannel channel, MessageHandler handler) {
+        queued.decrementAndGet();
+        active.incrementAndGet();
+        return message;
+    }
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+        active.decrementAndGet();
+        handled.increment();
+    }
+
+    public long queued() {
+        return queued.get();
+    }
+
+    public long active() {
+        return active.get();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queued", queued.get());
+        stats.put("maxQueued", maxQueued.get());
+        stats.put("active", active.get());
+        stats.put("handled", handled.sum());
+        stats.put("failed", failed.sum());
+        return stats;
+    }
+}
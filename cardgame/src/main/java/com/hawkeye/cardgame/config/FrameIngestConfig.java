@@ -0,0 +1,41 @@
+package com.hawkeye.cardgame.config;
+
+import com.hawkeye.cardgame.gesture.FrameIngestHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+// Raw binary WebSocket for camera frames, next to the STOMP endpoint in WebSocketConfig
+@Configuration
+@EnableWebSocket
+public class FrameIngestConfig implements WebSocketConfigurer {
+
+    private final FrameIngestHandler frameIngestHandler;
+
+    @Value("${game.frames.max-frame-bytes:524288}")
+    private int maxFrameBytes;
+
+    public FrameIngestConfig(FrameIngestHandler frameIngestHandler) {
+        this.frameIngestHandler = frameIngestHandler;
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        // Not under /ws, which the SockJS endpoint claims entirely
+        registry.addHandler(frameIngestHandler, "/frames")
+                .setAllowedOriginPatterns("*");
+    }
+
+    // Tomcat's default binary buffer (8KB) is far too small for a JPEG frame.
+    // Set on the embedded server only, so mock-servlet contexts don't need a container
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> frameBufferCustomizer() {
+        return factory -> factory.addContextCustomizers(context ->
+                context.addParameter("org.apache.tomcat.websocket.binaryBufferSize", Integer.toString(maxFrameBytes)));
+    }
+}
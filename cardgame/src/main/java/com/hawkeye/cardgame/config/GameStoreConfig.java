@@ -0,0 +1,31 @@
+package com.hawkeye.cardgame.config;
+
+import com.hawkeye.cardgame.store.GameStore;
+import com.hawkeye.cardgame.store.ShardedGameStore;
+import com.hawkeye.cardgame.store.SlabGameStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.time.Duration;
+
+@Configuration
+@EnableScheduling
+public class GameStoreConfig {
+
+    // game.store.type=slab keeps games off-heap; anything else uses the sharded map
+    @Bean
+    public GameStore gameStore(
+            @Value("${game.store.type:sharded}") String type,
+            @Value("${game.store.shards:64}") int shards,
+            @Value("${game.store.max-size:200000}") int maxSize,
+            @Value("${game.store.idle-ttl:30m}") Duration idleTtl,
+            @Value("${game.store.game-over-ttl:2m}") Duration gameOverTtl,
+            @Value("${game.deck.count:1}") int deckCount) {
+        if ("slab".equalsIgnoreCase(type)) {
+            return new SlabGameStore(shards, maxSize, deckCount, idleTtl, gameOverTtl);
+        }
+        return new ShardedGameStore(shards, maxSize, idleTtl, gameOverTtl);
+    }
+}
@@ -0,0 +1,66 @@
+package com.hawkeye.cardgame.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.hawkeye.cardgame.model.JsonBytes;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.AbstractMessageConverter;
+import org.springframework.messaging.converter.MessageConversionException;
+import org.springframework.util.MimeTypeUtils;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * STOMP payload converter that keeps one Jackson ObjectReader/ObjectWriter
+ * per payload class. Unlike the generic Jackson converter it skips the
+ * per-message type and view resolution, and it is registered ahead of the
+ * defaults so typed @Payload records and outgoing GestureMessages use it.
+ * Strings and raw bytes are left to the default converters; JsonBytes
+ * payloads are already serialized and go out unchanged.
+ */
+public class JsonMessageConverter extends AbstractMessageConverter {
+
+    private final ObjectMapper objectMapper;
+    private final ConcurrentHashMap<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+    public JsonMessageConverter(ObjectMapper objectMapper) {
+        super(MimeTypeUtils.APPLICATION_JSON);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz != String.class && clazz != byte[].class;
+    }
+
+    @Override
+    protected Object convertFromInternal(Message<?> message, Class<?> targetClass, Object conversionHint) {
+        ObjectReader reader = readers.computeIfAbsent(targetClass, objectMapper::readerFor);
+        Object payload = message.getPayload();
+        try {
+            if (payload instanceof byte[] bytes) {
+                return reader.readValue(bytes);
+            }
+            return reader.readValue(payload.toString());
+        } catch (IOException e) {
+            throw new MessageConversionException(message, "Could not read JSON: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    protected Object convertToInternal(Object payload, MessageHeaders headers, Object conversionHint) {
+        if (payload instanceof JsonBytes json) {
+            return json.json();
+        }
+        ObjectWriter writer = writers.computeIfAbsent(payload.getClass(), objectMapper::writerFor);
+        try {
+            return writer.writeValueAsBytes(payload);
+        } catch (IOException e) {
+            throw new MessageConversionException("Could not write JSON: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.hawkeye.cardgame.config;
+
+import com.hawkeye.cardgame.session.SessionRegistry;
+import com.hawkeye.cardgame.store.GameStore;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Gauges for the live state that /api/stats reports, so it can be scraped
+ * from /actuator/prometheus. Timers live next to the code they time.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder gameGauges(GameStore gameStore, SessionRegistry sessionRegistry) {
+        return registry -> {
+            Gauge.builder("game.active", gameStore, GameStore::size)
+                    .description("Games held in the store")
+                    .register(registry);
+            Gauge.builder("game.sessions.active", sessionRegistry, SessionRegistry::activeSessions)
+                    .description("Registered gesture sessions")
+                    .register(registry);
+            Gauge.builder("game.sessions.connections", sessionRegistry, SessionRegistry::connections)
+                    .description("Open STOMP connections")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder brokerGauges(@Qualifier("clientInboundDepth") ChannelDepthInterceptor clientInboundDepth,
+                                    @Qualifier("clientOutboundDepth") ChannelDepthInterceptor clientOutboundDepth) {
+        return registry -> {
+            channelGauges(registry, "inbound", clientInboundDepth);
+            channelGauges(registry, "outbound", clientOutboundDepth);
+        };
+    }
+
+    private static void channelGauges(MeterRegistry registry, String channel,
+                                      ChannelDepthInterceptor depth) {
+        Gauge.builder("broker.channel.queued", depth, ChannelDepthInterceptor::queued)
+                .description("Handler tasks waiting on the STOMP channel executor")
+                .tag("channel", channel)
+                .register(registry);
+        Gauge.builder("broker.channel.active", depth, ChannelDepthInterceptor::active)
+                .description("Handler tasks running on the STOMP channel executor")
+                .tag("channel", channel)
+                .register(registry);
+    }
+}
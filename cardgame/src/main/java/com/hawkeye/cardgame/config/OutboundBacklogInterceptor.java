@@ -0,0 +1,83 @@
+package com.hawkeye.cardgame.config;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Counts messages per destination that are on their way to a WebSocket
+ * session but not yet handed to it, for the destinations under the given
+ * prefixes. A listener is told whenever one of them completes, so callers
+ * can hold back further updates until a slow session catches up.
+ */
+public class OutboundBacklogInterceptor implements ExecutorChannelInterceptor {
+
+    private final List<String> prefixes;
+    // Destinations with nothing in flight are removed
+    private final ConcurrentHashMap<String, Integer> inFlight = new ConcurrentHashMap<>();
+    private volatile Consumer<String> drainListener = destination -> {};
+
+    public OutboundBacklogInterceptor(String... prefixes) {
+        this.prefixes = List.of(prefixes);
+    }
+
+    public void onDrained(Consumer<String> listener) {
+        this.drainListener = listener;
+    }
+
+    public int inFlight(String destination) {
+        return inFlight.getOrDefault(destination, 0);
+    }
+
+    public int trackedDestinations() {
+        return inFlight.size();
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        String destination = trackedDestination(message);
+        if (destination != null) {
+            inFlight.merge(destination, 1, Integer::sum);
+        }
+        return message;
+    }
+
+    @Override
+    public void afterSendCompletion(Message<?> message, MessageChannel channel, boolean sent, Exception ex) {
+        // Rejected by the executor, so afterMessageHandled will never run for it
+        if (ex != null) {
+            completed(message);
+        }
+    }
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+        completed(message);
+    }
+
+    private void completed(Message<?> message) {
+        String destination = trackedDestination(message);
+        if (destination != null) {
+            inFlight.computeIfPresent(destination, (key, count) -> count > 1 ? count - 1 : null);
+            drainListener.accept(destination);
+        }
+    }
+
+    private String trackedDestination(Message<?> message) {
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        if (destination != null) {
+            for (String prefix : prefixes) {
+                if (destination.startsWith(prefix)) {
+                    return destination;
+                }
+            }
+        }
+        return null;
+    }
+}
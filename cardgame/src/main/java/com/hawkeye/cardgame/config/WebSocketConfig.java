@@ -1,25 +1,155 @@
 package com.hawkeye.cardgame.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hawkeye.cardgame.spectate.SpectatorHub;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
 
+import java.util.List;
+
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    // Same switch that moves Tomcat request handling onto virtual threads
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    // Per-session limits; a session that stays over them is closed by Spring
+    @Value("${game.ws.send-buffer-size-limit:131072}")
+    private int sendBufferSizeLimit;
+
+    @Value("${game.ws.send-time-limit-ms:10000}")
+    private int sendTimeLimitMs;
+
+    // Broker heartbeats let the server notice dead connections and close them
+    @Value("${game.session.heartbeat-ms:10000}")
+    private long heartbeatMs;
+
+    // Clustered nodes share /topic through an external STOMP broker instead
+    @Value("${game.cluster.enabled:false}")
+    private boolean clustered;
+
+    @Value("${game.cluster.relay-host:localhost}")
+    private String relayHost;
+
+    @Value("${game.cluster.relay-port:61613}")
+    private int relayPort;
+
+    @Value("${game.cluster.relay-login:guest}")
+    private String relayLogin;
+
+    @Value("${game.cluster.relay-passcode:guest}")
+    private String relayPasscode;
+
+    private TaskScheduler messageBrokerTaskScheduler;
+
+    private final ObjectMapper objectMapper;
+    private final SpectatorHub spectatorHub;
+
+    public WebSocketConfig(ObjectMapper objectMapper, SpectatorHub spectatorHub) {
+        this.objectMapper = objectMapper;
+        this.spectatorHub = spectatorHub;
+    }
+
+    @Autowired
+    public void setMessageBrokerTaskScheduler(@Lazy @Qualifier("messageBrokerTaskScheduler") TaskScheduler taskScheduler) {
+        this.messageBrokerTaskScheduler = taskScheduler;
+    }
+
+    @Bean
+    public ChannelDepthInterceptor clientInboundDepth() {
+        return new ChannelDepthInterceptor();
+    }
+
+    @Bean
+    public ChannelDepthInterceptor clientOutboundDepth() {
+        return new ChannelDepthInterceptor();
+    }
+
+    // Per-session game update topics, so GameUpdatePublisher can conflate for slow sessions
+    @Bean
+    public OutboundBacklogInterceptor sessionBacklog() {
+        return new OutboundBacklogInterceptor("/topic/gesture/", "/topic/delta/");
+    }
+
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         registry.addEndpoint("/ws")
                 .setAllowedOriginPatterns("*")
                 .withSockJS();
+        if (virtualThreads) {
+            // Inbound frames from one session are otherwise dispatched in parallel
+            registry.setPreserveReceiveOrder(true);
+        }
     }
 
     @Override
     public void configureMessageBroker(MessageBrokerRegistry registry) {
         registry.setApplicationDestinationPrefixes("/app");
-        registry.enableSimpleBroker("/topic");
+        if (clustered) {
+            // A session on any node sees updates published by any other
+            registry.enableStompBrokerRelay("/topic")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(relayLogin)
+                    .setClientPasscode(relayPasscode)
+                    .setSystemLogin(relayLogin)
+                    .setSystemPasscode(relayPasscode)
+                    .setSystemHeartbeatSendInterval(heartbeatMs)
+                    .setSystemHeartbeatReceiveInterval(heartbeatMs);
+        } else {
+            registry.enableSimpleBroker("/topic")
+                    .setHeartbeatValue(new long[] {heartbeatMs, heartbeatMs})
+                    .setTaskScheduler(messageBrokerTaskScheduler);
+        }
+        // Delta updates are only valid in seq order, and neither the pooled nor the
+        // virtual-thread outbound executor keeps a session's sends in order on its own
+        registry.setPreservePublishOrder(true);
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendBufferSizeLimit(sendBufferSizeLimit);
+        registration.setSendTimeLimit(sendTimeLimitMs);
+    }
+
+    @Override
+    public boolean configureMessageConverters(List<MessageConverter> messageConverters) {
+        messageConverters.add(new JsonMessageConverter(objectMapper));
+        // Keep the defaults behind it for String and byte[] payloads
+        return true;
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(clientInboundDepth());
+        if (virtualThreads) {
+            // @MessageMapping dispatch in the gesture controllers
+            registration.executor(new VirtualThreadTaskExecutor("stomp-inbound-"));
+        }
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        // The hub also paces spectators by what has reached their sockets
+        registration.interceptors(clientOutboundDepth(), sessionBacklog(), spectatorHub);
+        if (virtualThreads) {
+            // Broker -> session sends, so a slow subscriber parks a virtual thread, not a pool slot
+            registration.executor(new VirtualThreadTaskExecutor("stomp-outbound-"));
+        }
     }
-}
\ No newline at end of file
+}
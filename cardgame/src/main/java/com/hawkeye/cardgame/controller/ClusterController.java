@@ -0,0 +1,70 @@
+package com.hawkeye.cardgame.controller;
+
+import com.hawkeye.cardgame.cluster.ClusterMembership;
+import com.hawkeye.cardgame.cluster.GameRouter;
+import com.hawkeye.cardgame.model.HandoffGame;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+// Node-to-node calls; keep /internal off the public load balancer
+@RestController
+@RequestMapping("/internal/cluster")
+public class ClusterController {
+
+    private final ClusterMembership membership;
+    private final GameRouter router;
+
+    public ClusterController(ClusterMembership membership, GameRouter router) {
+        this.membership = membership;
+        this.router = router;
+    }
+
+    // A leaving node stops answering so the others drop it from their rings
+    @GetMapping("/ping")
+    public ResponseEntity<String> ping() {
+        if (!membership.enabled() || membership.leaving()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(membership.self());
+    }
+
+    // Writes games as given, so only other nodes holding the cluster secret may call it
+    @PutMapping("/games")
+    public ResponseEntity<Void> adopt(
+            @RequestHeader(value = ClusterMembership.SECRET_HEADER, required = false) String secret,
+            @RequestBody List<HandoffGame> games) {
+        if (!membership.enabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!membership.authorizes(secret)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        router.adopt(games);
+        return ResponseEntity.ok().build();
+    }
+
+    // A session on another node stopped playing one of this node's games
+    @PostMapping("/games/{gameId}/release")
+    public ResponseEntity<Void> release(
+            @RequestHeader(value = ClusterMembership.SECRET_HEADER, required = false) String secret,
+            @PathVariable String gameId) {
+        if (!membership.enabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!membership.authorizes(secret)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        router.release(gameId, true);
+        return ResponseEntity.ok().build();
+    }
+}
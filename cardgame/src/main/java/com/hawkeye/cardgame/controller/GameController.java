@@ -1,69 +1,142 @@
 package com.hawkeye.cardgame.controller;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.hawkeye.cardgame.cluster.GameRouter;
+import com.hawkeye.cardgame.diagnostics.SampledLogger;
 import com.hawkeye.cardgame.model.GameState;
-import com.hawkeye.cardgame.service.GameService;
+import com.hawkeye.cardgame.service.GameBatchRunner;
+import com.hawkeye.cardgame.service.GameSnapshots;
+import com.hawkeye.cardgame.stream.GameStreams;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
-import org.springframework.beans.factory.annotation.Autowired;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/game")
 @CrossOrigin(origins = {"http://localhost:3000", "http://127.0.0.1:3000"})
 public class GameController {
 
-	@Autowired
-    private final GameService gameService;
+    private static final SampledLogger log = SampledLogger.of(GameController.class, 20);
 
-    public GameController(GameService gameService) {
-        this.gameService = gameService;
+    private final GameRouter gameRouter;
+    private final GameSnapshots snapshots;
+    private final GameBatchRunner batchRunner;
+    private final GameStreams streams;
+
+    // Games may live on another node, so everything goes through the router
+    public GameController(GameRouter gameRouter, GameSnapshots snapshots, GameBatchRunner batchRunner,
+                          GameStreams streams) {
+        this.gameRouter = gameRouter;
+        this.snapshots = snapshots;
+        this.batchRunner = batchRunner;
+        this.streams = streams;
     }
 
     @PostMapping("/start")
     public ResponseEntity<GameState> startGame() {
         try {
-            GameState gameState = gameService.startNewGame();
+            GameState gameState = gameRouter.startNewGame();
             return ResponseEntity.ok(gameState);
+        } catch (IllegalStateException e) {
+            // This node is leaving the cluster; another one can start the game
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
     }
 
     @PostMapping("/{gameId}/guess")
-    public ResponseEntity<GameState> makeGuess(
+    public CompletableFuture<ResponseEntity<GameState>> makeGuess(
     		@PathVariable("gameId") String gameId, 
-    		@RequestBody Map<String, String> requestMap) {
-        try {
+    		@RequestBody Map<String, String> requestMap,
+            @RequestHeader(value = GameRouter.FORWARDED_HEADER, required = false) String forwardedBy) {
+        String guess = requestMap.get("guess");
 
-            String guess = requestMap.get("guess");
-
-            
-            if (guess == null) {
-                throw new IllegalArgumentException("Guess parameter is required");
-            }
-            
-            GameState gameState = gameService.makeGuess(gameId, guess);
-            System.out.println(" DEBUG: Guess processed successfully");
-            return ResponseEntity.ok(gameState);
-        } catch (Exception e) {
-            System.err.println("Error making guess: " + e.getMessage());
-            e.printStackTrace();
-            return ResponseEntity.internalServerError().build();
+        if (guess == null) {
+            log.warn("Error making guess: Guess parameter is required");
+            return CompletableFuture.completedFuture(ResponseEntity.internalServerError().build());
         }
+
+        // Completes on the game's worker, so the request thread is released while queued
+        return gameRouter.makeGuessAsync(gameId, guess, forwardedBy != null)
+                .thenApply(ResponseEntity::ok)
+                .exceptionally(e -> {
+                    log.warn("Error making guess for game {}: {}", gameId, e.getMessage());
+                    return ResponseEntity.internalServerError().build();
+                });
     }
 
+    // Polls of an unchanged game get a 304 without serializing anything; otherwise
+    // the bytes written once for this version are returned as they are
     @GetMapping("/{gameId}")
-    public ResponseEntity<GameState> getGameState(@PathVariable String gameId) {
-        try {
-            GameState gameState = gameService.getGameState(gameId);
-            return ResponseEntity.ok(gameState);
-        } catch (Exception e) {
-        	e.printStackTrace();
+    public CompletableFuture<ResponseEntity<byte[]>> getGameState(
+            @PathVariable String gameId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = GameRouter.FORWARDED_HEADER, required = false) String forwardedBy) {
+        return gameRouter.getGameStateAsync(gameId, forwardedBy != null)
+                .thenApply(state -> {
+                    String etag = snapshots.etag(state.getVersion());
+                    if (snapshots.matches(ifNoneMatch, etag)) {
+                        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                                .eTag(etag)
+                                .cacheControl(CacheControl.noCache())
+                                .<byte[]>build();
+                    }
+                    return ResponseEntity.ok()
+                            .eTag(etag)
+                            .cacheControl(CacheControl.noCache())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .body(snapshots.of(state).json());
+                })
+                .exceptionally(e -> {
+                    log.debug("Game state lookup failed for game {}: {}", gameId, e.getMessage());
+                    return ResponseEntity.notFound().build();
+                });
+    }
+
+    // Every new version of the game as an SSE "state" event; EventSource sends
+    // Last-Event-ID on reconnect, and only a newer state is sent back for it
+    @GetMapping(value = "/{gameId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamGameState(
+            @PathVariable String gameId,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        String owner = gameRouter.remoteOwner(gameId);
+        if (owner != null) {
+            // Updates only happen on the owner, so the stream has to live there
+            return ResponseEntity.status(HttpStatus.TEMPORARY_REDIRECT)
+                    .location(URI.create(owner + "/api/game/" + gameId + "/stream"))
+                    .build();
+        }
+        SseEmitter emitter = streams.open(gameId, lastEventId);
+        if (emitter == null) {
             return ResponseEntity.notFound().build();
         }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                // Keeps nginx and similar proxies from buffering the stream
+                .header("X-Accel-Buffering", "no")
+                .body(emitter);
+    }
+
+    // NDJSON operations in, one NDJSON result per operation out as each completes.
+    // Holds this request thread for the whole batch, reading and writing as it goes
+    @PostMapping("/batch")
+    public void batch(InputStream body, HttpServletResponse response) throws IOException {
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        batchRunner.run(body, response.getOutputStream());
     }
 
     public static class GuessRequest {
@@ -0,0 +1,47 @@
+package com.hawkeye.cardgame.controller;
+
+import com.hawkeye.cardgame.leaderboard.Leaderboard;
+import com.hawkeye.cardgame.model.LeaderboardEntry;
+import com.hawkeye.cardgame.model.LeaderboardSnapshot;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/leaderboard")
+@CrossOrigin(origins = {"http://localhost:3000", "http://127.0.0.1:3000"})
+public class LeaderboardController {
+
+    private final Leaderboard leaderboard;
+
+    public LeaderboardController(Leaderboard leaderboard) {
+        this.leaderboard = leaderboard;
+    }
+
+    // Served from the last rebuilt snapshot, so it can lag by up to game.leaderboard.refresh-ms
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getLeaderboard(
+            @RequestParam(value = "window", defaultValue = "all") String window,
+            @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        LeaderboardSnapshot snapshot = leaderboard.snapshot();
+        List<LeaderboardEntry> entries = "all".equals(window) ? snapshot.allTime() : snapshot.windows().get(window);
+        if (entries == null) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "error", "Unknown window: " + window,
+                    "windows", leaderboard.windowNames()));
+        }
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("window", window);
+        body.put("generatedAt", snapshot.generatedAt());
+        body.put("entries", entries.subList(0, Math.min(Math.max(limit, 0), entries.size())));
+        return ResponseEntity.ok(body);
+    }
+}
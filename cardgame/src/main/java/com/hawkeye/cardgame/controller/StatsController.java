@@ -0,0 +1,160 @@
+package com.hawkeye.cardgame.controller;
+
+import com.hawkeye.cardgame.cluster.GameRouter;
+import com.hawkeye.cardgame.config.ChannelDepthInterceptor;
+import com.hawkeye.cardgame.gesture.FramePipeline;
+import com.hawkeye.cardgame.gesture.LandmarkBatcher;
+import com.hawkeye.cardgame.kiosk.KioskRunner;
+import com.hawkeye.cardgame.leaderboard.Leaderboard;
+import com.hawkeye.cardgame.service.GameBatchRunner;
+import com.hawkeye.cardgame.service.GameUpdatePublisher;
+import com.hawkeye.cardgame.service.GestureGate;
+import com.hawkeye.cardgame.session.SessionRegistry;
+import com.hawkeye.cardgame.spectate.SpectatorHub;
+import com.hawkeye.cardgame.store.GameStore;
+import com.hawkeye.cardgame.stream.GameStreams;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.socket.config.WebSocketMessageBrokerStats;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/stats")
+public class StatsController {
+
+    private final GameStore gameStore;
+    private final ChannelDepthInterceptor clientInboundDepth;
+    private final ChannelDepthInterceptor clientOutboundDepth;
+    private final WebSocketMessageBrokerStats brokerStats;
+    private final GameUpdatePublisher updatePublisher;
+    private final GestureGate gestureGate;
+    private final SessionRegistry sessionRegistry;
+    private final LandmarkBatcher landmarkBatcher;
+    private final FramePipeline framePipeline;
+    private final ObjectProvider<KioskRunner> kioskRunner;
+    private final GameRouter gameRouter;
+    private final Leaderboard leaderboard;
+    private final SpectatorHub spectatorHub;
+    private final GameBatchRunner batchRunner;
+    private final GameStreams gameStreams;
+    private final boolean virtualThreads;
+
+    public StatsController(GameStore gameStore,
+                           @Qualifier("clientInboundDepth") ChannelDepthInterceptor clientInboundDepth,
+                           @Qualifier("clientOutboundDepth") ChannelDepthInterceptor clientOutboundDepth,
+                           WebSocketMessageBrokerStats brokerStats,
+                           GameUpdatePublisher updatePublisher,
+                           GestureGate gestureGate,
+                           SessionRegistry sessionRegistry,
+                           LandmarkBatcher landmarkBatcher,
+                           FramePipeline framePipeline,
+                           ObjectProvider<KioskRunner> kioskRunner,
+                           GameRouter gameRouter,
+                           Leaderboard leaderboard,
+                           SpectatorHub spectatorHub,
+                           GameBatchRunner batchRunner,
+                           GameStreams gameStreams,
+                           @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.gameStore = gameStore;
+        this.clientInboundDepth = clientInboundDepth;
+        this.clientOutboundDepth = clientOutboundDepth;
+        this.brokerStats = brokerStats;
+        this.updatePublisher = updatePublisher;
+        this.gestureGate = gestureGate;
+        this.sessionRegistry = sessionRegistry;
+        this.landmarkBatcher = landmarkBatcher;
+        this.framePipeline = framePipeline;
+        this.kioskRunner = kioskRunner;
+        this.gameRouter = gameRouter;
+        this.leaderboard = leaderboard;
+        this.spectatorHub = spectatorHub;
+        this.batchRunner = batchRunner;
+        this.gameStreams = gameStreams;
+        this.virtualThreads = virtualThreads;
+    }
+
+    @GetMapping("/games")
+    public ResponseEntity<Map<String, Object>> gameStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("activeGames", gameStore.size());
+        stats.put("evictions", gameStore.evictionCount());
+        stats.put("footprint", gameStore.footprint());
+        return ResponseEntity.ok(stats);
+    }
+
+    @GetMapping("/broker")
+    public ResponseEntity<Map<String, Object>> brokerStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("threads", virtualThreads ? "virtual" : "platform");
+        stats.put("clientInbound", clientInboundDepth.stats());
+        stats.put("clientOutbound", clientOutboundDepth.stats());
+        stats.put("inboundExecutor", brokerStats.getClientInboundExecutorStatsInfo());
+        stats.put("outboundExecutor", brokerStats.getClientOutboundExecutorStatsInfo());
+        stats.put("sessions", brokerStats.getWebSocketSessionStatsInfo());
+        stats.put("stomp", brokerStats.getStompSubProtocolStatsInfo());
+        return ResponseEntity.ok(stats);
+    }
+
+    @GetMapping("/outbox")
+    public ResponseEntity<Map<String, Object>> outboxStats() {
+        return ResponseEntity.ok(updatePublisher.stats());
+    }
+
+    @GetMapping("/gestures")
+    public ResponseEntity<Map<String, Object>> gestureStats() {
+        return ResponseEntity.ok(gestureGate.stats());
+    }
+
+    @GetMapping("/sessions")
+    public ResponseEntity<Map<String, Object>> sessionStats() {
+        return ResponseEntity.ok(sessionRegistry.stats());
+    }
+
+    @GetMapping("/landmarks")
+    public ResponseEntity<Map<String, Object>> landmarkStats() {
+        return ResponseEntity.ok(landmarkBatcher.stats());
+    }
+
+    @GetMapping("/frames")
+    public ResponseEntity<Map<String, Object>> frameStats() {
+        return ResponseEntity.ok(framePipeline.stats());
+    }
+
+    @GetMapping("/kiosk")
+    public ResponseEntity<Map<String, Object>> kioskStats() {
+        KioskRunner kiosk = kioskRunner.getIfAvailable();
+        return ResponseEntity.ok(kiosk != null ? kiosk.stats() : Map.of("enabled", false));
+    }
+
+    @GetMapping("/cluster")
+    public ResponseEntity<Map<String, Object>> clusterStats() {
+        return ResponseEntity.ok(gameRouter.stats());
+    }
+
+    @GetMapping("/leaderboard")
+    public ResponseEntity<Map<String, Object>> leaderboardStats() {
+        return ResponseEntity.ok(leaderboard.stats());
+    }
+
+    @GetMapping("/spectators")
+    public ResponseEntity<Map<String, Object>> spectatorStats() {
+        return ResponseEntity.ok(spectatorHub.stats());
+    }
+
+    @GetMapping("/batch")
+    public ResponseEntity<Map<String, Object>> batchStats() {
+        return ResponseEntity.ok(batchRunner.stats());
+    }
+
+    @GetMapping("/streams")
+    public ResponseEntity<Map<String, Object>> streamStats() {
+        return ResponseEntity.ok(gameStreams.stats());
+    }
+}
@@ -1,58 +1,74 @@
 package com.hawkeye.cardgame.controller;
 
+import com.hawkeye.cardgame.diagnostics.SampledLogger;
+import com.hawkeye.cardgame.gesture.LandmarkBatcher;
+import com.hawkeye.cardgame.model.GestureDetectCommand;
+import com.hawkeye.cardgame.model.LandmarkFrameCommand;
+import com.hawkeye.cardgame.model.RecognitionCommand;
+import com.hawkeye.cardgame.model.SessionCommand;
 import com.hawkeye.cardgame.service.TensorFlowGestureService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.stereotype.Controller;
 
-import java.util.Map;
-
 @Controller
 public class TensorFlowGestureController {  // Fixed class name
 
+    private static final SampledLogger log = SampledLogger.of(TensorFlowGestureController.class, 50);
+
     @Autowired
     private TensorFlowGestureService gestureService;
 
+    @Autowired
+    private LandmarkBatcher landmarkBatcher;
+
     // This receives gestures from TensorFlow.js frontend
     @MessageMapping("/tensorflow/gesture.detect")
-    public void handleTensorFlowGesture(@Payload Map<String, Object> payload) {
-        String sessionId = (String) payload.get("sessionId");
-        String gesture = (String) payload.get("gesture");
-        String gameId = (String) payload.get("gameId");
+    public void handleTensorFlowGesture(@Payload GestureDetectCommand command) {
+        log.debug("Received gesture {} from session {}", command.gesture(), command.sessionId());
 
-        System.out.println("🎯 Received TensorFlow gesture: " + gesture + " from session: " + sessionId);
+        gestureService.processGestureFromFrontend(command.sessionId(), command.gesture(), command.gameId(),
+                command.timestamp());
+    }
 
-        gestureService.processGestureFromFrontend(sessionId, gesture, gameId);
+    // Raw hand landmarks, classified on the server instead of in the browser
+    @MessageMapping("/tensorflow/landmarks.detect")
+    public void handleLandmarks(@Payload LandmarkFrameCommand command) {
+        landmarkBatcher.submit(command);
     }
 
     // Register session when frontend connects
     @MessageMapping("/tensorflow/gesture.register")
-    public void registerGestureSession(@Payload Map<String, Object> payload) {
-        String sessionId = (String) payload.get("sessionId");
-        gestureService.registerSession(sessionId);
+    public void registerGestureSession(@Payload SessionCommand command,
+                                       @Header(SimpMessageHeaderAccessor.SESSION_ID_HEADER) String connectionId) {
+        gestureService.registerSession(command.sessionId(), command.protocol(), connectionId);
+    }
+
+    // Delta sessions ask for a full snapshot after a gap in seq
+    @MessageMapping("/tensorflow/gesture.resync")
+    public void resyncGestureSession(@Payload SessionCommand command) {
+        gestureService.resync(command.sessionId());
     }
 
     // Unregister session when frontend disconnects
     @MessageMapping("/tensorflow/gesture.unregister")
-    public void unregisterGestureSession(@Payload Map<String, Object> payload) {
-        String sessionId = (String) payload.get("sessionId");
-        gestureService.unregisterSession(sessionId);
+    public void unregisterGestureSession(@Payload SessionCommand command) {
+        gestureService.unregisterSession(command.sessionId());
     }
 
     // Add start/stop recognition methods
     @MessageMapping("/tensorflow/gesture.start")
-    public void startGestureRecognition(@Payload Map<String, Object> payload) {
-        String sessionId = (String) payload.get("sessionId");
-        Integer cameraIndex = (Integer) payload.get("cameraIndex");
-        if (cameraIndex == null) cameraIndex = 0;
+    public void startGestureRecognition(@Payload RecognitionCommand command) {
+        int cameraIndex = command.cameraIndex() != null ? command.cameraIndex() : 0;
         
-        gestureService.startRecognition(sessionId, cameraIndex);
+        gestureService.startRecognition(command.sessionId(), cameraIndex);
     }
 
     @MessageMapping("/tensorflow/gesture.stop")
-    public void stopGestureRecognition(@Payload Map<String, Object> payload) {
-        String sessionId = (String) payload.get("sessionId");
-        gestureService.stopRecognition(sessionId);
+    public void stopGestureRecognition(@Payload SessionCommand command) {
+        gestureService.stopRecognition(command.sessionId());
     }
-}
\ No newline at end of file
+}
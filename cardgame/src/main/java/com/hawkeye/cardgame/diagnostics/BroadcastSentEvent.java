@@ -0,0 +1,29 @@
+package com.hawkeye.cardgame.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Spans serializing a game update and handing it to the outbound channel
+@Name("com.hawkeye.cardgame.BroadcastSent")
+@Label("Broadcast Sent")
+@Category({"HawkEye", "Gestures"})
+@Description("Game update handed to the broker for a session")
+@StackTrace(false)
+public final class BroadcastSentEvent extends jdk.jfr.Event {
+
+    @Label("Session Id")
+    public String sessionId;
+
+    @Label("Game Id")
+    public String gameId;
+
+    @Label("Destination")
+    public String destination;
+
+    @Label("Kind")
+    @Description("full, delta or snapshot")
+    public String kind;
+}
@@ -0,0 +1,33 @@
+package com.hawkeye.cardgame.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A gesture taken off the wire, spanning the gate check and dispatch to the
+ * game. Recorded with -XX:StartFlightRecording, or started on a running
+ * server with jcmd &lt;pid&gt; JFR.start.
+ */
+@Name("com.hawkeye.cardgame.GestureReceived")
+@Label("Gesture Received")
+@Category({"HawkEye", "Gestures"})
+@Description("Gesture from a client, from arrival until it was handed to the game")
+@StackTrace(false)
+public final class GestureReceivedEvent extends jdk.jfr.Event {
+
+    @Label("Session Id")
+    public String sessionId;
+
+    @Label("Game Id")
+    public String gameId;
+
+    @Label("Gesture")
+    public String gesture;
+
+    @Label("Verdict")
+    @Description("Outcome of the debounce and rate limit check")
+    public String verdict;
+}
@@ -0,0 +1,37 @@
+package com.hawkeye.cardgame.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+// A guess applied inside its game's mailbox; the event spans the apply itself
+@Name("com.hawkeye.cardgame.GuessResolved")
+@Label("Guess Resolved")
+@Category({"HawkEye", "Game"})
+@Description("Guess applied to a game")
+@StackTrace(false)
+public final class GuessResolvedEvent extends jdk.jfr.Event {
+
+    @Label("Game Id")
+    public String gameId;
+
+    @Label("Guess")
+    public String guess;
+
+    @Label("Correct")
+    public boolean correct;
+
+    @Label("Score")
+    public int score;
+
+    @Label("Game Over")
+    public boolean gameOver;
+
+    @Label("Queued")
+    @Description("Time the guess waited in the game's mailbox before it was applied")
+    @Timespan(Timespan.NANOSECONDS)
+    public long queued;
+}
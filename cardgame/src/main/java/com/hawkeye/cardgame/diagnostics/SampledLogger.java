@@ -0,0 +1,85 @@
+package com.hawkeye.cardgame.diagnostics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SLF4J logger that lets at most a fixed number of messages through per
+ * second and counts the rest, so a flood of per-gesture lines or repeated
+ * errors can't saturate the log appender. Each level has its own
+ * allowance, so a burst of debug lines never crowds out a warning. What
+ * was dropped is reported by the first message of the next second. Levels
+ * that are off cost a level check and nothing else.
+ */
+public final class SampledLogger {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    private final Logger log;
+    final Budget debugBudget;
+    final Budget infoBudget;
+    final Budget warnBudget;
+
+    private SampledLogger(Logger log, long perSecond) {
+        this.log = log;
+        this.debugBudget = new Budget("debug", perSecond);
+        this.infoBudget = new Budget("info", perSecond);
+        this.warnBudget = new Budget("warn", perSecond);
+    }
+
+    public static SampledLogger of(Class<?> owner, long perSecond) {
+        return new SampledLogger(LoggerFactory.getLogger(owner), perSecond);
+    }
+
+    public void debug(String format, Object... args) {
+        if (log.isDebugEnabled() && debugBudget.acquire(System.nanoTime())) {
+            log.debug(format, args);
+        }
+    }
+
+    public void info(String format, Object... args) {
+        if (log.isInfoEnabled() && infoBudget.acquire(System.nanoTime())) {
+            log.info(format, args);
+        }
+    }
+
+    public void warn(String format, Object... args) {
+        if (log.isWarnEnabled() && warnBudget.acquire(System.nanoTime())) {
+            log.warn(format, args);
+        }
+    }
+
+    // One level's allowance; package-private so tests can drive the clock
+    final class Budget {
+        private final String level;
+        private final long perSecond;
+        private final AtomicLong window = new AtomicLong();
+        private final AtomicLong used = new AtomicLong();
+        private final LongAdder suppressed = new LongAdder();
+
+        Budget(String level, long perSecond) {
+            this.level = level;
+            this.perSecond = perSecond;
+        }
+
+        boolean acquire(long now) {
+            long second = now / SECOND;
+            long current = window.get();
+            if (second != current && window.compareAndSet(current, second)) {
+                used.set(0);
+                long dropped = suppressed.sumThenReset();
+                if (dropped > 0) {
+                    log.warn("{} {} messages suppressed", dropped, level);
+                }
+            }
+            if (used.incrementAndGet() <= perSecond) {
+                return true;
+            }
+            suppressed.increment();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.hawkeye.cardgame.engine;
+
+import com.hawkeye.cardgame.model.Card;
+
+import java.nio.ByteBuffer;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * A shoe of one or more 52-card decks, held as card codes in a preallocated
+ * array and drawn through a cursor. Drawing never allocates; when the shoe
+ * runs out it is reshuffled in place. The last card dealt is still in play
+ * as the game's next card, so the reshuffle never puts it back on top.
+ * Not thread-safe: a deck belongs to a single game and is only touched
+ * from that game's mailbox.
+ */
+public final class Deck {
+
+    private final byte[] codes;
+    private final RandomGenerator seededRandom;
+    private int cursor;
+
+    // seededRandom may be null, in which case the calling thread's random is used
+    public Deck(int deckCount, RandomGenerator seededRandom) {
+        if (deckCount <= 0) {
+            throw new IllegalArgumentException("deckCount must be positive");
+        }
+        this.codes = new byte[deckCount * Card.DECK_SIZE];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = (byte) (i % Card.DECK_SIZE);
+        }
+        this.seededRandom = seededRandom;
+        shuffle();
+    }
+
+    private Deck(byte[] codes, int cursor) {
+        this.codes = codes;
+        this.cursor = cursor;
+        this.seededRandom = null;
+    }
+
+    public static Deck seeded(int deckCount, long seed) {
+        return new Deck(deckCount, new SplittableRandom(seed));
+    }
+
+    // Rebuilds a deck saved with writeTo; restored decks reshuffle with the thread's random
+    public static Deck restore(ByteBuffer source, int offset, int size, int cursor) {
+        byte[] codes = new byte[size];
+        source.get(offset, codes);
+        return new Deck(codes, cursor);
+    }
+
+    public void writeTo(ByteBuffer target, int offset) {
+        target.put(offset, codes);
+    }
+
+    public int cursor() {
+        return cursor;
+    }
+
+    public Card draw() {
+        return Card.of(drawCode());
+    }
+
+    public int drawCode() {
+        if (cursor == codes.length) {
+            reshuffle();
+        }
+        return codes[cursor++];
+    }
+
+    public int remaining() {
+        return codes.length - cursor;
+    }
+
+    public int size() {
+        return codes.length;
+    }
+
+    // Fisher-Yates over the whole shoe, then start again from the top
+    public void shuffle() {
+        shuffle(codes.length, random());
+        cursor = 0;
+    }
+
+    // Shuffles the rest of the shoe, then swaps the card in play into any slot
+    // but the first, so it cannot be dealt straight back as its own successor
+    private void reshuffle() {
+        RandomGenerator random = random();
+        int inPlay = codes.length - 1;
+        shuffle(inPlay, random);
+        swap(inPlay, 1 + random.nextInt(inPlay));
+        cursor = 0;
+    }
+
+    private void shuffle(int length, RandomGenerator random) {
+        for (int i = length - 1; i > 0; i--) {
+            swap(i, random.nextInt(i + 1));
+        }
+    }
+
+    private void swap(int i, int j) {
+        byte tmp = codes[i];
+        codes[i] = codes[j];
+        codes[j] = tmp;
+    }
+
+    private RandomGenerator random() {
+        return seededRandom != null ? seededRandom : ThreadLocalRandom.current();
+    }
+}
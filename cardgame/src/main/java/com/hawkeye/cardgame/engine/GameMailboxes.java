@@ -0,0 +1,106 @@
+package com.hawkeye.cardgame.engine;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs game operations one at a time per game id. Each game gets a mailbox
+ * that is drained by a shared worker pool, so operations on the same game
+ * never overlap while different games run in parallel. Mailboxes are
+ * dropped as soon as they drain, so idle games cost nothing here.
+ */
+@Component
+public class GameMailboxes implements DisposableBean {
+
+    // Jobs a mailbox runs before yielding its worker to other games
+    private static final int BATCH = 32;
+
+    private final ConcurrentHashMap<String, Mailbox> mailboxes = new ConcurrentHashMap<>();
+    private final ExecutorService workers;
+
+    public GameMailboxes(@Value("${game.worker-threads:0}") int workerThreads) {
+        int threads = workerThreads > 0 ? workerThreads : Runtime.getRuntime().availableProcessors();
+        this.workers = Executors.newFixedThreadPool(threads, new WorkerThreadFactory());
+    }
+
+    public <T> CompletableFuture<T> submit(String gameId, Supplier<T> operation) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Runnable job = () -> {
+            try {
+                result.complete(operation.get());
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        };
+
+        // Enqueue under the map's per-key lock so a draining mailbox can't be
+        // retired between the offer and the pending count going up
+        mailboxes.compute(gameId, (id, mailbox) -> {
+            Mailbox target = mailbox != null ? mailbox : new Mailbox(id);
+            target.queue.offer(job);
+            if (target.pending.getAndIncrement() == 0) {
+                workers.execute(target);
+            }
+            return target;
+        });
+        return result;
+    }
+
+    public int activeMailboxes() {
+        return mailboxes.size();
+    }
+
+    @Override
+    public void destroy() {
+        workers.shutdown();
+    }
+
+    private final class Mailbox implements Runnable {
+        final String gameId;
+        final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+        final AtomicInteger pending = new AtomicInteger();
+
+        Mailbox(String gameId) {
+            this.gameId = gameId;
+        }
+
+        @Override
+        public void run() {
+            for (int processed = 1; ; processed++) {
+                queue.poll().run();
+
+                if (pending.decrementAndGet() == 0) {
+                    mailboxes.computeIfPresent(gameId, (id, current) ->
+                            current == this && pending.get() == 0 ? null : current);
+                    return;
+                }
+                if (processed == BATCH) {
+                    workers.execute(this);
+                    return;
+                }
+            }
+        }
+    }
+
+    private static final class WorkerThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "game-worker-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.hawkeye.cardgame.gesture;
+
+/**
+ * Small fixed-capacity FIFO that never blocks and never rejects: when it is
+ * full, offering a new element evicts the oldest one. Under overload a
+ * consumer therefore always works on the freshest frames and latency stays
+ * bounded by the capacity instead of growing with the backlog.
+ */
+final class DropOldestQueue<T> {
+
+    private final Object[] ring;
+    private int head;
+    private int size;
+
+    DropOldestQueue(int capacity) {
+        this.ring = new Object[Math.max(1, capacity)];
+    }
+
+    // Returns the element that had to be dropped to make room, or null
+    @SuppressWarnings("unchecked")
+    synchronized T offer(T element) {
+        T dropped = null;
+        if (size == ring.length) {
+            dropped = (T) ring[head];
+            ring[head] = null;
+            head = (head + 1) % ring.length;
+            size--;
+        }
+        ring[(head + size) % ring.length] = element;
+        size++;
+        return dropped;
+    }
+
+    @SuppressWarnings("unchecked")
+    synchronized T poll() {
+        if (size == 0) {
+            return null;
+        }
+        T element = (T) ring[head];
+        ring[head] = null;
+        head = (head + 1) % ring.length;
+        size--;
+        return element;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+}
@@ -0,0 +1,72 @@
+package com.hawkeye.cardgame.gesture;
+
+import com.hawkeye.cardgame.diagnostics.SampledLogger;
+import com.hawkeye.cardgame.session.SessionRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.BinaryWebSocketHandler;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Plain binary WebSocket at /frames?sessionId=...&gameId=... for thin
+ * clients that send raw JPEG camera frames, one per message, instead of
+ * classifying in the browser. The session must already be registered
+ * over STOMP, which is also where its game updates arrive.
+ */
+@Component
+public class FrameIngestHandler extends BinaryWebSocketHandler {
+
+    private static final SampledLogger log = SampledLogger.of(FrameIngestHandler.class, 20);
+
+    private static final String SESSION_ID = "gestureSessionId";
+
+    private final FramePipeline pipeline;
+    private final SessionRegistry sessionRegistry;
+
+    public FrameIngestHandler(FramePipeline pipeline, SessionRegistry sessionRegistry) {
+        this.pipeline = pipeline;
+        this.sessionRegistry = sessionRegistry;
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        MultiValueMap<String, String> params = UriComponentsBuilder.fromUri(session.getUri()).build().getQueryParams();
+        String sessionId = params.getFirst("sessionId");
+        if (sessionId == null || !sessionRegistry.isActive(sessionId)) {
+            session.close(CloseStatus.POLICY_VIOLATION.withReason("Unknown session"));
+            return;
+        }
+        String gameId = params.getFirst("gameId");
+        if (gameId != null) {
+            sessionRegistry.bindGame(sessionId, gameId);
+        }
+        session.getAttributes().put(SESSION_ID, sessionId);
+        pipeline.open(sessionId);
+        log.info("Frame stream opened for session: {}", sessionId);
+    }
+
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) {
+        String sessionId = (String) session.getAttributes().get(SESSION_ID);
+        if (sessionId != null) {
+            // The container reuses its message buffer once we return
+            ByteBuffer payload = message.getPayload();
+            byte[] frame = new byte[payload.remaining()];
+            payload.get(frame);
+            pipeline.submit(sessionId, ByteBuffer.wrap(frame));
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        String sessionId = (String) session.getAttributes().get(SESSION_ID);
+        if (sessionId != null) {
+            pipeline.close(sessionId);
+        }
+    }
+}
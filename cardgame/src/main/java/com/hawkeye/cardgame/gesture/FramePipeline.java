@@ -0,0 +1,169 @@
+package com.hawkeye.cardgame.gesture;
+
+import com.hawkeye.cardgame.diagnostics.SampledLogger;
+import com.hawkeye.cardgame.service.TensorFlowGestureService;
+import com.hawkeye.cardgame.session.SessionRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Turns JPEG frames from thin clients into gestures: decode, hand
+ * detection and classification on a dedicated worker pool, then the same
+ * stability filter and game path as landmark frames.
+ *
+ * Each session has a small drop-oldest queue and at most one worker
+ * draining it at a time, so a session's frames are handled in order, a
+ * flood from one client only ever costs it its own stale frames, and
+ * latency stays flat however far behind the workers fall. Every worker
+ * thread keeps its own HandDetector and with it its OpenCV buffers.
+ */
+@Component
+public class FramePipeline implements DisposableBean {
+
+    private static final SampledLogger log = SampledLogger.of(FramePipeline.class, 20);
+
+    private final TensorFlowGestureService gestureService;
+    private final SessionRegistry sessionRegistry;
+    private final int queueDepth;
+
+    private final ExecutorService workers;
+    private final ThreadLocal<HandDetector> detectors = ThreadLocal.withInitial(HandDetector::new);
+    private final ConcurrentHashMap<String, FrameSession> sessions = new ConcurrentHashMap<>();
+
+    private final StageTimer decode = new StageTimer();
+    private final StageTimer detect = new StageTimer();
+    private final StageTimer classify = new StageTimer();
+    private final LongAdder frames = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder undecodable = new LongAdder();
+    private final LongAdder gestures = new LongAdder();
+
+    public FramePipeline(TensorFlowGestureService gestureService,
+                         SessionRegistry sessionRegistry,
+                         @Value("${game.frames.workers:0}") int workerThreads,
+                         @Value("${game.frames.queue-depth:2}") int queueDepth) {
+        this.gestureService = gestureService;
+        this.sessionRegistry = sessionRegistry;
+        this.queueDepth = queueDepth;
+        int threads = workerThreads > 0 ? workerThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger ids = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "frame-worker-" + ids.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public void open(String sessionId) {
+        sessions.computeIfAbsent(sessionId, id -> new FrameSession(id, queueDepth));
+    }
+
+    public void close(String sessionId) {
+        sessions.remove(sessionId);
+    }
+
+    public void submit(String sessionId, ByteBuffer jpeg) {
+        FrameSession session = sessions.get(sessionId);
+        if (session == null) {
+            return;
+        }
+        if (session.queue.offer(jpeg) != null) {
+            dropped.increment();
+        }
+        schedule(session);
+    }
+
+    private void schedule(FrameSession session) {
+        if (session.scheduled.compareAndSet(false, true)) {
+            try {
+                workers.execute(() -> drain(session));
+            } catch (RejectedExecutionException e) {
+                session.scheduled.set(false);
+            }
+        }
+    }
+
+    private void drain(FrameSession session) {
+        HandDetector detector = detectors.get();
+        ByteBuffer frame;
+        while ((frame = session.queue.poll()) != null) {
+            try {
+                process(detector, session, frame);
+            } catch (RuntimeException e) {
+                log.warn("Error processing camera frame for session {}: {}", session.id, e.getMessage());
+            }
+        }
+        session.scheduled.set(false);
+        // A frame may have arrived after the last poll but before the flag was cleared
+        if (session.queue.size() > 0) {
+            schedule(session);
+        }
+    }
+
+    private void process(HandDetector detector, FrameSession session, ByteBuffer frame) {
+        long started = System.nanoTime();
+        if (!detector.decode(frame)) {
+            undecodable.increment();
+            return;
+        }
+        long decoded = System.nanoTime();
+        HandDetector.Observation hands = detector.detect();
+        long detected = System.nanoTime();
+        byte gesture = session.filter.add(hands.label());
+        long classified = System.nanoTime();
+
+        frames.increment();
+        decode.record(decoded - started);
+        detect.record(detected - decoded);
+        classify.record(classified - detected);
+
+        if (gesture != LandmarkClassifier.NONE && sessions.get(session.id) == session) {
+            gestures.increment();
+            gestureService.processGestureFromFrontend(session.id, LandmarkClassifier.name(gesture),
+                    sessionRegistry.gameOf(session.id), null);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("sessions", sessions.size());
+        stats.put("frames", frames.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("undecodable", undecodable.sum());
+        stats.put("gestures", gestures.sum());
+        stats.put("decode", decode.stats());
+        stats.put("detect", detect.stats());
+        stats.put("classify", classify.stats());
+        return stats;
+    }
+
+    @Override
+    public void destroy() {
+        workers.shutdownNow();
+    }
+
+    private static final class FrameSession {
+        final String id;
+        final DropOldestQueue<ByteBuffer> queue;
+        final AtomicBoolean scheduled = new AtomicBoolean();
+        // Only touched by the worker currently draining this session
+        final StabilityFilter filter = new StabilityFilter();
+
+        FrameSession(String id, int queueDepth) {
+            this.id = id;
+            this.queue = new DropOldestQueue<>(queueDepth);
+        }
+    }
+}
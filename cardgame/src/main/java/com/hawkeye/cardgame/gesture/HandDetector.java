@@ -0,0 +1,228 @@
+package com.hawkeye.cardgame.gesture;
+
+import nu.pattern.OpenCV;
+import org.opencv.core.Core;
+import org.opencv.core.CvException;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfInt;
+import org.opencv.core.MatOfInt4;
+import org.opencv.core.MatOfPoint;
+import org.opencv.core.Rect;
+import org.opencv.core.Scalar;
+import org.opencv.core.Size;
+import org.opencv.imgcodecs.Imgcodecs;
+import org.opencv.imgproc.Imgproc;
+import org.opencv.imgproc.Moments;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds up to two hands in a JPEG camera frame with plain OpenCV: skin
+ * segmentation in YCrCb on a downscaled copy, the two largest skin blobs
+ * as hands, and convexity defects between fingers to count the extended
+ * ones. Frames are expected straight from the camera, not mirrored, and
+ * hands are labelled the way MediaPipe labels them with selfieMode off, as
+ * the browser runs it: the hand on the left of the image is "Left", which
+ * is the player's right hand.
+ *
+ * Every working Mat is allocated once and reused across frames; only the
+ * decoded image comes back from imdecode as a new Mat and is released
+ * straight away. One instance per thread.
+ */
+public final class HandDetector {
+
+    private static final Size WORKING_SIZE = new Size(160, 120);
+    private static final Scalar SKIN_LOW = new Scalar(0, 133, 77);
+    private static final Scalar SKIN_HIGH = new Scalar(255, 173, 127);
+    // Blobs smaller than this share of the frame are noise, not hands
+    private static final double MIN_HAND_AREA = 0.02;
+    private static final double MIN_DEFECT_DEPTH = 0.2;
+
+    static {
+        OpenCV.loadLocally();
+    }
+
+    private Mat encoded = new Mat(1, 64 * 1024, CvType.CV_8UC1);
+    private byte[] copyBuffer = new byte[0];
+    private final Mat small = new Mat();
+    private final Mat ycrcb = new Mat();
+    private final Mat mask = new Mat();
+    private final Mat hierarchy = new Mat();
+    private final Mat kernel = Imgproc.getStructuringElement(Imgproc.MORPH_ELLIPSE, new Size(3, 3));
+    private final MatOfInt hull = new MatOfInt();
+    private final MatOfInt4 defects = new MatOfInt4();
+    private final List<MatOfPoint> contours = new ArrayList<>();
+    private int[] defectBuffer = new int[64];
+    private final int[] start = new int[2];
+    private final int[] end = new int[2];
+    private final int[] far = new int[2];
+
+    private final Observation observation = new Observation();
+
+    /** Hands seen in the last detected frame; reused, so read it before the next call. */
+    public static final class Observation {
+        public int hands;
+        // Bit h set when hand h is on the left of the image; hands are ordered left to right
+        public int leftMask;
+        public final int[] extended = new int[2];
+
+        public byte label() {
+            return LandmarkClassifier.label(hands, leftMask, extended[0], extended[1]);
+        }
+    }
+
+    // Returns false when the bytes are not a decodable image
+    public boolean decode(ByteBuffer jpeg) {
+        int length = jpeg.remaining();
+        if (length == 0) {
+            return false;
+        }
+        if (encoded.cols() < length) {
+            encoded.release();
+            encoded = new Mat(1, Math.max(length, encoded.cols() * 2), CvType.CV_8UC1);
+        }
+        if (jpeg.hasArray()) {
+            encoded.put(0, 0, jpeg.array(), jpeg.arrayOffset() + jpeg.position(), length);
+        } else {
+            if (copyBuffer.length < length) {
+                copyBuffer = new byte[encoded.cols()];
+            }
+            jpeg.duplicate().get(copyBuffer, 0, length);
+            encoded.put(0, 0, copyBuffer, 0, length);
+        }
+
+        Mat view = encoded.colRange(0, length);
+        // Decoding at half size is much cheaper and we downscale anyway
+        Mat decoded = Imgcodecs.imdecode(view, Imgcodecs.IMREAD_REDUCED_COLOR_2);
+        view.release();
+        try {
+            if (decoded.empty()) {
+                return false;
+            }
+            Imgproc.resize(decoded, small, WORKING_SIZE, 0, 0, Imgproc.INTER_AREA);
+            return true;
+        } finally {
+            decoded.release();
+        }
+    }
+
+    // Takes an already decoded frame, e.g. straight from a local camera
+    public void useFrame(Mat frame, boolean rgb) {
+        Imgproc.resize(frame, small, WORKING_SIZE, 0, 0, Imgproc.INTER_AREA);
+        if (rgb) {
+            Imgproc.cvtColor(small, small, Imgproc.COLOR_RGB2BGR);
+        }
+    }
+
+    public Observation detect() {
+        Imgproc.cvtColor(small, ycrcb, Imgproc.COLOR_BGR2YCrCb);
+        Core.inRange(ycrcb, SKIN_LOW, SKIN_HIGH, mask);
+        Imgproc.morphologyEx(mask, mask, Imgproc.MORPH_OPEN, kernel);
+
+        for (MatOfPoint contour : contours) {
+            contour.release();
+        }
+        contours.clear();
+        Imgproc.findContours(mask, contours, hierarchy, Imgproc.RETR_EXTERNAL, Imgproc.CHAIN_APPROX_SIMPLE);
+
+        // Two largest blobs above the noise floor
+        double minArea = WORKING_SIZE.area() * MIN_HAND_AREA;
+        MatOfPoint first = null;
+        MatOfPoint second = null;
+        double firstArea = minArea;
+        double secondArea = minArea;
+        for (MatOfPoint contour : contours) {
+            double area = Imgproc.contourArea(contour);
+            if (area > firstArea) {
+                second = first;
+                secondArea = firstArea;
+                first = contour;
+                firstArea = area;
+            } else if (area > secondArea) {
+                second = contour;
+                secondArea = area;
+            }
+        }
+
+        observation.hands = 0;
+        observation.leftMask = 0;
+        observation.extended[0] = 0;
+        observation.extended[1] = 0;
+        if (first == null) {
+            return observation;
+        }
+        if (second != null && centroidX(second) < centroidX(first)) {
+            MatOfPoint swap = first;
+            first = second;
+            second = swap;
+        }
+        addHand(first);
+        if (second != null) {
+            addHand(second);
+        }
+        return observation;
+    }
+
+    private void addHand(MatOfPoint contour) {
+        int slot = observation.hands++;
+        if (centroidX(contour) < WORKING_SIZE.width / 2) {
+            observation.leftMask |= 1 << slot;
+        }
+        observation.extended[slot] = countFingers(contour);
+    }
+
+    private static double centroidX(MatOfPoint contour) {
+        Moments moments = Imgproc.moments(contour);
+        return moments.m00 == 0 ? 0 : moments.m10 / moments.m00;
+    }
+
+    // Deep, narrow dents in the hull are the gaps between extended fingers
+    private int countFingers(MatOfPoint contour) {
+        try {
+            Imgproc.convexHull(contour, hull, false);
+            if (hull.rows() < 3) {
+                return 0;
+            }
+            Imgproc.convexityDefects(contour, hull, defects);
+        } catch (CvException e) {
+            return 0;
+        }
+        int count = defects.rows();
+        if (count == 0) {
+            return 0;
+        }
+        if (defectBuffer.length < count * 4) {
+            defectBuffer = new int[count * 4];
+        }
+        defects.get(0, 0, defectBuffer);
+
+        Rect box = Imgproc.boundingRect(contour);
+        double minDepth = box.height * MIN_DEFECT_DEPTH;
+        int gaps = 0;
+        for (int i = 0; i < count; i++) {
+            double depth = defectBuffer[i * 4 + 3] / 256.0;
+            if (depth < minDepth) {
+                continue;
+            }
+            contour.get(defectBuffer[i * 4], 0, start);
+            contour.get(defectBuffer[i * 4 + 1], 0, end);
+            contour.get(defectBuffer[i * 4 + 2], 0, far);
+            if (isNarrow(start, far, end)) {
+                gaps++;
+            }
+        }
+        return gaps == 0 ? 0 : Math.min(5, gaps + 1);
+    }
+
+    // Angle at the bottom of the dent under 90 degrees
+    private static boolean isNarrow(int[] start, int[] far, int[] end) {
+        double ax = start[0] - far[0];
+        double ay = start[1] - far[1];
+        double bx = end[0] - far[0];
+        double by = end[1] - far[1];
+        return ax * bx + ay * by > 0;
+    }
+}
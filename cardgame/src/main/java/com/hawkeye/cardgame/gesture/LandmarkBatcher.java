@@ -0,0 +1,194 @@
+package com.hawkeye.cardgame.gesture;
+
+import com.hawkeye.cardgame.diagnostics.SampledLogger;
+import com.hawkeye.cardgame.model.LandmarkFrameCommand;
+import com.hawkeye.cardgame.service.TensorFlowGestureService;
+import com.hawkeye.cardgame.session.SessionRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Server-side classification of landmark frames from every session.
+ *
+ * Frames are queued as they arrive (the oldest is dropped when the queue
+ * is full) and a single thread takes them in batches of up to batch-size,
+ * waiting at most max-wait for a batch to fill. Each batch is packed into
+ * preallocated arrays and classified in one pass; the per-session
+ * stability filter then decides which frames complete a gesture, and those
+ * go down the same path as gestures labelled in the browser.
+ */
+@Component
+public class LandmarkBatcher implements InitializingBean, DisposableBean {
+
+    private static final SampledLogger log = SampledLogger.of(LandmarkBatcher.class, 20);
+
+    private final TensorFlowGestureService gestureService;
+    private final SessionRegistry sessionRegistry;
+    private final int batchSize;
+    private final long maxWaitNanos;
+
+    private final ArrayBlockingQueue<LandmarkFrameCommand> queue;
+    private final ConcurrentHashMap<String, StabilityFilter> filters = new ConcurrentHashMap<>();
+
+    // Only touched by the batching thread
+    private final List<LandmarkFrameCommand> batch;
+    private final float[] landmarks;
+    private final byte[] hands;
+    private final byte[] leftMask;
+    private final byte[] labels;
+    private final LandmarkClassifier classifier;
+
+    private final LongAdder frames = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder invalid = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder gestures = new LongAdder();
+
+    private final Thread worker = new Thread(this::run, "landmark-batcher");
+    private volatile boolean running = true;
+
+    public LandmarkBatcher(TensorFlowGestureService gestureService,
+                           SessionRegistry sessionRegistry,
+                           @Value("${game.landmarks.batch-size:64}") int batchSize,
+                           @Value("${game.landmarks.max-wait-ms:2}") long maxWaitMs,
+                           @Value("${game.landmarks.queue-capacity:4096}") int queueCapacity) {
+        this.gestureService = gestureService;
+        this.sessionRegistry = sessionRegistry;
+        this.batchSize = batchSize;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batch = new ArrayList<>(batchSize);
+        this.landmarks = new float[batchSize * LandmarkClassifier.FRAME_STRIDE];
+        this.hands = new byte[batchSize];
+        this.leftMask = new byte[batchSize];
+        this.labels = new byte[batchSize];
+        this.classifier = new LandmarkClassifier(batchSize);
+        worker.setDaemon(true);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        worker.start();
+    }
+
+    public void submit(LandmarkFrameCommand frame) {
+        if (!isValid(frame) || !sessionRegistry.isActive(frame.sessionId())) {
+            invalid.increment();
+            return;
+        }
+        while (!queue.offer(frame)) {
+            if (queue.poll() != null) {
+                dropped.increment();
+            }
+        }
+    }
+
+    private static boolean isValid(LandmarkFrameCommand frame) {
+        if (frame.sessionId() == null || frame.handedness() == null || frame.landmarks() == null) {
+            return false;
+        }
+        int handCount = frame.handedness().length();
+        return handCount <= LandmarkClassifier.MAX_HANDS
+                && frame.landmarks().length == handCount * LandmarkClassifier.HAND_STRIDE;
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                LandmarkFrameCommand first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (batch.size() < batchSize) {
+                    if (queue.drainTo(batch, batchSize - batch.size()) == 0) {
+                        long left = deadline - System.nanoTime();
+                        LandmarkFrameCommand next = left > 0 ? queue.poll(left, TimeUnit.NANOSECONDS) : null;
+                        if (next == null) {
+                            break;
+                        }
+                        batch.add(next);
+                    }
+                }
+                process();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Error classifying landmark batch: {}", e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void process() {
+        int count = batch.size();
+        for (int i = 0; i < count; i++) {
+            LandmarkFrameCommand frame = batch.get(i);
+            String handedness = frame.handedness();
+            float[] points = frame.landmarks();
+            System.arraycopy(points, 0, landmarks, i * LandmarkClassifier.FRAME_STRIDE, points.length);
+            hands[i] = (byte) handedness.length();
+            int mask = 0;
+            for (int h = 0; h < handedness.length(); h++) {
+                mask |= handedness.charAt(h) == 'L' ? 1 << h : 0;
+            }
+            leftMask[i] = (byte) mask;
+        }
+
+        classifier.classify(landmarks, hands, leftMask, count, labels);
+        frames.add(count);
+        batches.increment();
+
+        for (int i = 0; i < count; i++) {
+            LandmarkFrameCommand frame = batch.get(i);
+            StabilityFilter filter = filters.computeIfAbsent(frame.sessionId(), id -> new StabilityFilter());
+            byte gesture = filter.add(labels[i]);
+            if (gesture != LandmarkClassifier.NONE) {
+                gestures.increment();
+                gestureService.processGestureFromFrontend(frame.sessionId(), LandmarkClassifier.name(gesture),
+                        frame.gameId(), frame.timestamp());
+            }
+        }
+    }
+
+    // Filters of sessions that have gone away
+    @Scheduled(fixedDelayString = "${game.session.sweep-interval-ms:60000}")
+    public void pruneFilters() {
+        filters.keySet().removeIf(sessionId -> !sessionRegistry.isActive(sessionId));
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("frames", frames.sum());
+        stats.put("batches", batches.sum());
+        stats.put("averageBatch", batches.sum() == 0 ? 0.0 : (double) frames.sum() / batches.sum());
+        stats.put("gestures", gestures.sum());
+        stats.put("invalid", invalid.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("queued", queue.size());
+        stats.put("sessions", filters.size());
+        return stats;
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        worker.interrupt();
+        worker.join(1000);
+    }
+}
@@ -0,0 +1,84 @@
+package com.hawkeye.cardgame.gesture;
+
+/**
+ * Turns MediaPipe hand landmarks into game gestures, using the same rules
+ * as the browser's classifier:
+ *
+ *   one hand:  left is "higher", right is "lower"
+ *   two hands: four or more fingers out on both, or one of each hand, is
+ *              "reset"; otherwise two lefts are "higher", two rights "lower"
+ *
+ * Works on a batch of frames packed into one float[] (FRAME_STRIDE floats
+ * per frame, unused hand slots ignored), in two flat passes: finger counts
+ * for every hand slot, then labels. Nothing is allocated per call. An
+ * instance keeps its scratch space, so it belongs to a single thread.
+ */
+public final class LandmarkClassifier {
+
+    public static final int POINTS_PER_HAND = 21;
+    public static final int HAND_STRIDE = POINTS_PER_HAND * 3;
+    public static final int MAX_HANDS = 2;
+    public static final int FRAME_STRIDE = HAND_STRIDE * MAX_HANDS;
+
+    public static final byte NONE = 0;
+    public static final byte HIGHER = 1;
+    public static final byte LOWER = 2;
+    public static final byte RESET = 3;
+
+    private static final String[] NAMES = {"none", "higher", "lower", "reset"};
+
+    // Offsets of the x (thumb) and y (fingers) coordinates that are compared
+    private static final int THUMB_TIP_X = 4 * 3;
+    private static final int THUMB_JOINT_X = 2 * 3;
+    private static final int INDEX_TIP_Y = 8 * 3 + 1;
+    private static final int INDEX_JOINT_Y = 5 * 3 + 1;
+    private static final int MIDDLE_TIP_Y = 12 * 3 + 1;
+    private static final int MIDDLE_JOINT_Y = 9 * 3 + 1;
+    private static final int RING_TIP_Y = 16 * 3 + 1;
+    private static final int RING_JOINT_Y = 13 * 3 + 1;
+    private static final int PINKY_TIP_Y = 20 * 3 + 1;
+    private static final int PINKY_JOINT_Y = 17 * 3 + 1;
+
+    private final int[] extended;
+
+    public LandmarkClassifier(int maxBatch) {
+        this.extended = new int[maxBatch * MAX_HANDS];
+    }
+
+    public static String name(byte label) {
+        return NAMES[label];
+    }
+
+    /**
+     * Classifies frames [0, count). hands[i] is the number of hands in frame
+     * i (0 to 2) and bit h of leftMask[i] is set when hand h is a left hand.
+     */
+    public void classify(float[] landmarks, byte[] hands, byte[] leftMask, int count, byte[] labels) {
+        int slots = count * MAX_HANDS;
+        for (int slot = 0; slot < slots; slot++) {
+            int b = slot * HAND_STRIDE;
+            extended[slot] = (landmarks[b + THUMB_TIP_X] > landmarks[b + THUMB_JOINT_X] ? 1 : 0)
+                    + (landmarks[b + INDEX_TIP_Y] < landmarks[b + INDEX_JOINT_Y] ? 1 : 0)
+                    + (landmarks[b + MIDDLE_TIP_Y] < landmarks[b + MIDDLE_JOINT_Y] ? 1 : 0)
+                    + (landmarks[b + RING_TIP_Y] < landmarks[b + RING_JOINT_Y] ? 1 : 0)
+                    + (landmarks[b + PINKY_TIP_Y] < landmarks[b + PINKY_JOINT_Y] ? 1 : 0);
+        }
+
+        for (int i = 0; i < count; i++) {
+            labels[i] = label(hands[i], leftMask[i], extended[i * 2], extended[i * 2 + 1]);
+        }
+    }
+
+    // The gesture rules on their own, for detectors that count fingers some other way
+    public static byte label(int hands, int leftMask, int extended0, int extended1) {
+        if (hands == 1) {
+            return (leftMask & 1) != 0 ? HIGHER : LOWER;
+        }
+        if (hands == 2) {
+            boolean open = extended0 >= 4 && extended1 >= 4;
+            boolean mixed = leftMask == 1 || leftMask == 2;
+            return open || mixed ? RESET : leftMask == 3 ? HIGHER : LOWER;
+        }
+        return NONE;
+    }
+}
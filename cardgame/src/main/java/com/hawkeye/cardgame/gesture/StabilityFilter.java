@@ -0,0 +1,42 @@
+package com.hawkeye.cardgame.gesture;
+
+/**
+ * Per-session smoothing of raw frame labels. A gesture counts once it is
+ * at least 3 of the last 5 frames, and is reported only when it becomes
+ * the stable gesture, so holding a hand up makes one guess rather than one
+ * per frame. Not thread-safe; each session is fed from one thread.
+ */
+public final class StabilityFilter {
+
+    private static final int WINDOW = 5;
+    private static final int REQUIRED = 3;
+
+    private final byte[] history = new byte[WINDOW];
+    private int position;
+    private byte stable = LandmarkClassifier.NONE;
+
+    // Returns the gesture that just became stable, or NONE
+    public byte add(byte label) {
+        history[position] = label;
+        position = position + 1 == WINDOW ? 0 : position + 1;
+
+        int higher = 0;
+        int lower = 0;
+        int reset = 0;
+        for (byte seen : history) {
+            higher += seen == LandmarkClassifier.HIGHER ? 1 : 0;
+            lower += seen == LandmarkClassifier.LOWER ? 1 : 0;
+            reset += seen == LandmarkClassifier.RESET ? 1 : 0;
+        }
+        byte current = higher >= REQUIRED ? LandmarkClassifier.HIGHER
+                : lower >= REQUIRED ? LandmarkClassifier.LOWER
+                : reset >= REQUIRED ? LandmarkClassifier.RESET
+                : LandmarkClassifier.NONE;
+
+        if (current == stable) {
+            return LandmarkClassifier.NONE;
+        }
+        stable = current;
+        return current;
+    }
+}
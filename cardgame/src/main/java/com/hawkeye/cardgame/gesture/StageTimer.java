@@ -0,0 +1,29 @@
+package com.hawkeye.cardgame.gesture;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Count, mean and max of one processing stage, cheap enough to record per frame
+public final class StageTimer {
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public void record(long nanos) {
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    public Map<String, Object> stats() {
+        long n = count.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("count", n);
+        stats.put("meanMicros", n == 0 ? 0.0 : totalNanos.sum() / 1000.0 / n);
+        stats.put("maxMicros", maxNanos.get() / 1000.0);
+        return stats;
+    }
+}
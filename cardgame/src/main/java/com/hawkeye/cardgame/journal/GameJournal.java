@@ -0,0 +1,403 @@
+package com.hawkeye.cardgame.journal;
+
+import com.hawkeye.cardgame.diagnostics.SampledLogger;
+import com.hawkeye.cardgame.model.Card;
+import com.hawkeye.cardgame.model.GameMessage;
+import com.hawkeye.cardgame.model.GameState;
+import com.hawkeye.cardgame.service.CardService;
+import com.hawkeye.cardgame.service.GameEventListener;
+import com.hawkeye.cardgame.service.GameSnapshots;
+import com.hawkeye.cardgame.store.GameStore;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Write-ahead journal for games, enabled with game.journal.enabled=true.
+ *
+ * Every start and guess appends a 32-byte record holding the game's full
+ * visible state and version to a memory-mapped segment file, and every game
+ * that leaves the store appends a removal. Appenders only reserve a range
+ * with an atomic add and copy the bytes in; a background thread forces the
+ * current segment to disk every flush interval (group commit).
+ * Periodically the store is snapshotted and older segments are deleted,
+ * so recovery only replays one snapshot plus the segments after it.
+ *
+ * Because each record is a full image, replay is a plain upsert. Recovered
+ * games keep their version, so delta seqs, ETags and SSE event ids carry on
+ * from where they were. Decks are not journaled: recovered games continue
+ * with a fresh shuffle.
+ */
+@Component
+@ConditionalOnProperty(name = "game.journal.enabled", havingValue = "true")
+public class GameJournal implements GameEventListener, InitializingBean, DisposableBean {
+
+    private static final SampledLogger log = SampledLogger.of(GameJournal.class, 10);
+
+    static final int RECORD_SIZE = 32;
+
+    static final byte GAME_STARTED = 1;
+    static final byte GUESS_RESOLVED = 2;
+    static final byte GAME_OVER = 3;
+    static final byte REMOVED = 4;
+
+    // Record layout; the type byte is written last and marks the record complete
+    private static final int TYPE = 0;
+    private static final int CURRENT = 1;
+    private static final int NEXT = 2;
+    private static final int MESSAGE = 3;
+    private static final int SCORE = 4;
+    private static final int MSB = 8;
+    private static final int LSB = 16;
+    private static final int VERSION = 24;
+    // Seconds since the epoch; only there for reading a journal by hand
+    private static final int TIMESTAMP = 28;
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long flushIntervalMs;
+    private final long snapshotIntervalMs;
+    private final GameStore gameStore;
+    private final CardService cardService;
+    private final GameSnapshots gameSnapshots;
+
+    private final LongAdder appended = new LongAdder();
+    private final ScheduledExecutorService background = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "game-journal");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private volatile Segment current;
+    // Rolled segments the flush thread has not forced yet
+    private final Queue<Segment> rolled = new ConcurrentLinkedQueue<>();
+    private long nextSegmentIndex;
+
+    public GameJournal(
+            @Value("${game.journal.dir:./data/journal}") String directory,
+            @Value("${game.journal.segment-size-mb:64}") int segmentSizeMb,
+            @Value("${game.journal.flush-interval-ms:10}") long flushIntervalMs,
+            @Value("${game.journal.snapshot-interval-ms:300000}") long snapshotIntervalMs,
+            GameStore gameStore,
+            CardService cardService,
+            GameSnapshots gameSnapshots) {
+        this.directory = Path.of(directory);
+        this.segmentSize = segmentSizeMb * 1024 * 1024 / RECORD_SIZE * RECORD_SIZE;
+        this.flushIntervalMs = flushIntervalMs;
+        this.snapshotIntervalMs = snapshotIntervalMs;
+        this.gameStore = gameStore;
+        this.cardService = cardService;
+        this.gameSnapshots = gameSnapshots;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws IOException {
+        Files.createDirectories(directory);
+        recover();
+
+        background.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        background.scheduleWithFixedDelay(this::snapshotQuietly, snapshotIntervalMs, snapshotIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void onGameStarted(GameState gameState) {
+        append(GAME_STARTED, gameState);
+    }
+
+    @Override
+    public void onGuessResolved(GameState gameState) {
+        append(gameState.isGameOver() ? GAME_OVER : GUESS_RESOLVED, gameState);
+    }
+
+    public long appendedRecords() {
+        return appended.sum();
+    }
+
+    void append(byte type, GameState gameState) {
+        append(type, gameState.getUuid(), gameState);
+    }
+
+    // Removed, evicted or handed to another node; called under the store's lock
+    void appendRemoved(UUID id) {
+        append(REMOVED, id, null);
+    }
+
+    private void append(byte type, UUID id, GameState gameState) {
+        while (true) {
+            Segment segment = current;
+            int position = segment.cursor.getAndAdd(RECORD_SIZE);
+            if (position + RECORD_SIZE <= segmentSize) {
+                encode(segment.buffer, position, type, id, gameState);
+                appended.increment();
+                return;
+            }
+            roll(segment);
+        }
+    }
+
+    // Writes a snapshot of every stored game and drops the segments it covers
+    public synchronized void snapshot() throws IOException {
+        Segment covered = current;
+        roll(covered);
+        long snapshotIndex = current.index;
+
+        Path tmp = directory.resolve(SNAPSHOT_PREFIX + format(snapshotIndex) + SNAPSHOT_SUFFIX + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer batch = ByteBuffer.allocateDirect(RECORD_SIZE * 1024);
+            AtomicInteger pending = new AtomicInteger();
+            gameStore.forEach(state -> {
+                byte type = state.isGameOver() ? GAME_OVER : GUESS_RESOLVED;
+                encode(batch, pending.getAndIncrement() * RECORD_SIZE, type, state.getUuid(), state);
+                if (pending.get() * RECORD_SIZE == batch.capacity()) {
+                    writeFully(channel, batch, pending.getAndSet(0) * RECORD_SIZE);
+                }
+            });
+            writeFully(channel, batch, pending.get() * RECORD_SIZE);
+            channel.force(true);
+        }
+        Files.move(tmp, directory.resolve(SNAPSHOT_PREFIX + format(snapshotIndex) + SNAPSHOT_SUFFIX),
+                StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        for (Path file : list()) {
+            long index = indexOf(file);
+            if (index >= 0 && index < snapshotIndex) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        background.shutdown();
+        flush();
+    }
+
+    private void flush() {
+        for (Segment full; (full = rolled.poll()) != null; ) {
+            full.buffer.force();
+        }
+        Segment segment = current;
+        if (segment != null) {
+            segment.buffer.force();
+        }
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (IOException e) {
+            log.warn("Journal snapshot failed: {}", e.getMessage());
+        }
+    }
+
+    private synchronized void roll(Segment full) {
+        if (current != full) {
+            return;
+        }
+        try {
+            rolled.add(full);
+            current = openSegment(nextSegmentIndex++);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not roll journal segment", e);
+        }
+    }
+
+    private Segment openSegment(long index) throws IOException {
+        Path path = directory.resolve(SEGMENT_PREFIX + format(index) + SEGMENT_SUFFIX);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return new Segment(index, channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize));
+        }
+    }
+
+    private void recover() throws IOException {
+        long started = System.nanoTime();
+        List<Path> files = list();
+
+        long snapshotIndex = -1;
+        for (Path file : files) {
+            if (file.getFileName().toString().endsWith(SNAPSHOT_SUFFIX)) {
+                snapshotIndex = Math.max(snapshotIndex, indexOf(file));
+            }
+            nextSegmentIndex = Math.max(nextSegmentIndex, indexOf(file) + 1);
+        }
+
+        // Latest image per game, packed into one long plus the version so millions of games stay cheap
+        Map<UUID, Image> games = new HashMap<>();
+        long records = 0;
+        if (snapshotIndex >= 0) {
+            records += replay(directory.resolve(SNAPSHOT_PREFIX + format(snapshotIndex) + SNAPSHOT_SUFFIX), games);
+        }
+        for (Path file : files) {
+            if (file.getFileName().toString().endsWith(SEGMENT_SUFFIX) && indexOf(file) >= snapshotIndex) {
+                records += replay(file, games);
+            }
+        }
+
+        current = openSegment(nextSegmentIndex++);
+        // Evictions are journaled from here on, including any while the store fills up below
+        gameStore.setRemovalListener(this::appendRemoved);
+
+        for (Map.Entry<UUID, Image> game : games.entrySet()) {
+            long image = game.getValue().state();
+            GameState state = new GameState(game.getKey().toString(),
+                    Card.of((int) (image >>> 56) & 0xFF),
+                    Card.of((int) (image >>> 48) & 0xFF),
+                    (int) image,
+                    ((image >>> 32) & 0xFF) == GAME_OVER,
+                    null);
+            state.setMessageType(GameMessage.of((int) (image >>> 40) & 0xFF));
+            state.setVersion(game.getValue().version());
+            state.setDeck(cardService.newDeck());
+            // Same as a live change: the version's JSON is written before the game is visible
+            state.setSnapshot(gameSnapshots.of(state));
+            gameStore.put(state);
+        }
+
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        log.info("Journal recovery: {} games from {} records in {} ms", games.size(), records, elapsedMs);
+    }
+
+    private long replay(Path file, Map<UUID, Image> games) throws IOException {
+        long records = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size() / RECORD_SIZE * RECORD_SIZE;
+            if (length == 0) {
+                return 0;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            // Appenders finish out of order, so an empty slot can sit before
+            // records that were written. Empty slots after the last record are
+            // just unused space; the ones before it were never completed.
+            int empty = 0;
+            int skipped = 0;
+            for (int position = 0; position < length; position += RECORD_SIZE) {
+                byte type = buffer.get(position + TYPE);
+                if (type == 0) {
+                    empty++;
+                    continue;
+                }
+                skipped += empty;
+                empty = 0;
+                UUID id = new UUID(buffer.getLong(position + MSB), buffer.getLong(position + LSB));
+                records++;
+                if (type == REMOVED) {
+                    games.remove(id);
+                    continue;
+                }
+                long image = (buffer.get(position + CURRENT) & 0xFFL) << 56
+                        | (buffer.get(position + NEXT) & 0xFFL) << 48
+                        | (buffer.get(position + MESSAGE) & 0xFFL) << 40
+                        | (type & 0xFFL) << 32
+                        | (buffer.getInt(position + SCORE) & 0xFFFFFFFFL);
+                games.put(id, new Image(image, buffer.getInt(position + VERSION)));
+            }
+            if (skipped > 0) {
+                log.warn("Journal {}: skipped {} incomplete records among {} written ones",
+                        file.getFileName(), skipped, records);
+            }
+        }
+        return records;
+    }
+
+    // A removal has no state; its slot is still zero apart from the id
+    private static void encode(ByteBuffer target, int position, byte type, UUID id, GameState state) {
+        if (state != null) {
+            GameMessage message = state.getMessageType() != null ? state.getMessageType() : GameMessage.NONE;
+            target.put(position + CURRENT, state.getCurrentCard().code());
+            target.put(position + NEXT, state.getNextCard().code());
+            target.put(position + MESSAGE, message.id());
+            target.putInt(position + SCORE, state.getScore());
+            target.putInt(position + VERSION, state.getVersion());
+        }
+        target.putLong(position + MSB, id.getMostSignificantBits());
+        target.putLong(position + LSB, id.getLeastSignificantBits());
+        target.putInt(position + TIMESTAMP, (int) (System.currentTimeMillis() / 1000));
+        target.put(position + TYPE, type);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer batch, int length) {
+        try {
+            batch.limit(length).position(0);
+            while (batch.hasRemaining()) {
+                channel.write(batch);
+            }
+            batch.clear();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<Path> list() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> paths = Files.list(directory)) {
+            paths.filter(p -> indexOf(p) >= 0).sorted().forEach(files::add);
+        }
+        return files;
+    }
+
+    private static long indexOf(Path file) {
+        String name = file.getFileName().toString();
+        String digits;
+        if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+            digits = name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length());
+        } else if (name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(SNAPSHOT_SUFFIX)) {
+            digits = name.substring(SNAPSHOT_PREFIX.length(), name.length() - SNAPSHOT_SUFFIX.length());
+        } else {
+            return -1;
+        }
+        try {
+            return Long.parseLong(digits);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static String format(long index) {
+        return String.format("%016d", index);
+    }
+
+    private record Image(long state, int version) {}
+
+    private static final class Segment {
+        final long index;
+        final MappedByteBuffer buffer;
+        final AtomicInteger cursor = new AtomicInteger();
+
+        Segment(long index, MappedByteBuffer buffer) {
+            this.index = index;
+            this.buffer = buffer;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.hawkeye.cardgame.kiosk;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plays recorded image files as if they came from a camera, at a fixed
+ * frame rate (0 for as fast as possible), optionally looping. Used for
+ * tests and for running a kiosk without a camera attached.
+ */
+public class FileFrameSource implements FrameSource {
+
+    private final List<Path> files;
+    private final int width;
+    private final int height;
+    private final long frameIntervalNanos;
+    private final boolean loop;
+
+    private final List<byte[]> frames = new ArrayList<>();
+    private int next;
+    private long nextFrameAt;
+
+    public FileFrameSource(List<Path> files, int width, int height, double fps, boolean loop) {
+        this.files = List.copyOf(files);
+        this.width = width;
+        this.height = height;
+        this.frameIntervalNanos = fps > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / fps) : 0;
+        this.loop = loop;
+    }
+
+    @Override
+    public int width() {
+        return width;
+    }
+
+    @Override
+    public int height() {
+        return height;
+    }
+
+    @Override
+    public boolean rgb() {
+        return false;
+    }
+
+    @Override
+    public void open() {
+        // Decode everything up front so grabbing costs what a camera copy would
+        for (Path file : files) {
+            try {
+                BufferedImage image = ImageIO.read(file.toFile());
+                if (image == null) {
+                    throw new IOException("Not an image: " + file);
+                }
+                BufferedImage bgr = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+                Graphics2D g = bgr.createGraphics();
+                g.drawImage(image, 0, 0, width, height, null);
+                g.dispose();
+                frames.add(((DataBufferByte) bgr.getRaster().getDataBuffer()).getData());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        nextFrameAt = System.nanoTime();
+    }
+
+    @Override
+    public boolean grab(ByteBuffer target) throws InterruptedException {
+        if (frames.isEmpty() || (!loop && next >= frames.size())) {
+            return false;
+        }
+        if (frameIntervalNanos > 0) {
+            long wait = nextFrameAt - System.nanoTime();
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+            nextFrameAt += frameIntervalNanos;
+        }
+        target.put(frames.get(next % frames.size()));
+        next++;
+        return true;
+    }
+
+    @Override
+    public void close() {
+        frames.clear();
+    }
+}
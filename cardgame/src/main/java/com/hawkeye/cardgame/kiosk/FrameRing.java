@@ -0,0 +1,112 @@
+package com.hawkeye.cardgame.kiosk;
+
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fixed ring of preallocated direct frame buffers between one grabbing
+ * thread and one classifying thread. Each buffer is wrapped by a Mat once,
+ * so OpenCV reads the camera's bytes in place. The grabber never waits:
+ * it keeps overwriting the oldest slot, skipping only the one being read,
+ * and the reader always picks up the newest finished frame.
+ */
+final class FrameRing {
+
+    private final ByteBuffer[] buffers;
+    private final Mat[] mats;
+    private final long[] capturedAt;
+
+    private final AtomicLong published = new AtomicLong(-1);
+    private volatile long reading = -1;
+    // Grabber only
+    private long claimed = -1;
+
+    FrameRing(int slots, int width, int height) {
+        if (slots < 3) {
+            throw new IllegalArgumentException("Ring needs at least 3 slots: " + slots);
+        }
+        buffers = new ByteBuffer[slots];
+        mats = new Mat[slots];
+        capturedAt = new long[slots];
+        for (int i = 0; i < slots; i++) {
+            buffers[i] = ByteBuffer.allocateDirect(width * height * 3);
+            mats[i] = new Mat(height, width, CvType.CV_8UC3, buffers[i]);
+        }
+    }
+
+    // Grabber: the next buffer to fill
+    ByteBuffer claim() {
+        long seq = published.get() + 1;
+        if (slot(seq) == slot(reading)) {
+            seq++;
+        }
+        claimed = seq;
+        ByteBuffer buffer = buffers[slot(seq)];
+        buffer.clear();
+        return buffer;
+    }
+
+    // Grabber: the claimed buffer now holds a frame captured at the given nanoTime
+    void publish(long capturedNanos) {
+        capturedAt[slot(claimed)] = capturedNanos;
+        published.set(claimed);
+        synchronized (this) {
+            notifyAll();
+        }
+    }
+
+    /**
+     * Reader: waits for a frame newer than after and returns its sequence
+     * number, or -1 on timeout. The slot is protected until release().
+     */
+    long acquireNewest(long after, long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (true) {
+            long seq = published.get();
+            if (seq > after) {
+                reading = seq;
+                // The grabber may have lapped us between the read and the claim
+                if (published.get() - seq < buffers.length - 1) {
+                    return seq;
+                }
+                reading = -1;
+                continue;
+            }
+            long wait = deadline - System.nanoTime();
+            if (wait <= 0) {
+                return -1;
+            }
+            synchronized (this) {
+                if (published.get() <= after) {
+                    TimeUnit.NANOSECONDS.timedWait(this, wait);
+                }
+            }
+        }
+    }
+
+    Mat mat(long seq) {
+        return mats[slot(seq)];
+    }
+
+    long capturedAt(long seq) {
+        return capturedAt[slot(seq)];
+    }
+
+    void release() {
+        reading = -1;
+    }
+
+    void close() {
+        for (Mat mat : mats) {
+            mat.release();
+        }
+    }
+
+    private int slot(long seq) {
+        return seq < 0 ? -1 : (int) (seq % buffers.length);
+    }
+}
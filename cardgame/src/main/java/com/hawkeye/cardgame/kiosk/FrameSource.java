@@ -0,0 +1,25 @@
+package com.hawkeye.cardgame.kiosk;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Where kiosk mode gets its pictures from: a local camera in a cabinet, or
+ * recorded files in tests. Frames are packed 8-bit, 3 channels, width *
+ * height * 3 bytes, written straight into the caller's buffer.
+ */
+public interface FrameSource {
+
+    int width();
+
+    int height();
+
+    // True when channels are in RGB order rather than OpenCV's BGR
+    boolean rgb();
+
+    void open();
+
+    // Blocks until the next frame is in target; false once the source has run out
+    boolean grab(ByteBuffer target) throws InterruptedException;
+
+    void close();
+}
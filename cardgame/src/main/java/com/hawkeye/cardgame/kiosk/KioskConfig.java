@@ -0,0 +1,51 @@
+package com.hawkeye.cardgame.kiosk;
+
+import com.hawkeye.cardgame.service.GameService;
+import com.hawkeye.cardgame.service.GameUpdatePublisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Kiosk mode for cabinets with a local camera, enabled with game.kiosk.enabled=true
+@Configuration
+@ConditionalOnProperty(name = "game.kiosk.enabled", havingValue = "true")
+public class KioskConfig {
+
+    // Game updates go to /topic/gesture/kiosk for the cabinet's screen
+    static final String KIOSK_SESSION = "kiosk";
+
+    @Bean
+    public FrameSource kioskFrameSource(
+            @Value("${game.kiosk.source:webcam}") String type,
+            @Value("${game.kiosk.camera-index:0}") int cameraIndex,
+            @Value("${game.kiosk.width:640}") int width,
+            @Value("${game.kiosk.height:480}") int height,
+            @Value("${game.kiosk.files-dir:./data/kiosk-frames}") String filesDir,
+            @Value("${game.kiosk.files-fps:30}") double filesFps) {
+        if ("files".equalsIgnoreCase(type)) {
+            try (Stream<Path> paths = Files.list(Path.of(filesDir))) {
+                List<Path> files = paths.filter(Files::isRegularFile).sorted().toList();
+                return new FileFrameSource(files, width, height, filesFps, true);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not list kiosk frames in " + filesDir, e);
+            }
+        }
+        return new WebcamFrameSource(cameraIndex, width, height);
+    }
+
+    @Bean
+    public KioskRunner kioskRunner(FrameSource kioskFrameSource, GameService gameService,
+                                   GameUpdatePublisher publisher,
+                                   @Value("${game.kiosk.ring-slots:4}") int ringSlots) {
+        return new KioskRunner(kioskFrameSource, gameService,
+                (gesture, state) -> publisher.publishGameUpdate(KIOSK_SESSION, gesture, state, null), ringSlots);
+    }
+}
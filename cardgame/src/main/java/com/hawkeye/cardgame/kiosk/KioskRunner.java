@@ -0,0 +1,185 @@
+package com.hawkeye.cardgame.kiosk;
+
+import com.hawkeye.cardgame.diagnostics.SampledLogger;
+import com.hawkeye.cardgame.gesture.HandDetector;
+import com.hawkeye.cardgame.gesture.LandmarkClassifier;
+import com.hawkeye.cardgame.gesture.StabilityFilter;
+import com.hawkeye.cardgame.gesture.StageTimer;
+import com.hawkeye.cardgame.model.GameState;
+import com.hawkeye.cardgame.service.GameService;
+import org.springframework.context.SmartLifecycle;
+
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * Kiosk mode: the server plays one game from its own camera, with no
+ * browser in the loop. A grab thread fills the frame ring as fast as the
+ * source delivers; a decide thread classifies the newest frame, runs it
+ * through the stability filter and calls GameService directly. Frames
+ * that arrive while a decision is in progress are simply overwritten.
+ *
+ * Latency is measured from the moment a frame was grabbed to the moment
+ * its gesture decision is known.
+ */
+public class KioskRunner implements SmartLifecycle {
+
+    private static final SampledLogger log = SampledLogger.of(KioskRunner.class, 20);
+
+    private final FrameSource source;
+    private final GameService gameService;
+    private final BiConsumer<String, GameState> onDecision;
+    private final int ringSlots;
+
+    private final StageTimer captureToDecision = new StageTimer();
+    private final LongAdder grabbed = new LongAdder();
+    private final LongAdder classified = new LongAdder();
+    private final LongAdder gestures = new LongAdder();
+
+    private volatile boolean running;
+    private volatile GameState game;
+    private Thread grabber;
+    private Thread decider;
+    private FrameRing ring;
+
+    public KioskRunner(FrameSource source, GameService gameService,
+                       BiConsumer<String, GameState> onDecision, int ringSlots) {
+        this.source = source;
+        this.gameService = gameService;
+        this.onDecision = onDecision;
+        this.ringSlots = ringSlots;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        // Constructing the detector first also loads the OpenCV native library
+        HandDetector detector = new HandDetector();
+        ring = new FrameRing(ringSlots, source.width(), source.height());
+        source.open();
+        game = gameService.startNewGame();
+        onDecision.accept("reset", game);
+
+        running = true;
+        grabber = new Thread(this::grabLoop, "kiosk-grab");
+        decider = new Thread(() -> decideLoop(detector), "kiosk-decide");
+        grabber.setDaemon(true);
+        decider.setDaemon(true);
+        grabber.start();
+        decider.start();
+        log.info("Kiosk mode started, game {}", game.getGameId());
+    }
+
+    private void grabLoop() {
+        try {
+            while (running) {
+                ByteBuffer buffer = ring.claim();
+                if (!source.grab(buffer)) {
+                    log.info("Kiosk frame source ended");
+                    return;
+                }
+                ring.publish(System.nanoTime());
+                grabbed.increment();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.warn("Kiosk capture failed: {}", e.getMessage());
+        }
+    }
+
+    private void decideLoop(HandDetector detector) {
+        StabilityFilter filter = new StabilityFilter();
+        long last = -1;
+        while (running) {
+            try {
+                long seq = ring.acquireNewest(last, 100, TimeUnit.MILLISECONDS);
+                if (seq < 0) {
+                    continue;
+                }
+                byte gesture;
+                try {
+                    detector.useFrame(ring.mat(seq), source.rgb());
+                    gesture = filter.add(detector.detect().label());
+                    captureToDecision.record(System.nanoTime() - ring.capturedAt(seq));
+                } finally {
+                    ring.release();
+                }
+                last = seq;
+                classified.increment();
+                if (gesture != LandmarkClassifier.NONE) {
+                    gestures.increment();
+                    play(LandmarkClassifier.name(gesture));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Kiosk gesture failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void play(String gesture) {
+        GameState current = game;
+        if ("reset".equals(gesture)) {
+            game = gameService.startNewGame();
+        } else if (current.isGameOver()) {
+            // Only a reset starts the next game
+            return;
+        } else {
+            try {
+                game = gameService.makeGuess(current.getGameId(), gesture);
+            } catch (IllegalArgumentException e) {
+                // Evicted while the cabinet sat idle
+                game = gameService.startNewGame();
+            }
+        }
+        log.debug("Kiosk {} -> score {}{}", gesture, game.getScore(), game.isGameOver() ? " (game over)" : "");
+        onDecision.accept(gesture, game);
+    }
+
+    public GameState currentGame() {
+        return game;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("running", running);
+        stats.put("gameId", game != null ? game.getGameId() : null);
+        stats.put("grabbed", grabbed.sum());
+        stats.put("classified", classified.sum());
+        stats.put("gestures", gestures.sum());
+        stats.put("captureToDecision", captureToDecision.stats());
+        return stats;
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        for (Thread thread : new Thread[] {grabber, decider}) {
+            thread.interrupt();
+            try {
+                thread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        source.close();
+        ring.close();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
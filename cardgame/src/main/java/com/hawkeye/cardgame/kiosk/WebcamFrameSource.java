@@ -0,0 +1,65 @@
+package com.hawkeye.cardgame.kiosk;
+
+import com.github.sarxos.webcam.Webcam;
+import com.hawkeye.cardgame.diagnostics.SampledLogger;
+
+import java.awt.Dimension;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+// The cabinet's own camera, through webcam-capture
+public class WebcamFrameSource implements FrameSource {
+
+    private static final SampledLogger log = SampledLogger.of(WebcamFrameSource.class, 10);
+
+    private final int cameraIndex;
+    private final Dimension size;
+    private Webcam webcam;
+
+    public WebcamFrameSource(int cameraIndex, int width, int height) {
+        this.cameraIndex = cameraIndex;
+        this.size = new Dimension(width, height);
+    }
+
+    @Override
+    public int width() {
+        return size.width;
+    }
+
+    @Override
+    public int height() {
+        return size.height;
+    }
+
+    @Override
+    public boolean rgb() {
+        return true;
+    }
+
+    @Override
+    public void open() {
+        List<Webcam> webcams = Webcam.getWebcams();
+        if (cameraIndex >= webcams.size()) {
+            throw new IllegalStateException("No camera at index " + cameraIndex + ", found " + webcams.size());
+        }
+        webcam = webcams.get(cameraIndex);
+        webcam.setCustomViewSizes(size);
+        webcam.setViewSize(size);
+        webcam.open();
+        log.info("Kiosk camera opened: {} at {}x{}", webcam.getName(), size.width, size.height);
+    }
+
+    @Override
+    public boolean grab(ByteBuffer target) {
+        // Copies the driver's pixels straight into our buffer, no BufferedImage in between
+        webcam.getImageBytes(target);
+        return webcam.isOpen();
+    }
+
+    @Override
+    public void close() {
+        if (webcam != null) {
+            webcam.close();
+        }
+    }
+}
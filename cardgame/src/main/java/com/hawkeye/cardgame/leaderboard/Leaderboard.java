@@ -0,0 +1,240 @@
+package com.hawkeye.cardgame.leaderboard;
+
+import com.hawkeye.cardgame.model.GameState;
+import com.hawkeye.cardgame.model.LeaderboardEntry;
+import com.hawkeye.cardgame.model.LeaderboardSnapshot;
+import com.hawkeye.cardgame.service.GameEventListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Final scores of finished games, as an all-time board and one board per
+ * rolling window (game.leaderboard.windows, e.g. 1h,24h).
+ *
+ * Game-overs land in one of a few striped buffers, picked by game id, so
+ * mailbox threads only ever meet on a short append. The buffers are merged
+ * into bounded top-K heaps when one fills up or when the snapshot is
+ * rebuilt every refresh-ms; readers only see that immutable snapshot, so
+ * they never wait on writers and writers never wait on readers.
+ *
+ * A window board keeps a top-K per slice of 1/60th of its length, so a
+ * game that falls out of the window takes only its own slice with it.
+ * Boards are per node; in clustered mode each node ranks the games it owns.
+ */
+@Component
+public class Leaderboard implements GameEventListener {
+
+    private static final int STRIPE_CAPACITY = 1024;
+    private static final int SLICES = 60;
+
+    private final int size;
+    private final Stripe[] stripes;
+    private final int stripeMask;
+
+    // Everything below is only touched while holding mergeLock
+    private final ReentrantLock mergeLock = new ReentrantLock();
+    private final TopK allTime;
+    private final Window[] windows;
+
+    private volatile LeaderboardSnapshot snapshot;
+
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+
+    public Leaderboard(@Value("${game.leaderboard.size:100}") int size,
+                       @Value("${game.leaderboard.windows:1h,24h}") List<String> windowNames,
+                       @Value("${game.leaderboard.stripes:0}") int stripeCount) {
+        this.size = size;
+        int requested = stripeCount > 0 ? stripeCount : Runtime.getRuntime().availableProcessors();
+        int count = requested <= 1 ? 1 : Integer.highestOneBit(requested - 1) << 1;
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.stripeMask = count - 1;
+        this.allTime = new TopK(size);
+        this.windows = new Window[windowNames.size()];
+        for (int i = 0; i < windows.length; i++) {
+            String name = windowNames.get(i).trim();
+            windows[i] = new Window(name, DurationStyle.detectAndParse(name).toMillis(), size);
+        }
+        this.snapshot = LeaderboardSnapshot.empty(windowNames());
+    }
+
+    @Override
+    public void onGuessResolved(GameState gameState) {
+        if (gameState.isGameOver()) {
+            record(gameState.getGameId(), gameState.getScore(), System.currentTimeMillis());
+        }
+    }
+
+    public void record(String gameId, int score, long endedAt) {
+        LeaderboardEntry entry = new LeaderboardEntry(gameId, score, endedAt);
+        Stripe stripe = stripes[spread(gameId.hashCode()) & stripeMask];
+        while (!stripe.offer(entry)) {
+            // Full: whoever gets here first folds it into the boards, the rest wait
+            mergeLock.lock();
+            try {
+                if (stripe.isFull()) {
+                    drain(stripe);
+                    flushes.increment();
+                }
+            } finally {
+                mergeLock.unlock();
+            }
+        }
+        recorded.increment();
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    public LeaderboardSnapshot snapshot() {
+        return snapshot;
+    }
+
+    public List<String> windowNames() {
+        List<String> names = new ArrayList<>(windows.length);
+        for (Window window : windows) {
+            names.add(window.name);
+        }
+        return names;
+    }
+
+    @Scheduled(fixedDelayString = "${game.leaderboard.refresh-ms:1000}")
+    public void rebuild() {
+        rebuild(System.currentTimeMillis());
+    }
+
+    void rebuild(long now) {
+        mergeLock.lock();
+        try {
+            for (Stripe stripe : stripes) {
+                drain(stripe);
+            }
+            Map<String, List<LeaderboardEntry>> boards = new LinkedHashMap<>();
+            for (Window window : windows) {
+                boards.put(window.name, window.board(now));
+            }
+            snapshot = new LeaderboardSnapshot(now, allTime.sorted(), Collections.unmodifiableMap(boards));
+        } finally {
+            mergeLock.unlock();
+        }
+    }
+
+    private void drain(Stripe stripe) {
+        LeaderboardEntry[] entries = stripe.swap();
+        for (int i = 0; i < entries.length && entries[i] != null; i++) {
+            LeaderboardEntry entry = entries[i];
+            allTime.offer(entry);
+            for (Window window : windows) {
+                window.offer(entry);
+            }
+        }
+        Arrays.fill(entries, null);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("recorded", recorded.sum());
+        stats.put("stripes", stripes.length);
+        stats.put("flushes", flushes.sum());
+        stats.put("size", size);
+        stats.put("generatedAt", snapshot.generatedAt());
+        return stats;
+    }
+
+    /**
+     * Append-only buffer in front of the boards. Entries go into the front
+     * array; a merge swaps in the spare and reads the old front, which no
+     * writer can reach again until the next swap, itself under mergeLock.
+     */
+    private static final class Stripe {
+        private LeaderboardEntry[] front = new LeaderboardEntry[STRIPE_CAPACITY];
+        private LeaderboardEntry[] spare = new LeaderboardEntry[STRIPE_CAPACITY];
+        private int count;
+
+        synchronized boolean offer(LeaderboardEntry entry) {
+            if (count == front.length) {
+                return false;
+            }
+            front[count++] = entry;
+            return true;
+        }
+
+        synchronized boolean isFull() {
+            return count == front.length;
+        }
+
+        // Filled slots come first and the rest are null
+        synchronized LeaderboardEntry[] swap() {
+            LeaderboardEntry[] taken = front;
+            front = spare;
+            spare = taken;
+            count = 0;
+            return taken;
+        }
+    }
+
+    /**
+     * Ring of per-slice boards covering the last length millis. A slot is
+     * cleared when a newer slice claims it, and entries for a slice that
+     * has already been overwritten are too old to matter.
+     */
+    private static final class Window {
+        final String name;
+        final long length;
+        final long sliceMillis;
+        final int size;
+        final TopK[] slices = new TopK[SLICES + 1];
+        final long[] sliceIds = new long[SLICES + 1];
+
+        Window(String name, long length, int size) {
+            this.name = name;
+            this.length = length;
+            this.sliceMillis = Math.max(1, length / SLICES);
+            this.size = size;
+            for (int i = 0; i < slices.length; i++) {
+                slices[i] = new TopK(size);
+                sliceIds[i] = -1;
+            }
+        }
+
+        void offer(LeaderboardEntry entry) {
+            long sliceId = entry.endedAt() / sliceMillis;
+            int slot = (int) (sliceId % slices.length);
+            if (sliceIds[slot] < sliceId) {
+                slices[slot].clear();
+                sliceIds[slot] = sliceId;
+            } else if (sliceIds[slot] > sliceId) {
+                return;
+            }
+            slices[slot].offer(entry);
+        }
+
+        List<LeaderboardEntry> board(long now) {
+            long since = now - length;
+            long oldest = since / sliceMillis;
+            TopK merged = new TopK(size);
+            for (int i = 0; i < slices.length; i++) {
+                if (sliceIds[i] < oldest) {
+                    continue;
+                }
+                slices[i].addTo(merged, since);
+            }
+            return merged.sorted();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.hawkeye.cardgame.leaderboard;
+
+import com.hawkeye.cardgame.model.LeaderboardEntry;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * The best k entries seen, in a min-heap whose head is the entry to beat.
+ * Ties go to the game that ended first. Not thread-safe; the leaderboard
+ * only touches it while merging.
+ */
+final class TopK {
+
+    // Best first: higher score, then earlier end
+    static final Comparator<LeaderboardEntry> BEST_FIRST = Comparator
+            .comparingInt(LeaderboardEntry::score).reversed()
+            .thenComparingLong(LeaderboardEntry::endedAt);
+
+    private final int k;
+    private final PriorityQueue<LeaderboardEntry> heap;
+
+    TopK(int k) {
+        this.k = k;
+        this.heap = new PriorityQueue<>(k + 1, BEST_FIRST.reversed());
+    }
+
+    void offer(LeaderboardEntry entry) {
+        if (heap.size() < k) {
+            heap.add(entry);
+        } else if (BEST_FIRST.compare(entry, heap.peek()) < 0) {
+            heap.poll();
+            heap.add(entry);
+        }
+    }
+
+    void clear() {
+        heap.clear();
+    }
+
+    // Offers every entry that ended at or after since
+    void addTo(TopK other, long since) {
+        for (LeaderboardEntry entry : heap) {
+            if (entry.endedAt() >= since) {
+                other.offer(entry);
+            }
+        }
+    }
+
+    List<LeaderboardEntry> sorted() {
+        List<LeaderboardEntry> entries = new ArrayList<>(heap);
+        entries.sort(BEST_FIRST);
+        return List.copyOf(entries);
+    }
+}
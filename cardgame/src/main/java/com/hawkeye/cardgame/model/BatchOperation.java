@@ -0,0 +1,4 @@
+package com.hawkeye.cardgame.model;
+
+// One line of a batch request: either start (a number of new games) or gameId and guess
+public record BatchOperation(Integer start, String gameId, String guess) {}
@@ -1,47 +1,90 @@
 package com.hawkeye.cardgame.model;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
 
+/**
+ * One of the 52 playing cards. Cards are interned: there is exactly one
+ * instance per card, looked up by its code (suit * 13 + rank), so drawing
+ * and comparing cards never allocates. Serializes as {suit, rank, value}.
+ */
+public final class Card {
 
-public class Card {
-	private String suit;
-	private String rank;
-	private Integer value;
-	
-	public Card() {}
-	
-	public Card(String suit,
-			String rank,
-			Integer value) {
-		this.suit = suit;
-		this.rank = rank;
-		this.value = value;
+	public static final int DECK_SIZE = 52;
+	public static final int RANKS_PER_SUIT = 13;
+
+	private static final String[] SUITS = {"HEARTS", "DIAMONDS", "CLUBS", "SPADES"};
+	private static final String[] RANKS = {"2", "3", "4", "5", "6", "7", "8", "9", "10", "J", "Q", "K", "A"};
+
+	private static final Card[] CARDS = new Card[DECK_SIZE];
+
+	static {
+		for (int code = 0; code < DECK_SIZE; code++) {
+			CARDS[code] = new Card((byte) code);
+		}
 	}
 
-	public String getSuit() {
-		return suit;
+	private final byte code;
+	private final String suit;
+	private final String rank;
+	private final int value;
+
+	private Card(byte code) {
+		this.code = code;
+		this.suit = SUITS[code / RANKS_PER_SUIT];
+		this.rank = RANKS[code % RANKS_PER_SUIT];
+		this.value = code % RANKS_PER_SUIT + 2;
+	}
+
+	public static Card of(int code) {
+		return CARDS[code];
+	}
+
+	@JsonCreator
+	public static Card of(@JsonProperty("suit") String suit, @JsonProperty("rank") String rank) {
+		int suitIndex = indexOf(SUITS, suit);
+		int rankIndex = indexOf(RANKS, rank);
+		if (suitIndex < 0 || rankIndex < 0) {
+			throw new IllegalArgumentException("Unknown card: " + rank + " of " + suit);
+		}
+		return CARDS[suitIndex * RANKS_PER_SUIT + rankIndex];
 	}
 
-	public void setSuit(String suit) {
-		this.suit = suit;
+	// Primitive accessors; not bean-style, so they stay out of the JSON
+	public byte code() {
+		return code;
+	}
+
+	public int suitIndex() {
+		return code / RANKS_PER_SUIT;
+	}
+
+	public int rankIndex() {
+		return code % RANKS_PER_SUIT;
+	}
+
+	public String getSuit() {
+		return suit;
 	}
 
 	public String getRank() {
 		return rank;
 	}
 
-	public void setRank(String rank) {
-		this.rank = rank;
+	public int getValue() {
+		return value;
 	}
 
-	public Integer getValue() {
-		return value;
+	@Override
+	public String toString() {
+		return rank + " of " + suit;
 	}
 
-	public void setValue(Integer value) {
-		this.value = value;
+	private static int indexOf(String[] values, String value) {
+		for (int i = 0; i < values.length; i++) {
+			if (values[i].equals(value)) return i;
+		}
+		return -1;
 	}
-	
-	
-	
 
 }
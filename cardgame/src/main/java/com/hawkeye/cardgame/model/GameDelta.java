@@ -0,0 +1,25 @@
+package com.hawkeye.cardgame.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Compact game update for sessions that registered with protocol "delta".
+ * Every update carries the session's next sequence number; only fields that
+ * changed since the previous update are present. Cards are sent as codes
+ * (suit * 13 + rank, see Card) and the message as a GameMessage id, which
+ * the client formats with the score. A "snapshot" update carries every
+ * field and resets the client's view; clients that see a gap in seq send
+ * gesture.resync to get one.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record GameDelta(
+        long seq,
+        String type,        // "delta" or "snapshot"
+        String gesture,
+        String gameId,
+        Integer current,
+        Integer next,
+        Integer score,
+        Boolean gameOver,
+        Integer message) {
+}
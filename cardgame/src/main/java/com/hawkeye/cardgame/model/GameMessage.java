@@ -0,0 +1,40 @@
+package com.hawkeye.cardgame.model;
+
+/**
+ * The status messages a game can show. Games keep the id and only build
+ * the display text when it is actually serialized.
+ */
+public enum GameMessage {
+    NONE(null),
+    STARTED("Game started! Make your guess."),
+    CORRECT("Correct! Your score: "),
+    GAME_OVER("Game Over! Final score: "),
+    // Ids are persisted by the slab store and journal, so only ever append
+    RESET("Game reset! New game started.");
+
+    private static final GameMessage[] BY_ID = values();
+
+    private final String text;
+
+    GameMessage(String text) {
+        this.text = text;
+    }
+
+    public String format(int score) {
+        switch (this) {
+            case CORRECT:
+            case GAME_OVER:
+                return text + score;
+            default:
+                return text;
+        }
+    }
+
+    public byte id() {
+        return (byte) ordinal();
+    }
+
+    public static GameMessage of(int id) {
+        return BY_ID[id];
+    }
+}
@@ -0,0 +1,4 @@
+package com.hawkeye.cardgame.model;
+
+// A game version serialized to JSON once, shared by REST reads and broadcasts
+public record GameSnapshot(int version, byte[] json) {}
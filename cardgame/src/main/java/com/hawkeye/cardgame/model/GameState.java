@@ -1,12 +1,27 @@
 package com.hawkeye.cardgame.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.hawkeye.cardgame.engine.Deck;
+
+import java.util.UUID;
+
 public class GameState {
     private String gameId;
+    // gameId parsed on first use, for code that keys games by their two longs
+    private UUID uuid;
     private Card currentCard;
     private Card nextCard;
     private int score;
     private boolean gameOver;
     private String message;
+    // Bumped on every change, so each version has one serialized snapshot
+    private int version;
+    // When set, message is built from this and the score on first read
+    private GameMessage messageType;
+    // Server-side only; copies handed out to callers don't carry it
+    private Deck deck;
+    // JSON of this version, written once after each change; copies share it
+    private GameSnapshot snapshot;
 
     public GameState() {}
 
@@ -19,9 +34,30 @@ public class GameState {
         this.message = message;
     }
 
+    // Point-in-time copy handed to callers outside the game's mailbox
+    public GameState(GameState other) {
+        this(other.gameId, other.currentCard, other.nextCard, other.score, other.gameOver, other.message);
+        this.messageType = other.messageType;
+        this.uuid = other.uuid;
+        this.version = other.version;
+        this.snapshot = other.snapshot;
+    }
+
     // Getters and Setters
     public String getGameId() { return gameId; }
-    public void setGameId(String gameId) { this.gameId = gameId; }
+    public void setGameId(String gameId) {
+        this.gameId = gameId;
+        this.uuid = null;
+    }
+
+    @JsonIgnore
+    public UUID getUuid() {
+        if (uuid == null) {
+            uuid = UUID.fromString(gameId);
+        }
+        return uuid;
+    }
+    public void setUuid(UUID uuid) { this.uuid = uuid; }
 
     public Card getCurrentCard() { return currentCard; }
     public void setCurrentCard(Card currentCard) { this.currentCard = currentCard; }
@@ -30,11 +66,40 @@ public class GameState {
     public void setNextCard(Card nextCard) { this.nextCard = nextCard; }
 
     public int getScore() { return score; }
-    public void setScore(int score) { this.score = score; }
+    public void setScore(int score) {
+        this.score = score;
+        if (messageType != null) message = null;
+    }
 
     public boolean isGameOver() { return gameOver; }
     public void setGameOver(boolean gameOver) { this.gameOver = gameOver; }
 
-    public String getMessage() { return message; }
-    public void setMessage(String message) { this.message = message; }
+    public String getMessage() {
+        if (message == null && messageType != null) {
+            message = messageType.format(score);
+        }
+        return message;
+    }
+    public void setMessage(String message) {
+        this.message = message;
+        this.messageType = null;
+    }
+
+    public int getVersion() { return version; }
+    public void setVersion(int version) { this.version = version; }
+
+    @JsonIgnore
+    public GameMessage getMessageType() { return messageType; }
+    public void setMessageType(GameMessage messageType) {
+        this.messageType = messageType;
+        this.message = null;
+    }
+
+    @JsonIgnore
+    public Deck getDeck() { return deck; }
+    public void setDeck(Deck deck) { this.deck = deck; }
+
+    @JsonIgnore
+    public GameSnapshot getSnapshot() { return snapshot; }
+    public void setSnapshot(GameSnapshot snapshot) { this.snapshot = snapshot; }
 }
\ No newline at end of file
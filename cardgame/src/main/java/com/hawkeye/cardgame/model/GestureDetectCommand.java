@@ -0,0 +1,4 @@
+package com.hawkeye.cardgame.model;
+
+// Inbound /app/tensorflow/gesture.detect; timestamp is the client's epoch millis
+public record GestureDetectCommand(String sessionId, String gesture, String gameId, Long timestamp) {}
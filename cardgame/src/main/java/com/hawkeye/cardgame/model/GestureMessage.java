@@ -1,12 +1,11 @@
 package com.hawkeye.cardgame.model;
 
-import java.time.LocalDateTime;
-
 public class GestureMessage {
     private String sessionId;
     private String gesture;
     private String message;
-    private LocalDateTime timestamp;
+    // Epoch millis
+    private long timestamp;
     private String gameId;
     
     //  ADD THESE FIELDS
@@ -17,7 +16,7 @@ public class GestureMessage {
 
     // Constructors
     public GestureMessage() {
-        this.timestamp = LocalDateTime.now();
+        this.timestamp = System.currentTimeMillis();
     }
 
     public GestureMessage(String sessionId, String gesture, String message) {
@@ -37,8 +36,8 @@ public class GestureMessage {
     public String getMessage() { return message; }
     public void setMessage(String message) { this.message = message; }
 
-    public LocalDateTime getTimestamp() { return timestamp; }
-    public void setTimestamp(LocalDateTime timestamp) { this.timestamp = timestamp; }
+    public long getTimestamp() { return timestamp; }
+    public void setTimestamp(long timestamp) { this.timestamp = timestamp; }
 
     public String getGameId() { return gameId; }
     public void setGameId(String gameId) { this.gameId = gameId; }
@@ -0,0 +1,5 @@
+package com.hawkeye.cardgame.model;
+
+// A game moving between cluster nodes, with its deck so play continues unchanged
+public record HandoffGame(String gameId, int currentCard, int nextCard, int score, boolean gameOver,
+                          byte message, int version, int deckCursor, byte[] deck) {}
@@ -0,0 +1,4 @@
+package com.hawkeye.cardgame.model;
+
+// Outbound STOMP payload that is already JSON and is sent as-is
+public record JsonBytes(byte[] json) {}
@@ -0,0 +1,6 @@
+package com.hawkeye.cardgame.model;
+
+// Inbound /app/tensorflow/landmarks.detect: one camera frame of MediaPipe hand
+// landmarks. handedness has one 'L' or 'R' per hand, and landmarks holds x, y, z
+// for the 21 points of each hand in the same order (63 floats per hand).
+public record LandmarkFrameCommand(String sessionId, String gameId, String handedness, float[] landmarks, Long timestamp) {}
@@ -0,0 +1,4 @@
+package com.hawkeye.cardgame.model;
+
+// A finished game's final score; endedAt is epoch millis
+public record LeaderboardEntry(String gameId, int score, long endedAt) {}
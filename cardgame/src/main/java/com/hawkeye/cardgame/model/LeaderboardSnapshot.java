@@ -0,0 +1,19 @@
+package com.hawkeye.cardgame.model;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Boards as of generatedAt (epoch millis), best first; replaced whole on each rebuild
+public record LeaderboardSnapshot(long generatedAt, List<LeaderboardEntry> allTime,
+                                  Map<String, List<LeaderboardEntry>> windows) {
+
+    public static LeaderboardSnapshot empty(List<String> windowNames) {
+        Map<String, List<LeaderboardEntry>> windows = new LinkedHashMap<>();
+        for (String name : windowNames) {
+            windows.put(name, List.of());
+        }
+        return new LeaderboardSnapshot(0, List.of(), Collections.unmodifiableMap(windows));
+    }
+}
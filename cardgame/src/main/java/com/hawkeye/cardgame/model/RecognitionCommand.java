@@ -0,0 +1,4 @@
+package com.hawkeye.cardgame.model;
+
+// Inbound /app/tensorflow/gesture.start
+public record RecognitionCommand(String sessionId, Integer cameraIndex) {}
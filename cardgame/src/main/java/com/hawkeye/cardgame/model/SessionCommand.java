@@ -0,0 +1,5 @@
+package com.hawkeye.cardgame.model;
+
+// Inbound gesture.register / gesture.unregister / gesture.stop / gesture.resync;
+// protocol is only read on register, "delta" opts in to /topic/delta/{sessionId}
+public record SessionCommand(String sessionId, String protocol) {}
@@ -1,38 +1,32 @@
 package com.hawkeye.cardgame.service;
 
-import com.hawkeye.cardgame.model.Card;
+import com.hawkeye.cardgame.engine.Deck;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.SplittableRandom;
 
 
 @Service
 public class CardService {
-	
-	public List<Card> createDeck(){
-		List<Card> deck = new ArrayList<>();
-		String[] suits = {"HEARTS","DIAMONDS","CLUBS","SPADES"};
-		String[] ranks = {"2","3","4","5","6","7","8","9","10","J","Q","K","A"};
-		
-		for(String suit: suits) {
-			for(int i = 0; i < ranks.length; i ++) {
-				deck.add(new Card(suit,ranks[i], i +2));
-			}
-		}
-		return deck;
-	}
-	
-	public List<Card> shuffleDeck(List<Card> deck){
-		Collections.shuffle(deck);
-		
-		return deck;
+
+	private final int deckCount;
+	// Only set when a fixed seed is configured; each new deck gets its own split
+	private final SplittableRandom seedSource;
+
+	public CardService(@Value("${game.deck.count:1}") int deckCount,
+			@Value("${game.deck.seed:#{null}}") Long seed) {
+		this.deckCount = deckCount;
+		this.seedSource = seed != null ? new SplittableRandom(seed) : null;
 	}
-	
-	public Card drawCard(List<Card> deck) {
-		if(deck == null || deck.isEmpty()) return null;
-		return deck.remove(0);
+
+	public Deck newDeck() {
+		if (seedSource == null) {
+			return new Deck(deckCount, null);
+		}
+		synchronized (seedSource) {
+			return new Deck(deckCount, seedSource.split());
+		}
 	}
 
 }
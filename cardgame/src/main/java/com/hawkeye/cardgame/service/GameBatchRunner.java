@@ -0,0 +1,223 @@
+package com.hawkeye.cardgame.service;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.hawkeye.cardgame.cluster.GameRouter;
+import com.hawkeye.cardgame.model.BatchOperation;
+import com.hawkeye.cardgame.model.GameState;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs a stream of game operations from one NDJSON request and writes one
+ * NDJSON result per operation as it completes, which is not necessarily
+ * input order. Each input line is either {"start": n} for n new games or
+ * {"gameId": ..., "guess": "higher"|"lower"}; each result carries the
+ * input line number and either the game's state or an error.
+ *
+ * At most max-in-flight guesses are outstanding; past that the request
+ * body is not read until a result has been written, so memory stays flat
+ * however long the batch is. Guesses for different games run in parallel
+ * on their mailboxes, and guesses for the same game are chained in input
+ * order, which also holds when they are forwarded to another node.
+ */
+@Service
+public class GameBatchRunner {
+
+    private static final byte[] LINE = "{\"line\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] GAME_ID = ",\"gameId\":\"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] STATE = ",\"state\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ERROR = ",\"error\":\"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] END = "}\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final GameRouter gameRouter;
+    private final GameSnapshots snapshots;
+    private final ObjectReader operationReader;
+    private final int maxInFlight;
+    private final int maxStart;
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder operations = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    public GameBatchRunner(GameRouter gameRouter,
+                           GameSnapshots snapshots,
+                           ObjectMapper objectMapper,
+                           @Value("${game.batch.max-in-flight:256}") int maxInFlight,
+                           @Value("${game.batch.max-start:10000}") int maxStart) {
+        this.gameRouter = gameRouter;
+        this.snapshots = snapshots;
+        this.operationReader = objectMapper.readerFor(BatchOperation.class);
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.maxStart = maxStart;
+    }
+
+    public void run(InputStream in, OutputStream out) throws IOException {
+        batches.increment();
+        new Batch(new BufferedOutputStream(out, 8192)).run(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("batches", batches.sum());
+        stats.put("operations", operations.sum());
+        stats.put("failures", failures.sum());
+        stats.put("maxInFlight", maxInFlight);
+        return stats;
+    }
+
+    private static String describe(Throwable error) {
+        return error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName();
+    }
+
+    private record Result(long line, String gameId, GameState state, String error) {}
+
+    // One request; everything but the queue and the tails is touched only by the request thread
+    private final class Batch {
+        private final OutputStream out;
+        private final LinkedBlockingQueue<Result> completed = new LinkedBlockingQueue<>();
+        // Last guess queued for each game with guesses still outstanding
+        private final ConcurrentHashMap<String, CompletableFuture<?>> tails = new ConcurrentHashMap<>();
+        private int outstanding;
+
+        Batch(OutputStream out) {
+            this.out = out;
+        }
+
+        void run(BufferedReader reader) throws IOException {
+            String text;
+            long line = 0;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (!text.isBlank()) {
+                    apply(line, text);
+                }
+                // Whatever has finished goes out before waiting on the next line
+                Result result;
+                while ((result = completed.poll()) != null) {
+                    writeCompleted(result);
+                }
+                // About to block on the client, so let it see what we have
+                if (!reader.ready()) {
+                    out.flush();
+                }
+            }
+            while (outstanding > 0) {
+                writeCompleted(take());
+            }
+            out.flush();
+        }
+
+        private void apply(long line, String text) throws IOException {
+            BatchOperation operation;
+            try {
+                operation = operationReader.readValue(text);
+            } catch (IOException e) {
+                write(new Result(line, null, null, "Malformed operation"));
+                return;
+            }
+            if (operation.start() != null) {
+                int count = operation.start();
+                if (count < 0 || count > maxStart) {
+                    write(new Result(line, null, null, "start must be between 0 and " + maxStart));
+                    return;
+                }
+                for (int i = 0; i < count; i++) {
+                    start(line);
+                }
+            } else if (operation.gameId() != null && operation.guess() != null) {
+                guess(line, operation.gameId(), operation.guess());
+            } else {
+                write(new Result(line, operation.gameId(), null, "Expected start, or gameId and guess"));
+            }
+        }
+
+        // Creating a game never waits on a mailbox, so it runs right here
+        private void start(long line) throws IOException {
+            GameState state;
+            try {
+                state = gameRouter.startNewGame();
+            } catch (RuntimeException e) {
+                write(new Result(line, null, null, describe(e)));
+                return;
+            }
+            write(new Result(line, state.getGameId(), state, null));
+        }
+
+        private void guess(long line, String gameId, String guess) throws IOException {
+            while (outstanding >= maxInFlight) {
+                writeCompleted(take());
+            }
+            outstanding++;
+            CompletableFuture<?>[] tail = new CompletableFuture<?>[1];
+            tails.compute(gameId, (id, previous) -> {
+                CompletableFuture<GameState> next = previous == null
+                        ? gameRouter.makeGuessAsync(gameId, guess, false)
+                        : previous.handle((ignored, error) -> null)
+                                .thenCompose(ignored -> gameRouter.makeGuessAsync(gameId, guess, false));
+                tail[0] = next.whenComplete((state, error) -> {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause() : error;
+                    completed.add(new Result(line, gameId, state, cause != null ? describe(cause) : null));
+                });
+                return tail[0];
+            });
+            tail[0].whenComplete((ignored, error) -> tails.remove(gameId, tail[0]));
+        }
+
+        private Result take() throws IOException {
+            try {
+                return completed.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for batch results", e);
+            }
+        }
+
+        private void writeCompleted(Result result) throws IOException {
+            outstanding--;
+            write(result);
+        }
+
+        // The state is the bytes already written for its version, never serialized again
+        private void write(Result result) throws IOException {
+            operations.increment();
+            if (result.error() != null) {
+                failures.increment();
+            }
+            out.write(LINE);
+            out.write(Long.toString(result.line()).getBytes(StandardCharsets.US_ASCII));
+            if (result.gameId() != null) {
+                out.write(GAME_ID);
+                out.write(JsonStringEncoder.getInstance().quoteAsUTF8(result.gameId()));
+                out.write('"');
+            }
+            if (result.state() != null) {
+                out.write(STATE);
+                out.write(snapshots.of(result.state()).json());
+            }
+            if (result.error() != null) {
+                out.write(ERROR);
+                out.write(JsonStringEncoder.getInstance().quoteAsUTF8(result.error()));
+                out.write('"');
+            }
+            out.write(END);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.hawkeye.cardgame.service;
+
+import com.hawkeye.cardgame.model.GameState;
+
+/**
+ * Notified by GameService after a game changes. Calls come from inside the
+ * game's mailbox (or the starting thread for a new game), so the state is
+ * consistent but listeners must return quickly and must not keep it.
+ */
+public interface GameEventListener {
+
+    default void onGameStarted(GameState gameState) {}
+
+    // Also called for the guess that ends the game; check isGameOver()
+    default void onGuessResolved(GameState gameState) {}
+}
@@ -1,40 +1,132 @@
 package com.hawkeye.cardgame.service;
 
+import com.hawkeye.cardgame.diagnostics.GuessResolvedEvent;
+import com.hawkeye.cardgame.engine.Deck;
+import com.hawkeye.cardgame.engine.GameMailboxes;
 import com.hawkeye.cardgame.model.Card;
+import com.hawkeye.cardgame.model.GameMessage;
 import com.hawkeye.cardgame.model.GameState;
+import com.hawkeye.cardgame.store.GameStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.stereotype.Service;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class GameService {
 
-    private final Map<String, GameState> activeGames = new HashMap<>();
+    private final GameStore activeGames;
+    private final GameMailboxes mailboxes;
+    private final CardService cardService;
+    private final GameEventListener[] listeners;
+    private final Timer startTimer;
+    // Guesses are timed from submit to completion, so mailbox queueing is included
+    private final Timer guessTimer;
+    private final Timer failedGuessTimer;
+
+    public GameService(GameStore activeGames, GameMailboxes mailboxes, CardService cardService,
+                       List<GameEventListener> listeners, MeterRegistry meterRegistry) {
+        this.activeGames = activeGames;
+        this.mailboxes = mailboxes;
+        this.cardService = cardService;
+        this.listeners = listeners.toArray(new GameEventListener[0]);
+        this.startTimer = serviceTimer(meterRegistry, "start", "success");
+        this.guessTimer = serviceTimer(meterRegistry, "guess", "success");
+        this.failedGuessTimer = serviceTimer(meterRegistry, "guess", "error");
+    }
+
+    private static Timer serviceTimer(MeterRegistry registry, String operation, String outcome) {
+        return Timer.builder("game.service")
+                .description("Game engine calls")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
 
     public GameState startNewGame() {
-        String gameId = UUID.randomUUID().toString();
-        
-        Card currentCard = drawRandomCard();
-        Card nextCard = drawRandomCard();
+        return startNewGame(UUID.randomUUID().toString());
+    }
+
+    // Clustered nodes pick an id that hashes to themselves
+    public GameState startNewGame(String gameId) {
+        long started = System.nanoTime();
+        try {
+            return createGame(gameId);
+        } finally {
+            startTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private GameState createGame(String gameId) {
+        Deck deck = cardService.newDeck();
+        Card currentCard = deck.draw();
+        Card nextCard = deck.draw();
         
-        GameState gameState = new GameState(gameId, currentCard, nextCard, 0, false, "Game started! Make your guess.");
-        activeGames.put(gameId, gameState);
+        GameState gameState = new GameState(gameId, currentCard, nextCard, 0, false, null);
+        gameState.setMessageType(GameMessage.STARTED);
+        gameState.setVersion(1);
+        gameState.setDeck(deck);
+        activeGames.put(gameState);
+        for (GameEventListener listener : listeners) {
+            listener.onGameStarted(gameState);
+        }
         
-        return gameState;
+        return new GameState(gameState);
     }
 
-    
-    
     public GameState makeGuess(String gameId, String guess) {
-        GameState gameState = activeGames.get(gameId);
-        if (gameState == null) {
-            throw new IllegalArgumentException("Game not found: " + gameId);
-        }
+        return await(makeGuessAsync(gameId, guess));
+    }
 
-        if (gameState.isGameOver()) {
+    // Guesses for the same game are applied one at a time, in arrival order
+    public CompletableFuture<GameState> makeGuessAsync(String gameId, String guess) {
+        long started = System.nanoTime();
+        return mailboxes.submit(gameId, () -> applyGuess(gameId, guess, started))
+                .whenComplete((state, error) -> (error == null ? guessTimer : failedGuessTimer)
+                        .record(System.nanoTime() - started, TimeUnit.NANOSECONDS));
+    }
+
+    public GameState getGameState(String gameId) {
+        return await(getGameStateAsync(gameId));
+    }
+
+    public CompletableFuture<GameState> getGameStateAsync(String gameId) {
+        return mailboxes.submit(gameId, () -> new GameState(findGame(gameId)));
+    }
+
+    // Takes a game off this node so it can be handed to its new owner; unlike
+    // the copies handed out elsewhere the result keeps its deck
+    public GameState detach(String gameId) {
+        return await(mailboxes.submit(gameId, () -> activeGames.remove(gameId)));
+    }
+
+    // A game handed over by the node that owned it before the cluster changed
+    public void adopt(GameState gameState) {
+        await(mailboxes.submit(gameState.getGameId(), () -> {
+            activeGames.put(gameState);
+            for (GameEventListener listener : listeners) {
+                listener.onGameStarted(gameState);
+            }
             return gameState;
+        }));
+    }
+
+    // Only ever runs inside the game's mailbox
+    private GameState applyGuess(String gameId, String guess, long submitted) {
+        GuessResolvedEvent event = new GuessResolvedEvent();
+        event.begin();
+        long applying = System.nanoTime();
+        // The only read that draws from the deck, so the only one that needs it
+        GameState gameState = found(gameId, activeGames.getPlayable(gameId));
+
+        if (gameState.isGameOver()) {
+            return new GameState(gameState);
         }
 
         if (guess == null || (!guess.equalsIgnoreCase("higher") && !guess.equalsIgnoreCase("lower"))) {
@@ -54,47 +146,54 @@ public class GameService {
 
         if (isCorrect) {
             int newScore = gameState.getScore() + 1;
-            Card newNextCard = drawRandomCard();
+            Card newNextCard = gameState.getDeck().draw();
             // Update the existing game state instead of creating a new one
             gameState.setCurrentCard(nextCard);
             gameState.setNextCard(newNextCard);
             gameState.setScore(newScore);
-            gameState.setMessage("Correct! Your score: " + newScore);
+            gameState.setMessageType(GameMessage.CORRECT);
         } else {
             gameState.setGameOver(true);
-            gameState.setMessage("Game Over! Final score: " + gameState.getScore());
+            gameState.setMessageType(GameMessage.GAME_OVER);
         }
 
-        activeGames.put(gameId, gameState);
-        return gameState;
+        gameState.setVersion(gameState.getVersion() + 1);
+        activeGames.put(gameState);
+        for (GameEventListener listener : listeners) {
+            listener.onGuessResolved(gameState);
+        }
+        if (event.shouldCommit()) {
+            event.gameId = gameId;
+            event.guess = guess;
+            event.correct = isCorrect;
+            event.score = gameState.getScore();
+            event.gameOver = gameState.isGameOver();
+            event.queued = applying - submitted;
+            event.commit();
+        }
+        return new GameState(gameState);
     }
 
-    public GameState getGameState(String gameId) {
-        GameState gameState = activeGames.get(gameId);
+    private GameState findGame(String gameId) {
+        return found(gameId, activeGames.get(gameId));
+    }
+
+    private static GameState found(String gameId, GameState gameState) {
         if (gameState == null) {
             throw new IllegalArgumentException("Game not found: " + gameId);
         }
         return gameState;
     }
 
-    private Card drawRandomCard() {
-        String[] suits = {"HEARTS", "DIAMONDS", "CLUBS", "SPADES"};
-        String[] ranks = {"2", "3", "4", "5", "6", "7", "8", "9", "10", "J", "Q", "K", "A"};
-        
-        String suit = suits[(int) (Math.random() * suits.length)];
-        String rank = ranks[(int) (Math.random() * ranks.length)];
-        int value = getCardValue(rank);
-        
-        return new Card(suit, rank, value);
-    }
-
-    private int getCardValue(String rank) {
-        switch (rank) {
-            case "A": return 14;
-            case "K": return 13;
-            case "Q": return 12;
-            case "J": return 11;
-            default: return Integer.parseInt(rank);
+    // Blocking callers see the original exception rather than a CompletionException
+    private static GameState await(CompletableFuture<GameState> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,128 @@
+package com.hawkeye.cardgame.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.hawkeye.cardgame.model.GameSnapshot;
+import com.hawkeye.cardgame.model.GameState;
+import com.hawkeye.cardgame.model.JsonBytes;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Serializes each game version to JSON once, right after the change that
+ * produced it, and hangs the bytes off the state. GET /api/game/{id} answers
+ * from them (or with a 304 from the version alone), and full-protocol game
+ * updates splice them into the outgoing GestureMessage.
+ *
+ * The slab store keeps no objects per game, so there the bytes only live as
+ * long as the copy they were handed out with and a cold read serializes again.
+ */
+@Component
+public class GameSnapshots implements GameEventListener {
+
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter stateWriter;
+    // Versions restart at 1 after a restart without the journal, so tags carry the run
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    public GameSnapshots(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.stateWriter = objectMapper.writerFor(GameState.class);
+    }
+
+    @Override
+    public void onGameStarted(GameState gameState) {
+        gameState.setSnapshot(write(gameState));
+    }
+
+    @Override
+    public void onGuessResolved(GameState gameState) {
+        gameState.setSnapshot(write(gameState));
+    }
+
+    // The state's snapshot if it is for this version, otherwise a fresh one
+    public GameSnapshot of(GameState state) {
+        GameSnapshot snapshot = state.getSnapshot();
+        if (snapshot != null && snapshot.version() == state.getVersion()) {
+            return snapshot;
+        }
+        return write(state);
+    }
+
+    public String etag(int version) {
+        return "\"" + epoch + "." + version + "\"";
+    }
+
+    // SSE event id for a version; like the ETag it carries the run
+    public String eventId(int version) {
+        return epoch + "." + version;
+    }
+
+    // The version a Last-Event-ID names, or -1 if it is from another run or not ours
+    public int versionOf(String eventId) {
+        if (eventId == null || !eventId.startsWith(epoch + ".")) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(eventId.substring(epoch.length() + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // True when an If-None-Match header already names this tag
+    public boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag) || tag.equals("*")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A full GestureMessage for this session, built from the snapshot: the
+     * per-session fields are written as a small object whose closing brace is
+     * replaced by the snapshot's fields (gameId, cards, score, gameOver,
+     * message), so the game itself is never serialized again.
+     */
+    public JsonBytes gestureMessage(String sessionId, String gesture, long timestamp, GameSnapshot snapshot) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(96);
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.writeStartObject();
+            json.writeStringField("sessionId", sessionId);
+            json.writeStringField("gesture", gesture);
+            json.writeNumberField("timestamp", timestamp);
+            json.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        byte[] head = out.toByteArray();
+        byte[] game = snapshot.json();
+        // head without '}', a comma, then game without '{'
+        byte[] message = new byte[head.length + game.length - 1];
+        System.arraycopy(head, 0, message, 0, head.length - 1);
+        message[head.length - 1] = ',';
+        System.arraycopy(game, 1, message, head.length, game.length - 1);
+        return new JsonBytes(message);
+    }
+
+    private GameSnapshot write(GameState state) {
+        try {
+            return new GameSnapshot(state.getVersion(), stateWriter.writeValueAsBytes(state));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
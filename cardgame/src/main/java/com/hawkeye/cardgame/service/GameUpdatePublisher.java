@@ -0,0 +1,349 @@
+package com.hawkeye.cardgame.service;
+
+import com.hawkeye.cardgame.config.OutboundBacklogInterceptor;
+import com.hawkeye.cardgame.diagnostics.BroadcastSentEvent;
+import com.hawkeye.cardgame.model.GameDelta;
+import com.hawkeye.cardgame.model.GameMessage;
+import com.hawkeye.cardgame.model.GameSnapshot;
+import com.hawkeye.cardgame.model.GameState;
+import com.hawkeye.cardgame.model.GestureMessage;
+import com.hawkeye.cardgame.session.SessionListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends everything addressed to one gesture session. Game updates go out
+ * either as full GestureMessages on /topic/gesture/{sessionId}, or, for
+ * sessions that asked for the delta protocol, as sequenced GameDeltas on
+ * /topic/delta/{sessionId} holding only the fields that changed.
+ *
+ * Each registered session has an outbox, which counts the updates it has
+ * sent that have not yet been handed to the session's socket. The count
+ * is kept here rather than read off the outbound channel, because with
+ * publish order preserved Spring holds all but one of a session's messages
+ * in its own queue, out of the channel's sight. Once max-in-flight updates
+ * are unacknowledged, newer game updates are parked and only the latest
+ * one is kept; it is sent when the backlog drains. An outbox that hears
+ * nothing back for stall-timeout (an update sent with no subscriber is
+ * never handed over) starts counting afresh rather than park for good.
+ *
+ * Deltas are computed at send time, so a parked update still diffs against
+ * what the client last saw. Connection, error and other events are never
+ * conflated and always go out behind any parked update.
+ */
+@Service
+public class GameUpdatePublisher implements SessionListener {
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final OutboundBacklogInterceptor backlog;
+    private final GameSnapshots snapshots;
+    private final int maxInFlight;
+    private final long stallTimeoutNanos;
+
+    private final ConcurrentHashMap<String, Outbox> outboxes = new ConcurrentHashMap<>();
+    private final LongAdder conflated = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder stalled = new LongAdder();
+
+    public GameUpdatePublisher(SimpMessagingTemplate messagingTemplate,
+                               OutboundBacklogInterceptor sessionBacklog,
+                               GameSnapshots snapshots,
+                               @Value("${game.ws.max-in-flight:4}") int maxInFlight,
+                               @Value("${game.ws.stall-timeout-ms:30000}") long stallTimeoutMs) {
+        this.messagingTemplate = messagingTemplate;
+        this.backlog = sessionBacklog;
+        this.snapshots = snapshots;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.stallTimeoutNanos = Duration.ofMillis(stallTimeoutMs).toNanos();
+        sessionBacklog.onDrained(this::drained);
+    }
+
+    public void open(String sessionId, boolean deltas) {
+        outboxes.compute(sessionId, (id, existing) -> {
+            if (existing != null && existing.deltas() == deltas) {
+                return existing;
+            }
+            if (existing != null) {
+                existing.discard();
+            }
+            return new Outbox(id, deltas);
+        });
+    }
+
+    @Override
+    public void onSessionClosed(String sessionId) {
+        Outbox outbox = outboxes.remove(sessionId);
+        if (outbox != null) {
+            outbox.discard();
+        }
+    }
+
+    // Connection acknowledgements, errors and other one-off events
+    public void sendEvent(String sessionId, GestureMessage event) {
+        Outbox outbox = outboxes.get(sessionId);
+        if (outbox != null) {
+            outbox.sendEvent(event);
+        } else {
+            messagingTemplate.convertAndSend("/topic/gesture/" + sessionId, event);
+        }
+    }
+
+    public void publishGameUpdate(String sessionId, String gesture, GameState state, GameMessage messageOverride) {
+        Outbox outbox = outboxes.get(sessionId);
+        if (outbox != null) {
+            outbox.publish(new Update(gesture, state, messageOverride));
+        } else {
+            messagingTemplate.convertAndSend("/topic/gesture/" + sessionId,
+                    fullMessage(sessionId, new Update(gesture, state, messageOverride)));
+        }
+    }
+
+    // Re-sends the full state the session's deltas are relative to
+    public void resync(String sessionId) {
+        Outbox outbox = outboxes.get(sessionId);
+        if (outbox != null) {
+            outbox.resync();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("sessions", outboxes.size());
+        stats.put("maxInFlight", maxInFlight);
+        stats.put("conflated", conflated.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("stalled", stalled.sum());
+        stats.put("backloggedDestinations", backlog.trackedDestinations());
+
+        // Only sessions that have actually lagged, and not too many of them
+        Map<String, Object> lagging = new LinkedHashMap<>();
+        for (Outbox outbox : outboxes.values()) {
+            Map<String, Object> counts = outbox.stats();
+            if (counts != null) {
+                lagging.put(outbox.sessionId, counts);
+                if (lagging.size() == 100) {
+                    break;
+                }
+            }
+        }
+        stats.put("laggingSessions", lagging);
+        return stats;
+    }
+
+    private void drained(String destination) {
+        Outbox outbox = outboxes.get(destination.substring(destination.lastIndexOf('/') + 1));
+        if (outbox != null && outbox.updateDestination.equals(destination)) {
+            outbox.acknowledged();
+        }
+    }
+
+    // Reuses the version's snapshot unless the message text is overridden
+    private Object fullMessage(String sessionId, Update update) {
+        GameState state = update.state();
+        GameSnapshot snapshot = state.getSnapshot();
+        if (update.messageOverride() == null && snapshot != null && snapshot.version() == state.getVersion()) {
+            return snapshots.gestureMessage(sessionId, update.gesture(), System.currentTimeMillis(), snapshot);
+        }
+        GestureMessage response = new GestureMessage();
+        response.setSessionId(sessionId);
+        response.setGesture(update.gesture());
+        response.setGameId(state.getGameId());
+        response.setMessage(update.messageOverride() != null
+                ? update.messageOverride().format(state.getScore()) : state.getMessage());
+        response.setCurrentCard(state.getCurrentCard());
+        response.setNextCard(state.getNextCard());
+        response.setScore(state.getScore());
+        response.setGameOver(state.isGameOver());
+        return response;
+    }
+
+    private record Update(String gesture, GameState state, GameMessage messageOverride) {}
+
+    private final class Outbox {
+        final String sessionId;
+        final String eventDestination;
+        final String updateDestination;
+        // Only sessions using the delta protocol have one
+        private final DeltaStream deltaStream;
+
+        private Update parked;
+        // Sent to updateDestination and not yet handed to the socket
+        private int unacked;
+        private long lastProgress = System.nanoTime();
+        private long conflatedHere;
+        private long droppedHere;
+
+        Outbox(String sessionId, boolean deltas) {
+            this.sessionId = sessionId;
+            this.eventDestination = "/topic/gesture/" + sessionId;
+            this.updateDestination = deltas ? "/topic/delta/" + sessionId : eventDestination;
+            this.deltaStream = deltas ? new DeltaStream() : null;
+        }
+
+        boolean deltas() {
+            return deltaStream != null;
+        }
+
+        synchronized void publish(Update update) {
+            if (full()) {
+                if (parked != null) {
+                    conflatedHere++;
+                    conflated.increment();
+                }
+                parked = update;
+                return;
+            }
+            // Only left over when a stall was just written off, and this update is newer
+            if (parked != null) {
+                parked = null;
+                conflatedHere++;
+                conflated.increment();
+            }
+            send(update);
+        }
+
+        // One message to updateDestination reached the socket
+        synchronized void acknowledged() {
+            if (unacked > 0) {
+                unacked--;
+            }
+            lastProgress = System.nanoTime();
+            if (parked != null && !full()) {
+                Update update = parked;
+                parked = null;
+                send(update);
+            }
+        }
+
+        synchronized void sendEvent(GestureMessage event) {
+            if (parked != null) {
+                Update update = parked;
+                parked = null;
+                send(update);
+            }
+            if (eventDestination.equals(updateDestination)) {
+                sent();
+            }
+            messagingTemplate.convertAndSend(eventDestination, event);
+        }
+
+        synchronized void resync() {
+            if (deltaStream != null && deltaStream.snapshot(updateDestination)) {
+                sent();
+            }
+        }
+
+        private boolean full() {
+            if (unacked < maxInFlight) {
+                return false;
+            }
+            if (System.nanoTime() - lastProgress < stallTimeoutNanos) {
+                return true;
+            }
+            // Nothing handed over for a whole stall timeout, so those sends went nowhere
+            unacked = 0;
+            stalled.increment();
+            return false;
+        }
+
+        private void sent() {
+            if (unacked++ == 0) {
+                lastProgress = System.nanoTime();
+            }
+        }
+
+        synchronized void discard() {
+            if (parked != null) {
+                parked = null;
+                droppedHere++;
+                dropped.increment();
+            }
+        }
+
+        synchronized Map<String, Object> stats() {
+            if (conflatedHere == 0 && droppedHere == 0 && parked == null) {
+                return null;
+            }
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("inFlight", unacked);
+            stats.put("parked", parked != null);
+            stats.put("conflated", conflatedHere);
+            stats.put("dropped", droppedHere);
+            return stats;
+        }
+
+        private void send(Update update) {
+            BroadcastSentEvent event = new BroadcastSentEvent();
+            event.begin();
+            sent();
+            if (deltaStream != null) {
+                deltaStream.publish(updateDestination, update);
+            } else {
+                messagingTemplate.convertAndSend(updateDestination, fullMessage(sessionId, update));
+            }
+            if (event.shouldCommit()) {
+                event.sessionId = sessionId;
+                event.gameId = update.state().getGameId();
+                event.destination = updateDestination;
+                event.kind = deltaStream != null ? "delta" : "full";
+                event.commit();
+            }
+        }
+    }
+
+    // Guarded by the owning Outbox, which also keeps seq order equal to send order
+    private final class DeltaStream {
+        private long seq;
+        private String gameId;
+        private int current = -1;
+        private int next = -1;
+        private int score = -1;
+        private boolean gameOver;
+        private int message = -1;
+
+        void publish(String destination, Update update) {
+            GameState state = update.state();
+            GameMessage type = update.messageOverride() != null ? update.messageOverride()
+                    : state.getMessageType() != null ? state.getMessageType() : GameMessage.NONE;
+            int newMessage = type.id();
+            int newCurrent = state.getCurrentCard().code();
+            int newNext = state.getNextCard().code();
+
+            boolean newGame = !Objects.equals(gameId, state.getGameId());
+            GameDelta delta = new GameDelta(++seq, "delta", update.gesture(),
+                    newGame ? state.getGameId() : null,
+                    newGame || newCurrent != current ? newCurrent : null,
+                    newGame || newNext != next ? newNext : null,
+                    newGame || state.getScore() != score ? state.getScore() : null,
+                    newGame || state.isGameOver() != gameOver ? state.isGameOver() : null,
+                    newGame || newMessage != message ? newMessage : null);
+
+            gameId = state.getGameId();
+            current = newCurrent;
+            next = newNext;
+            score = state.getScore();
+            gameOver = state.isGameOver();
+            message = newMessage;
+
+            messagingTemplate.convertAndSend(destination, delta);
+        }
+
+        // False if there is nothing to resync to yet
+        boolean snapshot(String destination) {
+            if (gameId == null) {
+                return false;
+            }
+            messagingTemplate.convertAndSend(destination,
+                    new GameDelta(seq, "snapshot", null, gameId, current, next, score, gameOver, message));
+            return true;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.hawkeye.cardgame.service;
+
+import com.hawkeye.cardgame.session.SessionListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ingress check for gestures from the browser, run before any game logic.
+ * A gesture identical to the session's last accepted one inside the
+ * debounce window is suppressed; anything else must take a token from the
+ * session's bucket (rate per second, up to burst saved up) or is rejected.
+ *
+ * The bucket is kept as a single "theoretical arrival time" (GCRA), so a
+ * check is one CAS on an AtomicLong and takes no lock.
+ */
+@Component
+public class GestureGate implements SessionListener {
+
+    public enum Verdict { ACCEPTED, DEBOUNCED, REJECTED }
+
+    private final long debounceNanos;
+    private final long intervalNanos;
+    private final long burstNanos;
+
+    private final ConcurrentHashMap<String, SessionLimiter> sessions = new ConcurrentHashMap<>();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder debounced = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public GestureGate(@Value("${game.gesture.debounce-ms:1000}") long debounceMs,
+                       @Value("${game.gesture.rate-per-second:2}") double ratePerSecond,
+                       @Value("${game.gesture.burst:4}") int burst) {
+        this.debounceNanos = TimeUnit.MILLISECONDS.toNanos(debounceMs);
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+        this.burstNanos = intervalNanos * Math.max(0, burst - 1);
+    }
+
+    public Verdict check(String sessionId, String gesture) {
+        return check(sessionId, gesture, System.nanoTime());
+    }
+
+    Verdict check(String sessionId, String gesture, long now) {
+        SessionLimiter limiter = sessions.computeIfAbsent(sessionId, id -> new SessionLimiter(now));
+
+        LastGesture last = limiter.last.get();
+        if (last != null && Objects.equals(last.gesture(), gesture) && now - last.at() < debounceNanos) {
+            debounced.increment();
+            return Verdict.DEBOUNCED;
+        }
+
+        while (true) {
+            long tat = limiter.tat.get();
+            long start = Math.max(tat, now);
+            if (start - now > burstNanos) {
+                rejected.increment();
+                return Verdict.REJECTED;
+            }
+            if (limiter.tat.compareAndSet(tat, start + intervalNanos)) {
+                break;
+            }
+        }
+        limiter.last.set(new LastGesture(gesture, now));
+        accepted.increment();
+        return Verdict.ACCEPTED;
+    }
+
+    @Override
+    public void onSessionClosed(String sessionId) {
+        sessions.remove(sessionId);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("sessions", sessions.size());
+        stats.put("accepted", accepted.sum());
+        stats.put("debounced", debounced.sum());
+        stats.put("rejected", rejected.sum());
+        return stats;
+    }
+
+    private record LastGesture(String gesture, long at) {}
+
+    private static final class SessionLimiter {
+        final AtomicLong tat;
+        final AtomicReference<LastGesture> last = new AtomicReference<>();
+
+        SessionLimiter(long now) {
+            this.tat = new AtomicLong(now);
+        }
+    }
+}
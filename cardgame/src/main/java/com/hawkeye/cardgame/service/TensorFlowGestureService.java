@@ -1,28 +1,63 @@
 package com.hawkeye.cardgame.service;
 
+import com.hawkeye.cardgame.cluster.GameRouter;
+import com.hawkeye.cardgame.diagnostics.GestureReceivedEvent;
+import com.hawkeye.cardgame.diagnostics.SampledLogger;
+import com.hawkeye.cardgame.model.GameMessage;
 import com.hawkeye.cardgame.model.GestureMessage;
 import com.hawkeye.cardgame.model.GameState;
+import com.hawkeye.cardgame.session.SessionRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class TensorFlowGestureService {
 
+    private static final SampledLogger log = SampledLogger.of(TensorFlowGestureService.class, 50);
+
+    @Autowired
+    private GameUpdatePublisher publisher;
+
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;
+    private GestureGate gestureGate;
 
+    // Games may be owned by another node in clustered mode
     @Autowired
-    private GameService gameService; // ADD THIS
+    private GameRouter gameRouter;
+
+    @Autowired
+    private SessionRegistry sessionRegistry;
+
+    private Timer gestureLatency;
+    private Counter skewedTimestamps;
 
-    private Set<String> activeSessions = new HashSet<>();
+    // Client send to reply published, from the payload's epoch-millis timestamp.
+    // Only as accurate as the clocks agree, so implausible samples are counted
+    // rather than recorded
+    @Autowired
+    void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.gestureLatency = Timer.builder("game.gesture.latency")
+                .description("Gesture round trip from the client's timestamp to the reply being published")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(meterRegistry);
+        this.skewedTimestamps = Counter.builder("game.gesture.latency.skewed")
+                .description("Gesture timestamps ahead of the server clock or more than a minute old")
+                .register(meterRegistry);
+    }
 
-    public void registerSession(String sessionId) {
-        activeSessions.add(sessionId);
-        System.out.println("Session registered: " + sessionId);
+    public void registerSession(String sessionId, String protocol, String connectionId) {
+        sessionRegistry.register(sessionId, connectionId);
+        publisher.open(sessionId, "delta".equals(protocol));
+        log.info("Session registered: {}", sessionId);
         
         // Send confirmation to the client
         GestureMessage response = new GestureMessage();
@@ -30,128 +65,157 @@ public class TensorFlowGestureService {
         response.setGesture("connected");
         response.setMessage("WebSocket connection established");
         
-        messagingTemplate.convertAndSend("/topic/gesture/" + sessionId, response);
+        publisher.sendEvent(sessionId, response);
     }
 
     public void unregisterSession(String sessionId) {
-        activeSessions.remove(sessionId);
-        System.out.println(" Session unregistered: " + sessionId);
+        // Also drops the session's outbox and rate limiter, and releases its game
+        sessionRegistry.unregister(sessionId);
+        log.info("Session unregistered: {}", sessionId);
     }
 
-    public void processGestureFromFrontend(String sessionId, String gesture, String gameId) {
-        if (!activeSessions.contains(sessionId)) {
-            System.out.println("⚠ Unknown session: " + sessionId);
-            return;
+    public void resync(String sessionId) {
+        if (sessionRegistry.isActive(sessionId)) {
+            publisher.resync(sessionId);
         }
+    }
 
-        System.out.println(" Processing gesture: " + gesture + " for session: " + sessionId);
+    public void processGestureFromFrontend(String sessionId, String gesture, String gameId, Long clientTimestamp) {
+        GestureReceivedEvent event = new GestureReceivedEvent();
+        event.begin();
+        String verdict = dispatchGesture(sessionId, gesture, gameId, clientTimestamp);
+        if (event.shouldCommit()) {
+            event.sessionId = sessionId;
+            event.gameId = gameId;
+            event.gesture = gesture;
+            event.verdict = verdict;
+            event.commit();
+        }
+    }
+
+    private String dispatchGesture(String sessionId, String gesture, String gameId, Long clientTimestamp) {
+        if (!sessionRegistry.touch(sessionId)) {
+            log.warn("Unknown session: {}", sessionId);
+            return "UNKNOWN_SESSION";
+        }
+
+        // Only the classifier's three gestures mean anything; the rest is dropped
+        // before the gate so it cannot spend the session's tokens
+        if (!isKnown(gesture)) {
+            return "UNKNOWN_GESTURE";
+        }
+
+        // Repeats and floods are dropped here, before any logging or game logic.
+        // They get no reply, or a flood would cost one outbound frame per inbound
+        // one; the gate counts them instead
+        GestureGate.Verdict verdict = gestureGate.check(sessionId, gesture);
+        if (verdict != GestureGate.Verdict.ACCEPTED) {
+            return verdict.name();
+        }
+
+        log.debug("Processing gesture {} for session {}", gesture, sessionId);
 
         // 🎯 PROCESS GAME LOGIC IF WE HAVE A VALID GESTURE AND GAME
         if (gameId != null && !gameId.isEmpty()) {
             if ("higher".equals(gesture) || "lower".equals(gesture)) {
-                try {
-                    System.out.println("Processing game guess via gesture for game: " + gameId);
-                    
-                    // PROCESS THE ACTUAL GAME LOGIC
-                    GameState updatedGameState = gameService.makeGuess(gameId, gesture);
-                    
-                    // Create response with FULL GAME STATE
-                    GestureMessage response = new GestureMessage();
-                    response.setSessionId(sessionId);
-                    response.setGesture(gesture);
-                    response.setGameId(gameId);
-                    response.setMessage(updatedGameState.getMessage());
-                    
-                    // ADD THE CARD DATA
-                    response.setCurrentCard(updatedGameState.getCurrentCard());
-                    response.setNextCard(updatedGameState.getNextCard());
-                    response.setScore(updatedGameState.getScore());
-                    response.setGameOver(updatedGameState.isGameOver());
-                    
-                    // Send to the specific session
-                    messagingTemplate.convertAndSend("/topic/gesture/" + sessionId, response);
-                    
-                    System.out.println("✅ Game processed via gesture. Score: " + updatedGameState.getScore());
-                    
-                } catch (Exception e) {
-                    System.out.println(" Error processing gesture as game guess: " + e.getMessage());
-                    
-                    GestureMessage errorResponse = new GestureMessage();
-                    errorResponse.setSessionId(sessionId);
-                    errorResponse.setGesture("error");
-                    errorResponse.setMessage("Error: " + e.getMessage());
-                    messagingTemplate.convertAndSend("/topic/gesture/" + sessionId, errorResponse);
-                }
+                // PROCESS THE ACTUAL GAME LOGIC on the game's own mailbox, so a
+                // REST guess for the same game can't interleave with this one
+                gameRouter.makeGuessAsync(gameId, gesture, false).whenComplete((updatedGameState, error) -> {
+                    if (error != null) {
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null
+                                ? error.getCause() : error;
+                        log.warn("Error processing gesture as game guess: {}", cause.getMessage());
+
+                        GestureMessage errorResponse = new GestureMessage();
+                        errorResponse.setSessionId(sessionId);
+                        errorResponse.setGesture("error");
+                        errorResponse.setMessage("Error: " + cause.getMessage());
+                        publisher.sendEvent(sessionId, errorResponse);
+                        return;
+                    }
+
+                    // Only a game this session could actually play is bound to it
+                    sessionRegistry.bindGame(sessionId, gameId);
+
+                    // Full game state, or only what changed for delta sessions
+                    publisher.publishGameUpdate(sessionId, gesture, updatedGameState, null);
+                    recordLatency(clientTimestamp);
+                });
             } 
             // 🆕 HANDLE RESET GESTURE
             else if ("reset".equals(gesture)) {
                 try {
-                    System.out.println("Processing reset gesture for game: " + gameId);
-                    
                     // Start a new game
-                    GameState newGameState = gameService.startNewGame();
-                    
-                    // Create response with new game state
-                    GestureMessage response = new GestureMessage();
-                    response.setSessionId(sessionId);
-                    response.setGesture("reset");
-                    response.setGameId(newGameState.getGameId());
-                    response.setMessage("Game reset! New game started.");
-                    
-                    // ADD THE NEW CARD DATA
-                    response.setCurrentCard(newGameState.getCurrentCard());
-                    response.setNextCard(newGameState.getNextCard());
-                    response.setScore(newGameState.getScore());
-                    response.setGameOver(newGameState.isGameOver());
+                    GameState newGameState = gameRouter.startNewGame();
+                    sessionRegistry.bindGame(sessionId, newGameState.getGameId());
                     
-                    // Send to the specific session
-                    messagingTemplate.convertAndSend("/topic/gesture/" + sessionId, response);
+                    // Send the new game state to the specific session
+                    publisher.publishGameUpdate(sessionId, "reset", newGameState, GameMessage.RESET);
+                    recordLatency(clientTimestamp);
                     
-                    System.out.println(" Game reset via gesture. New game ID: " + newGameState.getGameId());
+                    log.debug("Game reset via gesture, new game {}", newGameState.getGameId());
                     
                 } catch (Exception e) {
-                    System.out.println(" Error resetting game via gesture: " + e.getMessage());
+                    log.warn("Error resetting game via gesture: {}", e.getMessage());
                     
                     GestureMessage errorResponse = new GestureMessage();
                     errorResponse.setSessionId(sessionId);
                     errorResponse.setGesture("error");
                     errorResponse.setMessage("Error resetting game: " + e.getMessage());
-                    messagingTemplate.convertAndSend("/topic/gesture/" + sessionId, errorResponse);
+                    publisher.sendEvent(sessionId, errorResponse);
                 }
             }
         } else {
-            // Just send gesture confirmation (no game involved or invalid gesture)
+            // Just send gesture confirmation (no game involved)
             GestureMessage response = new GestureMessage();
             response.setSessionId(sessionId);
             response.setGesture(gesture);
             response.setGameId(gameId);
             response.setMessage("Gesture detected: " + gesture);
             
-            messagingTemplate.convertAndSend("/topic/gesture/" + sessionId, response);
+            publisher.sendEvent(sessionId, response);
+            recordLatency(clientTimestamp);
+        }
+        return verdict.name();
+    }
+
+    private static boolean isKnown(String gesture) {
+        return "higher".equals(gesture) || "lower".equals(gesture) || "reset".equals(gesture);
+    }
+
+    void recordLatency(Long clientTimestamp) {
+        if (clientTimestamp == null) {
+            return;
+        }
+        long millis = System.currentTimeMillis() - clientTimestamp;
+        if (millis < 0 || millis > 60_000) {
+            skewedTimestamps.increment();
+            return;
         }
+        gestureLatency.record(millis, TimeUnit.MILLISECONDS);
     }
 
     public void startRecognition(String sessionId, int cameraIndex) {
-        if (activeSessions.contains(sessionId)) {
+        if (sessionRegistry.isActive(sessionId)) {
             GestureMessage response = new GestureMessage();
             response.setSessionId(sessionId);
             response.setGesture("started");
             response.setMessage("Gesture recognition started with camera " + cameraIndex);
             
-            messagingTemplate.convertAndSend("/topic/gesture/" + sessionId, response);
-            System.out.println(" Gesture recognition started for session: " + sessionId);
+            publisher.sendEvent(sessionId, response);
+            log.info("Gesture recognition started for session: {}", sessionId);
         }
     }
 
     public void stopRecognition(String sessionId) {
-        if (activeSessions.contains(sessionId)) {
+        if (sessionRegistry.isActive(sessionId)) {
             GestureMessage response = new GestureMessage();
             response.setSessionId(sessionId);
             response.setGesture("stopped");
             response.setMessage("Gesture recognition stopped");
             
-            messagingTemplate.convertAndSend("/topic/gesture/" + sessionId, response);
-            System.out.println(" Gesture recognition stopped for session: " + sessionId);
+            publisher.sendEvent(sessionId, response);
+            log.info("Gesture recognition stopped for session: {}", sessionId);
         }
     }
 }
\ No newline at end of file
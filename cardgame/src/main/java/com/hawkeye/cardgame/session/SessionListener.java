@@ -0,0 +1,11 @@
+package com.hawkeye.cardgame.session;
+
+/**
+ * Told when a gesture session goes away, whether it unregistered, its
+ * connection dropped or it sat idle too long, so per-session state can be
+ * released.
+ */
+public interface SessionListener {
+
+    void onSessionClosed(String sessionId);
+}
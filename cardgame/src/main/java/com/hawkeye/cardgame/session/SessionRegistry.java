@@ -0,0 +1,230 @@
+package com.hawkeye.cardgame.session;
+
+import com.hawkeye.cardgame.cluster.GameRouter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionConnectEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * The gesture sessions that are currently registered, which STOMP
+ * connection each one arrived on, and which game it is playing.
+ *
+ * A session ends when the client unregisters, when its connection closes
+ * (including connections the broker drops after missed heartbeats), or
+ * when it has not sent anything for the idle timeout. Its game is then
+ * released to the store so it expires early rather than after the full
+ * idle TTL, and every SessionListener is told. In a cluster the release
+ * goes through GameRouter to the node that owns the game.
+ *
+ * Game ids come from clients, so several sessions may be bound to one
+ * game; it is only released when the last of them leaves it.
+ */
+@Component
+public class SessionRegistry {
+
+    private final Consumer<String> release;
+    private final SessionListener[] listeners;
+    private final long idleTimeoutNanos;
+
+    private final ConcurrentHashMap<String, GestureSession> sessions = new ConcurrentHashMap<>();
+    // STOMP session id -> gesture sessions registered over that connection
+    private final ConcurrentHashMap<String, Set<String>> byConnection = new ConcurrentHashMap<>();
+    // Game id -> number of sessions bound to it
+    private final ConcurrentHashMap<String, Integer> boundGames = new ConcurrentHashMap<>();
+
+    private final LongAdder unregistered = new LongAdder();
+    private final LongAdder disconnected = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+
+    @Autowired
+    public SessionRegistry(GameRouter gameRouter,
+                           List<SessionListener> listeners,
+                           @Value("${game.session.idle-timeout:30m}") Duration idleTimeout) {
+        this(gameId -> gameRouter.release(gameId, false), listeners, idleTimeout);
+    }
+
+    SessionRegistry(Consumer<String> release, List<SessionListener> listeners, Duration idleTimeout) {
+        this.release = release;
+        this.listeners = listeners.toArray(new SessionListener[0]);
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+    }
+
+    @EventListener
+    public void onConnect(SessionConnectEvent event) {
+        String connectionId = SimpMessageHeaderAccessor.getSessionId(event.getMessage().getHeaders());
+        if (connectionId != null) {
+            byConnection.computeIfAbsent(connectionId, id -> ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        Set<String> sessionIds = byConnection.remove(event.getSessionId());
+        if (sessionIds != null) {
+            for (String sessionId : sessionIds) {
+                if (close(sessionId)) {
+                    disconnected.increment();
+                }
+            }
+        }
+    }
+
+    public void register(String sessionId, String connectionId) {
+        GestureSession[] replaced = new GestureSession[1];
+        sessions.compute(sessionId, (id, existing) -> {
+            replaced[0] = existing;
+            // Re-registering keeps the game binding, which moves over to the new entry
+            return new GestureSession(connectionId, existing != null ? existing.retire() : null);
+        });
+        GestureSession previous = replaced[0];
+        if (previous != null && previous.connectionId != null && !previous.connectionId.equals(connectionId)) {
+            // Same client on a new connection; the old one may not have closed yet
+            Set<String> old = byConnection.get(previous.connectionId);
+            if (old != null) {
+                old.remove(sessionId);
+            }
+        }
+        if (connectionId != null) {
+            byConnection.computeIfAbsent(connectionId, id -> ConcurrentHashMap.newKeySet()).add(sessionId);
+        }
+    }
+
+    public void unregister(String sessionId) {
+        if (close(sessionId)) {
+            unregistered.increment();
+        }
+    }
+
+    public boolean isActive(String sessionId) {
+        return sessions.containsKey(sessionId);
+    }
+
+    // Membership check for each gesture; also keeps the session from idling out
+    public boolean touch(String sessionId) {
+        GestureSession session = sessions.get(sessionId);
+        if (session == null) {
+            return false;
+        }
+        session.lastSeen = System.nanoTime();
+        return true;
+    }
+
+    public void bindGame(String sessionId, String gameId) {
+        GestureSession session = sessions.get(sessionId);
+        if (session == null) {
+            return;
+        }
+        String previous;
+        synchronized (session) {
+            if (session.retired || gameId.equals(session.gameId)) {
+                return;
+            }
+            previous = session.gameId;
+            session.gameId = gameId;
+            // Counted before the lock is let go, so a close right after sees it
+            boundGames.merge(gameId, 1, Integer::sum);
+        }
+        if (previous != null) {
+            unbind(previous);
+        }
+    }
+
+    // Released here, inside the count's update, so a session binding it meanwhile waits
+    private void unbind(String gameId) {
+        boundGames.computeIfPresent(gameId, (id, count) -> {
+            if (count > 1) {
+                return count - 1;
+            }
+            release.accept(gameId);
+            return null;
+        });
+    }
+
+    public String gameOf(String sessionId) {
+        GestureSession session = sessions.get(sessionId);
+        return session != null ? session.gameId : null;
+    }
+
+    public int activeSessions() {
+        return sessions.size();
+    }
+
+    public int connections() {
+        return byConnection.size();
+    }
+
+    @Scheduled(fixedDelayString = "${game.session.sweep-interval-ms:60000}")
+    public void expireIdle() {
+        long now = System.nanoTime();
+        for (Map.Entry<String, GestureSession> entry : sessions.entrySet()) {
+            if (now - entry.getValue().lastSeen >= idleTimeoutNanos && close(entry.getKey())) {
+                expired.increment();
+            }
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("sessions", sessions.size());
+        stats.put("connections", byConnection.size());
+        stats.put("boundGames", boundGames.size());
+        stats.put("unregistered", unregistered.sum());
+        stats.put("disconnected", disconnected.sum());
+        stats.put("expired", expired.sum());
+        return stats;
+    }
+
+    private boolean close(String sessionId) {
+        GestureSession session = sessions.remove(sessionId);
+        if (session == null) {
+            return false;
+        }
+        if (session.connectionId != null) {
+            Set<String> siblings = byConnection.get(session.connectionId);
+            if (siblings != null) {
+                siblings.remove(sessionId);
+            }
+        }
+        String gameId = session.retire();
+        if (gameId != null) {
+            unbind(gameId);
+        }
+        for (SessionListener listener : listeners) {
+            listener.onSessionClosed(sessionId);
+        }
+        return true;
+    }
+
+    private static final class GestureSession {
+        final String connectionId;
+        // Written under the session's lock
+        volatile String gameId;
+        boolean retired;
+        volatile long lastSeen = System.nanoTime();
+
+        GestureSession(String connectionId, String gameId) {
+            this.connectionId = connectionId;
+            this.gameId = gameId;
+        }
+
+        // Takes the binding away from this entry, which won't bind again
+        synchronized String retire() {
+            retired = true;
+            return gameId;
+        }
+    }
+}
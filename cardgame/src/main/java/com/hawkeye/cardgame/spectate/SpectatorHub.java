@@ -0,0 +1,352 @@
+package com.hawkeye.cardgame.spectate;
+
+import com.hawkeye.cardgame.model.GameState;
+import com.hawkeye.cardgame.model.JsonBytes;
+import com.hawkeye.cardgame.service.GameEventListener;
+import com.hawkeye.cardgame.service.GameSnapshots;
+import com.hawkeye.cardgame.store.GameStore;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Spectators of a game subscribe to /topic/spectate/{gameId}, optionally
+ * with a drop-policy header of latest (the default) or skip.
+ *
+ * Each game version is already serialized once by GameSnapshots, and that
+ * one byte[] is the payload of every viewer's message: only the STOMP
+ * headers differ per viewer. The simple broker would do the same for a
+ * plain topic, but could not slow down one viewer without slowing the
+ * rest, so viewers are sent to directly on the client outbound channel.
+ *
+ * A game's viewers are dealt round-robin onto fanout shards, each a single
+ * thread, so a big audience is sent to in parallel while any one viewer's
+ * updates stay in order. A viewer with max-in-flight messages not yet on
+ * its socket is behind, and its drop policy decides what happens to new
+ * updates until it catches up.
+ *
+ * In clustered mode the game's owner publishes each update once to the
+ * relayed topic instead, and the external broker does the fanout.
+ */
+@Component
+public class SpectatorHub implements GameEventListener, ExecutorChannelInterceptor, DisposableBean {
+
+    public static final String DESTINATION_PREFIX = "/topic/spectate/";
+    public static final String DROP_POLICY_HEADER = "drop-policy";
+
+    private final GameStore gameStore;
+    private final GameSnapshots snapshots;
+    private final MessageChannel clientOutboundChannel;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final boolean clustered;
+    private final int maxInFlight;
+
+    private final ExecutorService[] shards;
+    private final ConcurrentHashMap<String, Audience> audiences = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Viewer> viewers = new ConcurrentHashMap<>();
+    // STOMP session id -> its spectate subscriptions
+    private final ConcurrentHashMap<String, Set<Viewer>> byConnection = new ConcurrentHashMap<>();
+
+    private final LongAdder updates = new LongAdder();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder conflated = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+
+    public SpectatorHub(GameStore gameStore,
+                        GameSnapshots snapshots,
+                        @Lazy @Qualifier("clientOutboundChannel") MessageChannel clientOutboundChannel,
+                        @Lazy SimpMessagingTemplate messagingTemplate,
+                        @Value("${game.cluster.enabled:false}") boolean clustered,
+                        @Value("${game.spectate.fanout-threads:0}") int fanoutThreads,
+                        @Value("${game.spectate.max-in-flight:1}") int maxInFlight) {
+        this.gameStore = gameStore;
+        this.snapshots = snapshots;
+        this.clientOutboundChannel = clientOutboundChannel;
+        this.messagingTemplate = messagingTemplate;
+        this.clustered = clustered;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        int threads = fanoutThreads > 0 ? fanoutThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.shards = new ExecutorService[threads];
+        for (int i = 0; i < threads; i++) {
+            String name = "spectate-fanout-" + (i + 1);
+            shards[i] = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, name);
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    @Override
+    public void onGameStarted(GameState gameState) {
+        broadcast(gameState);
+    }
+
+    @Override
+    public void onGuessResolved(GameState gameState) {
+        broadcast(gameState);
+    }
+
+    private void broadcast(GameState gameState) {
+        if (clustered) {
+            // Viewers may be on any node, so there is no local audience to check
+            messagingTemplate.convertAndSend(DESTINATION_PREFIX + gameState.getGameId(),
+                    new JsonBytes(snapshots.of(gameState).json()));
+            return;
+        }
+        Audience audience = audiences.get(gameState.getGameId());
+        if (audience != null) {
+            broadcast(audience, snapshots.of(gameState).json());
+        }
+    }
+
+    // One task per shard with viewers of this game; every task shares the payload
+    private void broadcast(Audience audience, byte[] payload) {
+        updates.increment();
+        audience.latest = payload;
+        for (int shard = 0; shard < shards.length; shard++) {
+            Set<Viewer> watching = audience.byShard[shard];
+            if (!watching.isEmpty()) {
+                execute(shard, () -> {
+                    for (Viewer viewer : watching) {
+                        offer(viewer, payload);
+                    }
+                });
+            }
+        }
+    }
+
+    private void offer(Viewer viewer, byte[] payload) {
+        switch (viewer.offer(payload, maxInFlight)) {
+            case SEND -> send(viewer, payload);
+            case REPLACED -> conflated.increment();
+            case DROPPED -> skipped.increment();
+            case PARKED -> {}
+        }
+    }
+
+    private void send(Viewer viewer, byte[] payload) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setSessionId(viewer.connectionId);
+        headers.setSubscriptionId(viewer.subscriptionId);
+        headers.setDestination(viewer.destination);
+        headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        headers.setLeaveMutable(true);
+        clientOutboundChannel.send(MessageBuilder.createMessage(payload, headers.getMessageHeaders()));
+        sent.increment();
+    }
+
+    private void execute(int shard, Runnable task) {
+        try {
+            shards[shard].execute(task);
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+        }
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor headers = StompHeaderAccessor.wrap(event.getMessage());
+        String destination = headers.getDestination();
+        if (clustered || destination == null || !destination.startsWith(DESTINATION_PREFIX)) {
+            return;
+        }
+        subscribe(headers.getSessionId(), headers.getSubscriptionId(), destination.substring(DESTINATION_PREFIX.length()),
+                headers.getFirstNativeHeader(DROP_POLICY_HEADER));
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor headers = StompHeaderAccessor.wrap(event.getMessage());
+        unsubscribe(headers.getSessionId(), headers.getSubscriptionId());
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        Set<Viewer> subscriptions = byConnection.remove(event.getSessionId());
+        if (subscriptions != null) {
+            for (Viewer viewer : subscriptions) {
+                unsubscribe(viewer.connectionId, viewer.subscriptionId);
+            }
+        }
+    }
+
+    public void subscribe(String connectionId, String subscriptionId, String gameId, String dropPolicy) {
+        if (connectionId == null || subscriptionId == null || gameId.isEmpty()) {
+            return;
+        }
+        Audience audience = audiences.computeIfAbsent(gameId, id -> new Audience(shards.length));
+        Viewer viewer = new Viewer(connectionId, subscriptionId, DESTINATION_PREFIX + gameId,
+                Viewer.DropPolicy.parse(dropPolicy), audience.nextShard());
+        // Findable by its completions before the first update can reach it
+        Viewer replaced = viewers.put(Viewer.key(connectionId, subscriptionId), viewer);
+        if (replaced != null) {
+            remove(replaced);
+        }
+        byConnection.computeIfAbsent(connectionId, id -> ConcurrentHashMap.newKeySet()).add(viewer);
+        while (!audience.join(viewer, audiences, gameId)) {
+            // Emptied and dropped while we were joining
+            audience = audiences.computeIfAbsent(gameId, id -> new Audience(shards.length));
+        }
+
+        // Show the game as it stands rather than waiting for the next guess
+        byte[] current = audience.latest;
+        if (current == null) {
+            GameState state = gameStore.get(gameId);
+            current = state != null ? snapshots.of(state).json() : null;
+        }
+        if (current != null) {
+            byte[] payload = current;
+            execute(viewer.shard, () -> offer(viewer, payload));
+        }
+    }
+
+    public void unsubscribe(String connectionId, String subscriptionId) {
+        Viewer viewer = viewers.remove(Viewer.key(connectionId, subscriptionId));
+        if (viewer != null) {
+            remove(viewer);
+        }
+    }
+
+    private void remove(Viewer viewer) {
+        viewer.close();
+        Set<Viewer> subscriptions = byConnection.get(viewer.connectionId);
+        if (subscriptions != null) {
+            subscriptions.remove(viewer);
+        }
+        String gameId = viewer.destination.substring(DESTINATION_PREFIX.length());
+        Audience audience = audiences.get(gameId);
+        if (audience != null) {
+            audience.leave(viewer, audiences, gameId);
+        }
+    }
+
+    public int viewers(String gameId) {
+        Audience audience = audiences.get(gameId);
+        return audience != null ? audience.size() : 0;
+    }
+
+    @Override
+    public void afterSendCompletion(Message<?> message, MessageChannel channel, boolean sent, Exception ex) {
+        // Rejected by the executor, so afterMessageHandled will never run for it
+        if (ex != null) {
+            completed(message);
+        }
+    }
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+        completed(message);
+    }
+
+    private void completed(Message<?> message) {
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        if (destination == null || !destination.startsWith(DESTINATION_PREFIX)) {
+            return;
+        }
+        Viewer viewer = viewers.get(Viewer.key(SimpMessageHeaderAccessor.getSessionId(message.getHeaders()),
+                SimpMessageHeaderAccessor.getSubscriptionId(message.getHeaders())));
+        if (viewer != null && viewer.completed()) {
+            execute(viewer.shard, () -> {
+                byte[] payload = viewer.takeParked(maxInFlight);
+                if (payload != null) {
+                    send(viewer, payload);
+                }
+            });
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("games", audiences.size());
+        stats.put("viewers", viewers.size());
+        stats.put("fanoutThreads", shards.length);
+        stats.put("maxInFlight", maxInFlight);
+        stats.put("updates", updates.sum());
+        stats.put("sent", sent.sum());
+        stats.put("conflated", conflated.sum());
+        stats.put("skipped", skipped.sum());
+        return stats;
+    }
+
+    @Override
+    public void destroy() {
+        for (ExecutorService shard : shards) {
+            shard.shutdownNow();
+        }
+    }
+
+    // Everyone watching one game, split by fanout shard
+    static final class Audience {
+        final Set<Viewer>[] byShard;
+        private final AtomicInteger joined = new AtomicInteger();
+        // Newest payload, sent to viewers as they join
+        volatile byte[] latest;
+
+        @SuppressWarnings("unchecked")
+        Audience(int shards) {
+            byShard = new Set[shards];
+            for (int i = 0; i < shards; i++) {
+                byShard[i] = ConcurrentHashMap.newKeySet();
+            }
+        }
+
+        // False if this audience emptied out and was dropped from the map first
+        synchronized boolean join(Viewer viewer, Map<String, Audience> audiences, String gameId) {
+            if (audiences.get(gameId) != this) {
+                return false;
+            }
+            byShard[viewer.shard].add(viewer);
+            return true;
+        }
+
+        synchronized void leave(Viewer viewer, Map<String, Audience> audiences, String gameId) {
+            byShard[viewer.shard].remove(viewer);
+            if (isEmpty()) {
+                audiences.remove(gameId, this);
+            }
+        }
+
+        int nextShard() {
+            return Math.floorMod(joined.getAndIncrement(), byShard.length);
+        }
+
+        boolean isEmpty() {
+            return size() == 0;
+        }
+
+        int size() {
+            int size = 0;
+            for (Set<Viewer> watching : byShard) {
+                size += watching.size();
+            }
+            return size;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.hawkeye.cardgame.spectate;
+
+/**
+ * One STOMP subscription to a game's spectate topic. Every payload for it
+ * is handed over by its shard's fanout thread, so sends stay in order;
+ * only the completion count comes back from the outbound threads.
+ */
+final class Viewer {
+
+    // Picked per subscription with a drop-policy header
+    enum DropPolicy {
+        // Keep only the newest update while the viewer is behind, send it on catch-up
+        LATEST,
+        // Skip updates while the viewer is behind; the next one that fits carries the full state
+        SKIP;
+
+        static DropPolicy parse(String header) {
+            return "skip".equalsIgnoreCase(header) ? SKIP : LATEST;
+        }
+    }
+
+    final String connectionId;
+    final String subscriptionId;
+    final String destination;
+    final DropPolicy policy;
+    final int shard;
+
+    private int inFlight;
+    private byte[] parked;
+    private boolean closed;
+
+    Viewer(String connectionId, String subscriptionId, String destination, DropPolicy policy, int shard) {
+        this.connectionId = connectionId;
+        this.subscriptionId = subscriptionId;
+        this.destination = destination;
+        this.policy = policy;
+        this.shard = shard;
+    }
+
+    static String key(String connectionId, String subscriptionId) {
+        return connectionId + ':' + subscriptionId;
+    }
+
+    enum Offer { SEND, PARKED, REPLACED, DROPPED }
+
+    synchronized Offer offer(byte[] payload, int maxInFlight) {
+        if (closed) {
+            return Offer.DROPPED;
+        }
+        if (inFlight < maxInFlight) {
+            inFlight++;
+            return Offer.SEND;
+        }
+        if (policy == DropPolicy.SKIP) {
+            return Offer.DROPPED;
+        }
+        Offer result = parked != null ? Offer.REPLACED : Offer.PARKED;
+        parked = payload;
+        return result;
+    }
+
+    // A send reached the socket; true if a parked update is now waiting to go
+    synchronized boolean completed() {
+        if (inFlight > 0) {
+            inFlight--;
+        }
+        return parked != null && !closed;
+    }
+
+    // The parked update, if there is room for it now
+    synchronized byte[] takeParked(int maxInFlight) {
+        if (parked == null || closed || inFlight >= maxInFlight) {
+            return null;
+        }
+        byte[] payload = parked;
+        parked = null;
+        inFlight++;
+        return payload;
+    }
+
+    synchronized void close() {
+        closed = true;
+        parked = null;
+    }
+}
@@ -0,0 +1,17 @@
+package com.hawkeye.cardgame.store;
+
+/**
+ * Memory used by a game store. Per-game figures are what one more open
+ * game costs; reserved bytes is what the store is holding right now.
+ */
+public record FootprintReport(
+        String store,
+        int games,
+        long heapBytesPerGame,
+        long offHeapBytesPerGame,
+        long reservedOffHeapBytes) {
+
+    public long bytesPerGame() {
+        return heapBytesPerGame + offHeapBytesPerGame;
+    }
+}
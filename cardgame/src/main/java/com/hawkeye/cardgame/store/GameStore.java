@@ -0,0 +1,45 @@
+package com.hawkeye.cardgame.store;
+
+import com.hawkeye.cardgame.model.GameState;
+
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Holds the games that are currently in play, keyed by game id.
+ * Implementations must be safe to call from any request or message thread.
+ */
+public interface GameStore {
+
+    GameState get(String gameId);
+
+    // Like get, but the result also carries the game's deck so a guess can
+    // draw from it; stores that keep the deck packed only unpack it here
+    default GameState getPlayable(String gameId) {
+        return get(gameId);
+    }
+
+    void put(GameState gameState);
+
+    GameState remove(String gameId);
+
+    // Nobody is playing the game any more: let it expire within the game-over
+    // TTL unless it is touched again
+    void release(String gameId);
+
+    int size();
+
+    // Weakly consistent walk over every stored game, e.g. for snapshots
+    void forEach(Consumer<GameState> action);
+
+    long evictionCount();
+
+    // Drops games that have been idle longer than their TTL
+    void evictExpired();
+
+    FootprintReport footprint();
+
+    // Told the id of every game that leaves the store, removed or evicted.
+    // Runs under the store's lock, so it must be quick and must not call back in.
+    void setRemovalListener(Consumer<UUID> listener);
+}
@@ -0,0 +1,19 @@
+package com.hawkeye.cardgame.store;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class GameStoreSweeper {
+
+    private final GameStore gameStore;
+
+    public GameStoreSweeper(GameStore gameStore) {
+        this.gameStore = gameStore;
+    }
+
+    @Scheduled(fixedDelayString = "${game.store.sweep-interval-ms:30000}")
+    public void evictExpiredGames() {
+        gameStore.evictExpired();
+    }
+}
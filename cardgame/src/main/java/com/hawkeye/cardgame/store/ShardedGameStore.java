@@ -0,0 +1,228 @@
+package com.hawkeye.cardgame.store;
+
+import com.hawkeye.cardgame.model.GameState;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * In-memory game store split into lock-striped shards. Each shard is an
+ * access-ordered map so the least recently used game is evicted first once
+ * the shard is full. Finished games use a shorter idle TTL than live ones.
+ */
+public class ShardedGameStore implements GameStore {
+
+    // Rough retained size of one game: map node and entry, GameState, id
+    // string, deck and its code array. Cards are shared and not counted.
+    private static final long HEAP_BYTES_PER_GAME = 48 + 24 + 48 + 96 + 24 + 72;
+
+    private final Shard[] shards;
+    private final int shardMask;
+    private final int maxPerShard;
+    private final long idleTtlNanos;
+    private final long gameOverTtlNanos;
+
+    private final AtomicInteger size = new AtomicInteger();
+    private final LongAdder evictions = new LongAdder();
+    private volatile Consumer<UUID> removalListener;
+
+    public ShardedGameStore(int shardCount, int maxSize, Duration idleTtl, Duration gameOverTtl) {
+        if (shardCount <= 0 || maxSize <= 0) {
+            throw new IllegalArgumentException("shardCount and maxSize must be positive");
+        }
+        // Round up to a power of two so the shard index is a mask, not a modulo
+        int n = Integer.highestOneBit(shardCount - 1) << 1;
+        if (n <= 0) n = 1;
+
+        this.shards = new Shard[n];
+        for (int i = 0; i < n; i++) {
+            shards[i] = new Shard();
+        }
+        this.shardMask = n - 1;
+        this.maxPerShard = Math.max(1, maxSize / n);
+        this.idleTtlNanos = idleTtl.toNanos();
+        this.gameOverTtlNanos = gameOverTtl.toNanos();
+    }
+
+    @Override
+    public GameState get(String gameId) {
+        Shard shard = shardFor(gameId);
+        long now = System.nanoTime();
+        shard.lock.lock();
+        try {
+            Entry entry = shard.games.get(gameId);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt - now <= 0) {
+                shard.games.remove(gameId);
+                removed(entry);
+                size.decrementAndGet();
+                evictions.increment();
+                return null;
+            }
+            entry.expiresAt = now + ttlFor(entry.state);
+            return entry.state;
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    @Override
+    public void put(GameState gameState) {
+        Shard shard = shardFor(gameState.getGameId());
+        long expiresAt = System.nanoTime() + ttlFor(gameState);
+        shard.lock.lock();
+        try {
+            Entry previous = shard.games.put(gameState.getGameId(), new Entry(gameState, expiresAt));
+            if (previous == null) {
+                size.incrementAndGet();
+                // Capacity eviction: drop the least recently used games in this shard
+                Iterator<Entry> eldest = shard.games.values().iterator();
+                while (shard.games.size() > maxPerShard && eldest.hasNext()) {
+                    Entry evicted = eldest.next();
+                    eldest.remove();
+                    removed(evicted);
+                    size.decrementAndGet();
+                    evictions.increment();
+                }
+            }
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    @Override
+    public GameState remove(String gameId) {
+        Shard shard = shardFor(gameId);
+        shard.lock.lock();
+        try {
+            Entry removed = shard.games.remove(gameId);
+            if (removed == null) {
+                return null;
+            }
+            removed(removed);
+            size.decrementAndGet();
+            return removed.state;
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    @Override
+    public void release(String gameId) {
+        Shard shard = shardFor(gameId);
+        long releasedExpiry = System.nanoTime() + gameOverTtlNanos;
+        shard.lock.lock();
+        try {
+            Entry entry = shard.games.get(gameId);
+            if (entry != null && entry.expiresAt - releasedExpiry > 0) {
+                entry.expiresAt = releasedExpiry;
+            }
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    @Override
+    public void forEach(Consumer<GameState> action) {
+        List<GameState> batch = new ArrayList<>();
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                for (Entry entry : shard.games.values()) {
+                    batch.add(entry.state);
+                }
+            } finally {
+                shard.lock.unlock();
+            }
+            // Run the action outside the shard lock
+            batch.forEach(action);
+            batch.clear();
+        }
+    }
+
+    @Override
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    @Override
+    public FootprintReport footprint() {
+        return new FootprintReport("sharded", size(), HEAP_BYTES_PER_GAME, 0, 0);
+    }
+
+    @Override
+    public void evictExpired() {
+        // One shard at a time so lookups on the other shards are never blocked
+        for (Shard shard : shards) {
+            long now = System.nanoTime();
+            shard.lock.lock();
+            try {
+                Iterator<Entry> it = shard.games.values().iterator();
+                while (it.hasNext()) {
+                    Entry entry = it.next();
+                    if (entry.expiresAt - now <= 0) {
+                        it.remove();
+                        removed(entry);
+                        size.decrementAndGet();
+                        evictions.increment();
+                    }
+                }
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void setRemovalListener(Consumer<UUID> listener) {
+        this.removalListener = listener;
+    }
+
+    private void removed(Entry entry) {
+        Consumer<UUID> listener = removalListener;
+        if (listener != null) {
+            listener.accept(entry.state.getUuid());
+        }
+    }
+
+    private long ttlFor(GameState gameState) {
+        return gameState.isGameOver() ? gameOverTtlNanos : idleTtlNanos;
+    }
+
+    private Shard shardFor(String gameId) {
+        int h = gameId.hashCode();
+        h ^= (h >>> 16);
+        return shards[h & shardMask];
+    }
+
+    private static final class Shard {
+        final ReentrantLock lock = new ReentrantLock();
+        final Map<String, Entry> games = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    private static final class Entry {
+        final GameState state;
+        long expiresAt;
+
+        Entry(GameState state, long expiresAt) {
+            this.state = state;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,478 @@
+package com.hawkeye.cardgame.store;
+
+import com.hawkeye.cardgame.engine.Deck;
+import com.hawkeye.cardgame.model.Card;
+import com.hawkeye.cardgame.model.GameMessage;
+import com.hawkeye.cardgame.model.GameState;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Game store that packs every game into a fixed-width record in direct
+ * memory, so an idle game costs no Java objects at all. Game ids (UUIDs)
+ * are indexed by an open-addressing table of primitive arrays per shard.
+ *
+ * A GameState is only built when a game is read, and is written back to
+ * its record on put. Its deck is only unpacked for getPlayable and remove,
+ * the paths that draw from it or hand it elsewhere; plain reads skip it.
+ * Putting a game without a deck keeps the one already in its record.
+ *
+ * Eviction is sampled-LRU: when a shard is full the stalest of a few
+ * records near the clock hand is dropped.
+ */
+public class SlabGameStore implements GameStore {
+
+    // Record layout
+    private static final int MSB = 0;
+    private static final int LSB = 8;
+    private static final int EXPIRES_AT = 16;
+    private static final int SCORE = 24;
+    private static final int FLAGS = 28;
+    private static final int CURRENT = 29;
+    private static final int NEXT = 30;
+    private static final int MESSAGE = 31;
+    private static final int DECK_CURSOR = 32;
+    private static final int VERSION = 34;
+    private static final int DECK = 38;
+
+    private static final byte USED = 1;
+    private static final byte GAME_OVER = 2;
+
+    private static final int CHUNK_BITS = 10;
+    private static final int EVICTION_SAMPLES = 8;
+
+    private final Shard[] shards;
+    private final int shardMask;
+    private final int maxPerShard;
+    private final int deckSize;
+    private final int recordSize;
+    private final long idleTtlNanos;
+    private final long gameOverTtlNanos;
+
+    private final AtomicInteger size = new AtomicInteger();
+    private final LongAdder evictions = new LongAdder();
+    private volatile Consumer<UUID> removalListener;
+
+    public SlabGameStore(int shardCount, int maxSize, int deckCount, Duration idleTtl, Duration gameOverTtl) {
+        if (shardCount <= 0 || maxSize <= 0 || deckCount <= 0) {
+            throw new IllegalArgumentException("shardCount, maxSize and deckCount must be positive");
+        }
+        int n = Integer.highestOneBit(shardCount - 1) << 1;
+        if (n <= 0) n = 1;
+
+        this.deckSize = deckCount * Card.DECK_SIZE;
+        this.recordSize = DECK + deckSize;
+        this.shards = new Shard[n];
+        for (int i = 0; i < n; i++) {
+            shards[i] = new Shard();
+        }
+        this.shardMask = n - 1;
+        this.maxPerShard = Math.max(1, maxSize / n);
+        this.idleTtlNanos = idleTtl.toNanos();
+        this.gameOverTtlNanos = gameOverTtl.toNanos();
+    }
+
+    @Override
+    public GameState get(String gameId) {
+        return get(gameId, false);
+    }
+
+    @Override
+    public GameState getPlayable(String gameId) {
+        return get(gameId, true);
+    }
+
+    private GameState get(String gameId, boolean withDeck) {
+        UUID key = parse(gameId);
+        if (key == null) {
+            return null;
+        }
+        Shard shard = shardFor(key);
+        long now = System.nanoTime();
+        shard.lock.lock();
+        try {
+            int slot = shard.find(key.getMostSignificantBits(), key.getLeastSignificantBits());
+            if (slot < 0) {
+                return null;
+            }
+            ByteBuffer chunk = shard.chunk(slot);
+            int base = shard.offset(slot);
+            if (chunk.getLong(base + EXPIRES_AT) - now <= 0) {
+                shard.release(slot, chunk, base);
+                size.decrementAndGet();
+                evictions.increment();
+                return null;
+            }
+            boolean gameOver = (chunk.get(base + FLAGS) & GAME_OVER) != 0;
+            chunk.putLong(base + EXPIRES_AT, now + (gameOver ? gameOverTtlNanos : idleTtlNanos));
+
+            return view(key, gameId, chunk, base, withDeck);
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    @Override
+    public void put(GameState gameState) {
+        UUID key = parse(gameState.getGameId());
+        if (key == null) {
+            throw new IllegalArgumentException("Slab store needs UUID game ids: " + gameState.getGameId());
+        }
+        Deck deck = gameState.getDeck();
+        if (deck != null && deck.size() != deckSize) {
+            throw new IllegalArgumentException("Slab store needs a " + deckSize + "-card deck");
+        }
+        long msb = key.getMostSignificantBits();
+        long lsb = key.getLeastSignificantBits();
+        Shard shard = shardFor(key);
+        long now = System.nanoTime();
+
+        shard.lock.lock();
+        try {
+            int slot = shard.find(msb, lsb);
+            if (slot < 0) {
+                if (deck == null) {
+                    throw new IllegalArgumentException("New game " + gameState.getGameId() + " has no deck");
+                }
+                while (shard.count >= maxPerShard) {
+                    shard.evictOne(now);
+                    size.decrementAndGet();
+                    evictions.increment();
+                }
+                slot = shard.allocate(msb, lsb);
+                size.incrementAndGet();
+            }
+            ByteBuffer chunk = shard.chunk(slot);
+            int base = shard.offset(slot);
+            GameMessage message = gameState.getMessageType() != null ? gameState.getMessageType() : GameMessage.NONE;
+
+            chunk.putLong(base + MSB, msb);
+            chunk.putLong(base + LSB, lsb);
+            chunk.putLong(base + EXPIRES_AT, now + (gameState.isGameOver() ? gameOverTtlNanos : idleTtlNanos));
+            chunk.putInt(base + SCORE, gameState.getScore());
+            chunk.put(base + FLAGS, (byte) (USED | (gameState.isGameOver() ? GAME_OVER : 0)));
+            chunk.put(base + CURRENT, gameState.getCurrentCard().code());
+            chunk.put(base + NEXT, gameState.getNextCard().code());
+            chunk.put(base + MESSAGE, message.id());
+            chunk.putInt(base + VERSION, gameState.getVersion());
+            if (deck != null) {
+                chunk.putShort(base + DECK_CURSOR, (short) deck.cursor());
+                deck.writeTo(chunk, base + DECK);
+            }
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    @Override
+    public GameState remove(String gameId) {
+        UUID key = parse(gameId);
+        if (key == null) {
+            return null;
+        }
+        Shard shard = shardFor(key);
+        long now = System.nanoTime();
+        shard.lock.lock();
+        try {
+            int slot = shard.find(key.getMostSignificantBits(), key.getLeastSignificantBits());
+            if (slot < 0) {
+                return null;
+            }
+            ByteBuffer chunk = shard.chunk(slot);
+            int base = shard.offset(slot);
+            boolean expired = chunk.getLong(base + EXPIRES_AT) - now <= 0;
+            // Removed games are handed to another node, so they keep their deck
+            GameState removed = expired ? null : view(key, gameId, chunk, base, true);
+            shard.release(slot, chunk, base);
+            size.decrementAndGet();
+            if (expired) {
+                evictions.increment();
+            }
+            return removed;
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    @Override
+    public void release(String gameId) {
+        UUID key = parse(gameId);
+        if (key == null) {
+            return;
+        }
+        Shard shard = shardFor(key);
+        long releasedExpiry = System.nanoTime() + gameOverTtlNanos;
+        shard.lock.lock();
+        try {
+            int slot = shard.find(key.getMostSignificantBits(), key.getLeastSignificantBits());
+            if (slot < 0) {
+                return;
+            }
+            ByteBuffer chunk = shard.chunk(slot);
+            int base = shard.offset(slot);
+            // Eviction samples by remaining lifetime, so this also makes it an early victim
+            if (chunk.getLong(base + EXPIRES_AT) - releasedExpiry > 0) {
+                chunk.putLong(base + EXPIRES_AT, releasedExpiry);
+            }
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    @Override
+    public void forEach(Consumer<GameState> action) {
+        List<GameState> batch = new ArrayList<>();
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                for (int slot = 0; slot < shard.highWater; slot++) {
+                    ByteBuffer chunk = shard.chunk(slot);
+                    int base = shard.offset(slot);
+                    if ((chunk.get(base + FLAGS) & USED) != 0) {
+                        UUID key = new UUID(chunk.getLong(base + MSB), chunk.getLong(base + LSB));
+                        batch.add(view(key, key.toString(), chunk, base, false));
+                    }
+                }
+            } finally {
+                shard.lock.unlock();
+            }
+            batch.forEach(action);
+            batch.clear();
+        }
+    }
+
+    @Override
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    @Override
+    public void evictExpired() {
+        for (Shard shard : shards) {
+            long now = System.nanoTime();
+            shard.lock.lock();
+            try {
+                for (int slot = 0; slot < shard.highWater; slot++) {
+                    ByteBuffer chunk = shard.chunk(slot);
+                    int base = shard.offset(slot);
+                    if ((chunk.get(base + FLAGS) & USED) != 0 && chunk.getLong(base + EXPIRES_AT) - now <= 0) {
+                        shard.release(slot, chunk, base);
+                        size.decrementAndGet();
+                        evictions.increment();
+                    }
+                }
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public FootprintReport footprint() {
+        long reserved = 0;
+        long indexBytes = 0;
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                reserved += (long) shard.chunkCount * (recordSize << CHUNK_BITS);
+                indexBytes += (long) shard.slots.length * (8 + 8 + 4) + (long) shard.freeSlots.length * 4;
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        int games = size();
+        long heapPerGame = games == 0 ? 0 : indexBytes / games;
+        return new FootprintReport("slab", games, heapPerGame, recordSize, reserved);
+    }
+
+    @Override
+    public void setRemovalListener(Consumer<UUID> listener) {
+        this.removalListener = listener;
+    }
+
+    private GameState view(UUID key, String gameId, ByteBuffer chunk, int base, boolean withDeck) {
+        GameState view = new GameState(gameId,
+                Card.of(chunk.get(base + CURRENT)),
+                Card.of(chunk.get(base + NEXT)),
+                chunk.getInt(base + SCORE),
+                (chunk.get(base + FLAGS) & GAME_OVER) != 0,
+                null);
+        view.setMessageType(GameMessage.of(chunk.get(base + MESSAGE)));
+        view.setVersion(chunk.getInt(base + VERSION));
+        view.setUuid(key);
+        if (withDeck) {
+            view.setDeck(Deck.restore(chunk, base + DECK, deckSize, chunk.getShort(base + DECK_CURSOR)));
+        }
+        return view;
+    }
+
+    private Shard shardFor(UUID key) {
+        return shards[(int) mix(key.getMostSignificantBits() ^ key.getLeastSignificantBits()) & shardMask];
+    }
+
+    private static UUID parse(String gameId) {
+        if (gameId == null || gameId.length() != 36) {
+            return null;
+        }
+        try {
+            return UUID.fromString(gameId);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static long mix(long h) {
+        h ^= (h >>> 33);
+        h *= 0xff51afd7ed558ccdL;
+        h ^= (h >>> 33);
+        return h;
+    }
+
+    private final class Shard {
+        final ReentrantLock lock = new ReentrantLock();
+
+        // Open-addressing index: slots[i] is the record slot, EMPTY or DELETED
+        static final int EMPTY = -1;
+        static final int DELETED = -2;
+        long[] msbs = new long[64];
+        long[] lsbs = new long[64];
+        int[] slots = filled(64);
+        int tombstones;
+
+        ByteBuffer[] chunks = new ByteBuffer[4];
+        int chunkCount;
+        int highWater;
+        int[] freeSlots = new int[16];
+        int freeCount;
+        int count;
+        int clockHand;
+
+        ByteBuffer chunk(int slot) {
+            return chunks[slot >>> CHUNK_BITS];
+        }
+
+        int offset(int slot) {
+            return (slot & ((1 << CHUNK_BITS) - 1)) * recordSize;
+        }
+
+        int find(long msb, long lsb) {
+            int mask = slots.length - 1;
+            for (int i = (int) mix(msb ^ lsb >>> 7) & mask; ; i = (i + 1) & mask) {
+                int slot = slots[i];
+                if (slot == EMPTY) return -1;
+                if (slot >= 0 && msbs[i] == msb && lsbs[i] == lsb) return slot;
+            }
+        }
+
+        int allocate(long msb, long lsb) {
+            int slot;
+            if (freeCount > 0) {
+                slot = freeSlots[--freeCount];
+            } else {
+                slot = highWater++;
+                if ((slot >>> CHUNK_BITS) == chunkCount) {
+                    if (chunkCount == chunks.length) {
+                        chunks = Arrays.copyOf(chunks, chunkCount * 2);
+                    }
+                    chunks[chunkCount++] = ByteBuffer.allocateDirect(recordSize << CHUNK_BITS);
+                }
+            }
+            if ((count + tombstones + 1) * 4 > slots.length * 3) {
+                rehash(count + 1 > slots.length / 2 ? slots.length * 2 : slots.length);
+            }
+            insert(msb, lsb, slot);
+            count++;
+            return slot;
+        }
+
+        // Every record leaves through here, removed or evicted
+        void release(int slot, ByteBuffer chunk, int base) {
+            long msb = chunk.getLong(base + MSB);
+            long lsb = chunk.getLong(base + LSB);
+            Consumer<UUID> listener = removalListener;
+            if (listener != null) {
+                listener.accept(new UUID(msb, lsb));
+            }
+            int mask = slots.length - 1;
+            for (int i = (int) mix(msb ^ lsb >>> 7) & mask; slots[i] != EMPTY; i = (i + 1) & mask) {
+                if (slots[i] == slot) {
+                    slots[i] = DELETED;
+                    tombstones++;
+                    break;
+                }
+            }
+            chunk.put(base + FLAGS, (byte) 0);
+            if (freeCount == freeSlots.length) {
+                freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+            }
+            freeSlots[freeCount++] = slot;
+            count--;
+        }
+
+        // Drops the stalest of a few used records after the clock hand
+        void evictOne(long now) {
+            int victim = -1;
+            long oldest = Long.MAX_VALUE;
+            for (int seen = 0, scanned = 0; seen < EVICTION_SAMPLES && scanned < highWater; scanned++) {
+                clockHand = clockHand + 1 >= highWater ? 0 : clockHand + 1;
+                ByteBuffer chunk = chunk(clockHand);
+                int base = offset(clockHand);
+                if ((chunk.get(base + FLAGS) & USED) == 0) continue;
+                seen++;
+                long remaining = chunk.getLong(base + EXPIRES_AT) - now;
+                if (remaining < oldest) {
+                    oldest = remaining;
+                    victim = clockHand;
+                }
+            }
+            release(victim, chunk(victim), offset(victim));
+        }
+
+        private void insert(long msb, long lsb, int slot) {
+            int mask = slots.length - 1;
+            int i = (int) mix(msb ^ lsb >>> 7) & mask;
+            while (slots[i] >= 0) {
+                i = (i + 1) & mask;
+            }
+            if (slots[i] == DELETED) tombstones--;
+            msbs[i] = msb;
+            lsbs[i] = lsb;
+            slots[i] = slot;
+        }
+
+        private void rehash(int capacity) {
+            long[] oldMsbs = msbs;
+            long[] oldLsbs = lsbs;
+            int[] oldSlots = slots;
+            msbs = new long[capacity];
+            lsbs = new long[capacity];
+            slots = filled(capacity);
+            tombstones = 0;
+            for (int i = 0; i < oldSlots.length; i++) {
+                if (oldSlots[i] >= 0) {
+                    insert(oldMsbs[i], oldLsbs[i], oldSlots[i]);
+                }
+            }
+        }
+
+        private int[] filled(int capacity) {
+            int[] table = new int[capacity];
+            Arrays.fill(table, EMPTY);
+            return table;
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.hawkeye.cardgame.stream;
+
+import com.hawkeye.cardgame.cluster.ClusterMembership;
+import com.hawkeye.cardgame.diagnostics.SampledLogger;
+import com.hawkeye.cardgame.model.GameSnapshot;
+import com.hawkeye.cardgame.model.GameState;
+import com.hawkeye.cardgame.service.GameEventListener;
+import com.hawkeye.cardgame.service.GameSnapshots;
+import com.hawkeye.cardgame.store.GameStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Server-Sent Events for clients that only watch a game. Each event is
+ * the game's full state, id'd by its version, so a watcher never needs
+ * more than the newest one: per connection at most one event is waiting,
+ * and a newer version replaces it. A reconnect with Last-Event-ID gets the
+ * current state only if it has moved on since.
+ *
+ * Idle watchers hold no thread, only the emitter and its async request.
+ * Sends run on virtual threads, one drain per connection at a time, so a
+ * client that stops reading parks its own sender and nobody else's.
+ * Heartbeat comments keep proxies from closing quiet streams and find
+ * connections that have gone away.
+ *
+ * Streams are served by the node that owns the game; in clustered mode a
+ * stream whose game moves elsewhere is closed at the next heartbeat, and
+ * the client's reconnect is redirected to the new owner.
+ */
+@Component
+public class GameStreams implements GameEventListener {
+
+    private static final SampledLogger log = SampledLogger.of(GameStreams.class, 10);
+
+    private final GameStore gameStore;
+    private final GameSnapshots snapshots;
+    private final ClusterMembership membership;
+    private final long timeoutMs;
+
+    private final Executor senders;
+    private final ConcurrentHashMap<String, Set<Watcher>> watchers = new ConcurrentHashMap<>();
+
+    private final LongAdder opened = new LongAdder();
+    private final LongAdder events = new LongAdder();
+    private final LongAdder conflated = new LongAdder();
+    private final LongAdder resumedCurrent = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    @Autowired
+    public GameStreams(GameStore gameStore,
+                       GameSnapshots snapshots,
+                       ClusterMembership membership,
+                       @Value("${game.sse.timeout:30m}") Duration timeout) {
+        this(gameStore, snapshots, membership, timeout, new VirtualThreadTaskExecutor("sse-"));
+    }
+
+    GameStreams(GameStore gameStore, GameSnapshots snapshots, ClusterMembership membership,
+                Duration timeout, Executor senders) {
+        this.gameStore = gameStore;
+        this.snapshots = snapshots;
+        this.membership = membership;
+        this.timeoutMs = timeout.toMillis();
+        this.senders = senders;
+    }
+
+    // Null when this node has no such game
+    public SseEmitter open(String gameId, String lastEventId) {
+        return open(gameId, lastEventId, () -> new SseEmitter(timeoutMs));
+    }
+
+    SseEmitter open(String gameId, String lastEventId, Supplier<SseEmitter> emitters) {
+        GameState state = gameStore.get(gameId);
+        if (state == null) {
+            return null;
+        }
+        SseEmitter emitter = emitters.get();
+        Watcher watcher = new Watcher(gameId, emitter, snapshots.versionOf(lastEventId));
+        emitter.onCompletion(() -> remove(watcher));
+        emitter.onTimeout(() -> remove(watcher));
+        emitter.onError(error -> remove(watcher));
+        // compute, not computeIfAbsent: the set may be emptied and dropped meanwhile
+        watchers.compute(gameId, (id, watching) -> {
+            Set<Watcher> set = watching != null ? watching : ConcurrentHashMap.<Watcher>newKeySet();
+            set.add(watcher);
+            return set;
+        });
+        opened.increment();
+
+        // Registered first, so no version between this read and the next update is missed
+        if (!watcher.offer(snapshots.of(state))) {
+            resumedCurrent.increment();
+        }
+        return emitter;
+    }
+
+    @Override
+    public void onGameStarted(GameState gameState) {
+        publish(gameState);
+    }
+
+    @Override
+    public void onGuessResolved(GameState gameState) {
+        publish(gameState);
+    }
+
+    private void publish(GameState gameState) {
+        Set<Watcher> watching = watchers.get(gameState.getGameId());
+        if (watching == null || watching.isEmpty()) {
+            return;
+        }
+        GameSnapshot snapshot = snapshots.of(gameState);
+        for (Watcher watcher : watching) {
+            watcher.offer(snapshot);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${game.sse.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Set<Watcher> watching : watchers.values()) {
+            for (Watcher watcher : watching) {
+                if (membership.enabled() && !membership.isLocal(watcher.gameId)) {
+                    watcher.emitter.complete();
+                    remove(watcher);
+                } else {
+                    watcher.heartbeat();
+                }
+            }
+        }
+    }
+
+    private void remove(Watcher watcher) {
+        watchers.computeIfPresent(watcher.gameId, (id, watching) -> {
+            watching.remove(watcher);
+            return watching.isEmpty() ? null : watching;
+        });
+    }
+
+    public Map<String, Object> stats() {
+        int open = 0;
+        for (Set<Watcher> watching : watchers.values()) {
+            open += watching.size();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("games", watchers.size());
+        stats.put("watchers", open);
+        stats.put("opened", opened.sum());
+        stats.put("events", events.sum());
+        stats.put("conflated", conflated.sum());
+        stats.put("resumedCurrent", resumedCurrent.sum());
+        stats.put("failed", failed.sum());
+        return stats;
+    }
+
+    private final class Watcher {
+        final String gameId;
+        final SseEmitter emitter;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        // Guarded by this
+        private int newestVersion;
+        private GameSnapshot pending;
+        private boolean heartbeatDue;
+        private boolean closed;
+
+        Watcher(String gameId, SseEmitter emitter, int lastSeenVersion) {
+            this.gameId = gameId;
+            this.emitter = emitter;
+            this.newestVersion = lastSeenVersion;
+        }
+
+        // False if the client already has this version or a newer one
+        boolean offer(GameSnapshot snapshot) {
+            synchronized (this) {
+                if (closed || snapshot.version() <= newestVersion) {
+                    return false;
+                }
+                newestVersion = snapshot.version();
+                if (pending != null) {
+                    conflated.increment();
+                }
+                pending = snapshot;
+            }
+            schedule();
+            return true;
+        }
+
+        void heartbeat() {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                heartbeatDue = true;
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                GameSnapshot snapshot;
+                boolean ping;
+                synchronized (this) {
+                    snapshot = pending;
+                    ping = heartbeatDue && snapshot == null;
+                    pending = null;
+                    heartbeatDue = false;
+                    if (snapshot == null && !ping) {
+                        // Offers take this lock too, so one that comes after reschedules
+                        scheduled.set(false);
+                        return;
+                    }
+                }
+                try {
+                    if (snapshot != null) {
+                        emitter.send(SseEmitter.event()
+                                .id(snapshots.eventId(snapshot.version()))
+                                .name("state")
+                                .data(snapshot.json(), MediaType.APPLICATION_JSON));
+                        events.increment();
+                    } else {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    log.debug("SSE stream for game {} closed: {}", gameId, e.getMessage());
+                    failed.increment();
+                    close();
+                    return;
+                }
+            }
+        }
+
+        private void close() {
+            synchronized (this) {
+                closed = true;
+                pending = null;
+            }
+            remove(this);
+            emitter.completeWithError(new IOException("Stream closed"));
+        }
+    }
+}
@@ -1,12 +1,34 @@
 import { Client } from '@stomp/stompjs';
 import SockJS from 'sockjs-client';
 
+// Mirrors Card and GameMessage on the server: card code = suit * 13 + rank
+const SUITS = ['HEARTS', 'DIAMONDS', 'CLUBS', 'SPADES'];
+const RANKS = ['2', '3', '4', '5', '6', '7', '8', '9', '10', 'J', 'Q', 'K', 'A'];
+const MESSAGES = [
+    null,
+    () => 'Game started! Make your guess.',
+    (score) => 'Correct! Your score: ' + score,
+    (score) => 'Game Over! Final score: ' + score,
+    () => 'Game reset! New game started.'
+];
+
+const decodeCard = (code) => ({
+    suit: SUITS[Math.floor(code / 13)],
+    rank: RANKS[code % 13],
+    value: code % 13 + 2
+});
+
 class WebSocketService {
     constructor() {
         this.client = null;
         this.sessionId = null;
         this.onGestureCallback = null;
         this.isConnected = false;
+        // Last applied delta; null until the first snapshot or new-game delta
+        this.seq = null;
+        this.view = null;
+        // Set once a resync is asked for; deltas are ignored until the snapshot
+        this.resyncPending = false;
     }
 
     connect(sessionId, onGestureCallback) {
@@ -27,13 +49,20 @@ class WebSocketService {
             console.log("✅ WebSocket connected: " + frame);
             this.isConnected = true;
 
-            // Register session with backend
-            this.client.publish({
-                destination: '/app/tensorflow/gesture.register',
-                body: JSON.stringify({ sessionId: this.sessionId })
+            this.seq = null;
+            this.view = null;
+            this.resyncPending = false;
+
+            // Subscribe before registering so no update is missed
+            this.client.subscribe(`/topic/delta/${this.sessionId}`, (message) => {
+                try {
+                    this.applyDelta(JSON.parse(message.body));
+                } catch (error) {
+                    console.error('❌ Error parsing game delta', error);
+                }
             });
 
-            // Subscribe to gesture updates
+            // Connection events and errors stay on the gesture topic
             this.client.subscribe(`/topic/gesture/${this.sessionId}`, (message) => {
                 try {
                     const gestureData = JSON.parse(message.body);
@@ -46,17 +75,10 @@ class WebSocketService {
                 }
             });
 
-            // Subscribe to game updates
-            this.client.subscribe('/topic/game-updates', (message) => {
-                try {
-                    const gameData = JSON.parse(message.body);
-                    console.log('🎮 Received game update:', gameData);
-                    if (this.onGestureCallback) {
-                        this.onGestureCallback(gameData);
-                    }
-                } catch (error) {
-                    console.error('❌ Error parsing game update', error);
-                }
+            // Register session with backend, asking for delta game updates
+            this.client.publish({
+                destination: '/app/tensorflow/gesture.register',
+                body: JSON.stringify({ sessionId: this.sessionId, protocol: 'delta' })
             });
         };
 
@@ -73,6 +95,49 @@ class WebSocketService {
         this.client.activate();
     }
 
+    applyDelta(delta) {
+        if (delta.type === 'snapshot') {
+            this.resyncPending = false;
+            this.seq = delta.seq;
+            this.view = { ...delta };
+        } else if (this.resyncPending) {
+            // Already waiting on a snapshot; one gap asks for one resync
+            return;
+        } else if (delta.gameId) {
+            // A new game carries every field, so it is a fresh baseline
+            this.seq = delta.seq;
+            this.view = { ...delta };
+        } else if (this.view === null || delta.seq !== this.seq + 1) {
+            console.warn('⚠ Missed game update, resyncing', this.seq, delta.seq);
+            this.resyncPending = true;
+            this.client.publish({
+                destination: '/app/tensorflow/gesture.resync',
+                body: JSON.stringify({ sessionId: this.sessionId })
+            });
+            return;
+        } else {
+            this.seq = delta.seq;
+            for (const [key, value] of Object.entries(delta)) {
+                this.view[key] = value;
+            }
+        }
+
+        if (this.onGestureCallback) {
+            const view = this.view;
+            const format = MESSAGES[view.message];
+            this.onGestureCallback({
+                sessionId: this.sessionId,
+                gesture: delta.gesture || 'resync',
+                gameId: view.gameId,
+                currentCard: decodeCard(view.current),
+                nextCard: decodeCard(view.next),
+                score: view.score,
+                gameOver: view.gameOver,
+                message: format ? format(view.score) : null
+            });
+        }
+    }
+
     disconnect() {
         if (this.client && this.isConnected) {
             // Unregister session
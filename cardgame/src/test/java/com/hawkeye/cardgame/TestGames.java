@@ -0,0 +1,27 @@
+package com.hawkeye.cardgame;
+
+import com.hawkeye.cardgame.engine.GameMailboxes;
+import com.hawkeye.cardgame.service.CardService;
+import com.hawkeye.cardgame.service.GameEventListener;
+import com.hawkeye.cardgame.service.GameService;
+import com.hawkeye.cardgame.store.GameStore;
+import com.hawkeye.cardgame.store.ShardedGameStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.Duration;
+import java.util.List;
+
+// Wires the game engine the same way Spring does, without a context; decks are seeded so runs repeat
+public final class TestGames {
+
+    private TestGames() {}
+
+    // Finished games expire at once, so tests can see a release take effect
+    public static GameStore store() {
+        return new ShardedGameStore(4, 10_000, Duration.ofMinutes(30), Duration.ZERO);
+    }
+
+    public static GameService gameService(GameStore store, GameMailboxes mailboxes, GameEventListener... listeners) {
+        return new GameService(store, mailboxes, new CardService(1, 42L), List.of(listeners), new SimpleMeterRegistry());
+    }
+}
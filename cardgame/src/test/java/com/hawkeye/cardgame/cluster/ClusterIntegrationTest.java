@@ -0,0 +1,357 @@
+package com.hawkeye.cardgame.cluster;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hawkeye.cardgame.CardgameApplication;
+import com.hawkeye.cardgame.model.GestureMessage;
+import com.hawkeye.cardgame.service.GameUpdatePublisher;
+import org.apache.activemq.artemis.core.config.impl.ConfigurationImpl;
+import org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs several nodes as separate application contexts in this JVM, relaying
+ * /topic through an embedded Artemis broker. Tagged so ./gradlew test skips
+ * it; run with ./gradlew clusterTest.
+ */
+@Tag("cluster")
+class ClusterIntegrationTest {
+
+    private static final String SECRET = "cluster-test-secret";
+    private static final int FORWARD_EVERY = 4;
+
+    private static EmbeddedActiveMQ broker;
+    private static int stompPort;
+
+    private final HttpClient http = HttpClient.newHttpClient();
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @BeforeAll
+    static void startBroker() throws Exception {
+        stompPort = freePort();
+        ConfigurationImpl config = new ConfigurationImpl();
+        config.setPersistenceEnabled(false);
+        config.setSecurityEnabled(false);
+        config.addAcceptorConfiguration("stomp",
+                "tcp://127.0.0.1:" + stompPort + "?protocols=STOMP;multicastPrefix=/topic/");
+        broker = new EmbeddedActiveMQ();
+        broker.setConfiguration(config);
+        broker.start();
+    }
+
+    @AfterAll
+    static void stopBroker() throws Exception {
+        broker.stop();
+    }
+
+    @Test
+    void guessesReachTheOwnerFromAnyNode() throws Exception {
+        try (Cluster cluster = Cluster.start(2)) {
+            JsonNode game = post(cluster.url(0) + "/api/game/start", null);
+            String gameId = game.get("gameId").asText();
+            assertTrue(cluster.membership(0).isLocal(gameId));
+
+            JsonNode guessed = post(cluster.url(1) + "/api/game/" + gameId + "/guess", Map.of("guess", "higher"));
+            assertEquals(2, guessed.get("version").asInt());
+
+            HttpResponse<String> read = get(cluster.url(1) + "/api/game/" + gameId, null);
+            assertEquals(200, read.statusCode());
+            assertEquals(2, mapper.readTree(read.body()).get("version").asInt());
+            String etag = read.headers().firstValue("ETag").orElseThrow();
+            assertEquals(304, get(cluster.url(1) + "/api/game/" + gameId, etag).statusCode());
+
+            assertTrue((Long) cluster.router(1).stats().get("forwarded") >= 2);
+        }
+    }
+
+    @Test
+    void handoffNeedsTheClusterSecret() throws Exception {
+        try (Cluster cluster = Cluster.start(1)) {
+            String game = "[{\"gameId\":\"forged\",\"currentCard\":1,\"nextCard\":2,\"score\":999,"
+                    + "\"gameOver\":false,\"message\":0,\"version\":1,\"deckCursor\":0,\"deck\":\"\"}]";
+            for (String secret : new String[] {null, "wrong"}) {
+                HttpRequest.Builder put = HttpRequest.newBuilder(URI.create(cluster.url(0) + "/internal/cluster/games"))
+                        .header("Content-Type", "application/json")
+                        .PUT(HttpRequest.BodyPublishers.ofString(game));
+                if (secret != null) {
+                    put.header(ClusterMembership.SECRET_HEADER, secret);
+                }
+                assertEquals(403, http.send(put.build(), HttpResponse.BodyHandlers.discarding()).statusCode());
+            }
+            assertEquals(404, get(cluster.url(0) + "/api/game/forged", null).statusCode());
+        }
+    }
+
+    @Test
+    void updatesCrossNodesThroughTheRelay() throws Exception {
+        try (Cluster cluster = Cluster.start(2)) {
+            WebSocketStompClient stomp = new WebSocketStompClient(new StandardWebSocketClient());
+            stomp.setMessageConverter(new MappingJackson2MessageConverter());
+            StompSession session = stomp.connectAsync(
+                    cluster.url(1).replaceFirst("^http", "ws") + "/ws/websocket",
+                    new StompSessionHandlerAdapter() {}).get(10, TimeUnit.SECONDS);
+
+            CompletableFuture<Map<?, ?>> received = new CompletableFuture<>();
+            CountDownLatch subscribed = new CountDownLatch(1);
+            session.setAutoReceipt(true);
+            session.subscribe("/topic/gesture/relay-test", new StompFrameHandler() {
+                @Override
+                public Type getPayloadType(StompHeaders headers) {
+                    return Map.class;
+                }
+
+                @Override
+                public void handleFrame(StompHeaders headers, Object payload) {
+                    received.complete((Map<?, ?>) payload);
+                }
+            }).addReceiptTask(subscribed::countDown);
+            assertTrue(subscribed.await(10, TimeUnit.SECONDS));
+
+            // Published on node 0, delivered to a subscriber connected to node 1
+            cluster.context(0).getBean(GameUpdatePublisher.class)
+                    .sendEvent("relay-test", new GestureMessage("relay-test", "connected", "via broker"));
+
+            assertEquals("via broker", received.get(10, TimeUnit.SECONDS).get("message"));
+            session.disconnect();
+        }
+    }
+
+    @Test
+    void gamesMoveWhenANodeLeaves() throws Exception {
+        try (Cluster cluster = Cluster.start(2)) {
+            List<JsonNode> games = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                games.add(post(cluster.url(1) + "/api/game/start", null));
+            }
+
+            cluster.stop(1);
+            cluster.awaitMembers(0, 1);
+
+            for (JsonNode game : games) {
+                HttpResponse<String> read = get(cluster.url(0) + "/api/game/" + game.get("gameId").asText(), null);
+                assertEquals(200, read.statusCode());
+                JsonNode moved = mapper.readTree(read.body());
+                assertEquals(game.get("currentCard"), moved.get("currentCard"));
+                assertEquals(game.get("version"), moved.get("version"));
+            }
+            assertEquals(20L, cluster.router(0).stats().get("adopted"));
+        }
+    }
+
+    @Test
+    void reportsThroughputForOneAndThreeNodes() throws Exception {
+        Throughput single = measure(1);
+        Throughput triple = measure(3);
+        double speedup = triple.perSecond() / single.perSecond();
+        String report = String.format(Locale.ROOT,
+                "{\"cores\":%d,\"forwardEvery\":%d,\"oneNode\":%.0f,\"threeNodes\":%.0f,"
+                        + "\"threeNodesForwarded\":%.3f,\"speedup\":%.2f}%n",
+                Runtime.getRuntime().availableProcessors(), FORWARD_EVERY, single.perSecond(),
+                triple.perSecond(), triple.forwardedShare(), speedup);
+        Path dir = Path.of(System.getProperty("cluster.reportDir", "build/reports/cluster"));
+        Files.createDirectories(dir);
+        Files.writeString(dir.resolve("throughput.json"), report);
+
+        // Every node here shares this JVM's cores, so the speedup is only reported
+        assertTrue(triple.forwardedShare() > 0, "no requests were forwarded");
+    }
+
+    private record Throughput(double perSecond, double forwardedShare) {}
+
+    /**
+     * Requests per second from players that mostly stay on one node, as they
+     * do over a WebSocket; every FORWARD_EVERY-th guess goes in through the
+     * next node instead, as a REST client behind a load balancer would.
+     */
+    private Throughput measure(int nodes) throws Exception {
+        int playersPerNode = 8;
+        try (Cluster cluster = Cluster.start(nodes)) {
+            LongAdder requests = new LongAdder();
+            AtomicBoolean counting = new AtomicBoolean();
+            AtomicBoolean running = new AtomicBoolean(true);
+            ExecutorService players = Executors.newFixedThreadPool(nodes * playersPerNode);
+            for (int p = 0; p < nodes * playersPerNode; p++) {
+                String home = cluster.url(p % nodes);
+                String other = cluster.url((p + 1) % nodes);
+                players.execute(() -> {
+                    try {
+                        long sent = 0;
+                        while (running.get()) {
+                            JsonNode game = post(home + "/api/game/start", null);
+                            count(requests, counting);
+                            String gameId = game.get("gameId").asText();
+                            boolean over = false;
+                            while (!over && running.get()) {
+                                String node = ++sent % FORWARD_EVERY == 0 ? other : home;
+                                over = post(node + "/api/game/" + gameId + "/guess",
+                                        Map.of("guess", "higher")).get("gameOver").asBoolean();
+                                count(requests, counting);
+                            }
+                        }
+                    } catch (Exception e) {
+                        running.set(false);
+                        throw new IllegalStateException(e);
+                    }
+                });
+            }
+            Thread.sleep(2_000);
+            long forwardedBefore = forwarded(cluster, nodes);
+            counting.set(true);
+            long started = System.nanoTime();
+            Thread.sleep(5_000);
+            counting.set(false);
+            double seconds = (System.nanoTime() - started) / 1e9;
+            long forwardedDuring = forwarded(cluster, nodes) - forwardedBefore;
+            running.set(false);
+            players.shutdown();
+            assertTrue(players.awaitTermination(10, TimeUnit.SECONDS));
+            long total = requests.sum();
+            return new Throughput(total / seconds, total == 0 ? 0 : (double) forwardedDuring / total);
+        }
+    }
+
+    private static long forwarded(Cluster cluster, int nodes) {
+        long forwarded = 0;
+        for (int i = 0; i < nodes; i++) {
+            forwarded += (Long) cluster.router(i).stats().get("forwarded");
+        }
+        return forwarded;
+    }
+
+    private static void count(LongAdder requests, AtomicBoolean counting) {
+        if (counting.get()) {
+            requests.increment();
+        }
+    }
+
+    private JsonNode post(String url, Object body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(body == null ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofByteArray(mapper.writeValueAsBytes(body)))
+                .build();
+        HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode(), url + ": " + response.body());
+        return mapper.readTree(response.body());
+    }
+
+    private HttpResponse<String> get(String url, String ifNoneMatch) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url)).GET();
+        if (ifNoneMatch != null) {
+            request.header("If-None-Match", ifNoneMatch);
+        }
+        return http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    // Nodes on fixed ports so each can list the others up front
+    private static final class Cluster implements AutoCloseable {
+
+        private final List<Integer> ports;
+        private final List<ConfigurableApplicationContext> contexts = new ArrayList<>();
+
+        private Cluster(List<Integer> ports) {
+            this.ports = ports;
+        }
+
+        static Cluster start(int nodes) throws Exception {
+            List<Integer> ports = new ArrayList<>();
+            for (int i = 0; i < nodes; i++) {
+                ports.add(freePort());
+            }
+            Cluster cluster = new Cluster(ports);
+            String urls = ports.stream().map(port -> "http://127.0.0.1:" + port).collect(Collectors.joining(","));
+            for (int port : ports) {
+                cluster.contexts.add(new SpringApplicationBuilder(CardgameApplication.class).properties(
+                        "server.port=" + port,
+                        "spring.main.banner-mode=off",
+                        "game.worker-threads=2",
+                        "game.cluster.enabled=true",
+                        "game.cluster.secret=" + SECRET,
+                        "game.cluster.self-url=http://127.0.0.1:" + port,
+                        "game.cluster.nodes=" + urls,
+                        "game.cluster.probe-interval-ms=200",
+                        "game.cluster.relay-host=127.0.0.1",
+                        "game.cluster.relay-port=" + stompPort).run());
+            }
+            for (int i = 0; i < nodes; i++) {
+                cluster.awaitMembers(i, nodes);
+            }
+            return cluster;
+        }
+
+        String url(int node) {
+            return "http://127.0.0.1:" + ports.get(node);
+        }
+
+        ConfigurableApplicationContext context(int node) {
+            return contexts.get(node);
+        }
+
+        ClusterMembership membership(int node) {
+            return context(node).getBean(ClusterMembership.class);
+        }
+
+        GameRouter router(int node) {
+            return context(node).getBean(GameRouter.class);
+        }
+
+        void awaitMembers(int node, int members) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(15);
+            while (membership(node).liveNodes().size() != members) {
+                assertTrue(System.nanoTime() < deadline, "node " + node + " sees " + membership(node).liveNodes());
+                Thread.sleep(50);
+            }
+        }
+
+        void stop(int node) {
+            contexts.get(node).close();
+        }
+
+        @Override
+        public void close() {
+            contexts.stream().filter(ConfigurableApplicationContext::isActive).forEach(ConfigurableApplicationContext::close);
+        }
+    }
+}
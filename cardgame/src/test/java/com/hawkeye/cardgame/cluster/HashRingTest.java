@@ -0,0 +1,88 @@
+package com.hawkeye.cardgame.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashRingTest {
+
+    private static final List<String> KEYS = IntStream.range(0, 30_000)
+            .mapToObj(i -> new UUID(i * 0x9E3779B97F4A7C15L, i).toString())
+            .toList();
+
+    @Test
+    void spreadsGamesEvenly() {
+        HashRing ring = new HashRing(List.of("http://a", "http://b", "http://c"), 128);
+        Map<String, Integer> counts = new HashMap<>();
+        for (String key : KEYS) {
+            counts.merge(ring.owner(key), 1, Integer::sum);
+        }
+
+        assertEquals(3, counts.size());
+        for (int count : counts.values()) {
+            assertTrue(Math.abs(count - 10_000) < 1_500, counts.toString());
+        }
+    }
+
+    @Test
+    void joiningNodeOnlyTakesGamesFromOthers() {
+        HashRing before = new HashRing(List.of("http://a", "http://b", "http://c"), 128);
+        HashRing after = new HashRing(List.of("http://a", "http://b", "http://c", "http://d"), 128);
+        int moved = 0;
+        for (String key : KEYS) {
+            String owner = after.owner(key);
+            if (!owner.equals(before.owner(key))) {
+                assertEquals("http://d", owner);
+                moved++;
+            }
+        }
+        // About a quarter of the games move, all of them to the new node
+        assertTrue(moved > 6_000 && moved < 9_000, "moved " + moved);
+    }
+
+    @Test
+    void mintedIdsLandOnTheirNodeInProportion() {
+        HashRing ring = new HashRing(List.of("http://a", "http://b", "http://c"), 128);
+        for (String node : ring.nodes()) {
+            for (int i = 0; i < 1000; i++) {
+                String id = ring.idOwnedBy(node, i);
+                assertEquals(node, ring.owner(id));
+                assertEquals(4, UUID.fromString(id).version());
+            }
+        }
+        assertNull(ring.idOwnedBy("http://d", 0));
+
+        // A fourth node takes about a quarter of the ids minted on the others
+        HashRing after = new HashRing(List.of("http://a", "http://b", "http://c", "http://d"), 128);
+        int moved = 0;
+        for (int i = 0; i < 30_000; i++) {
+            if (!after.owner(ring.idOwnedBy("http://a", i)).equals("http://a")) {
+                moved++;
+            }
+        }
+        assertTrue(moved > 6_000 && moved < 9_000, "moved " + moved);
+    }
+
+    @Test
+    void singleNodeOwnsEveryMintedId() {
+        HashRing ring = new HashRing(List.of("http://a"), 1);
+        for (int i = 0; i < 100; i++) {
+            assertEquals("http://a", ring.owner(ring.idOwnedBy("http://a", i)));
+        }
+    }
+
+    @Test
+    void ownerDoesNotDependOnNodeOrder() {
+        HashRing one = new HashRing(List.of("http://a", "http://b"), 16);
+        HashRing other = new HashRing(List.of("http://b", "http://a"), 16);
+        for (String key : KEYS.subList(0, 1000)) {
+            assertEquals(one.owner(key), other.owner(key));
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.hawkeye.cardgame.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChannelDepthInterceptorTest {
+
+    private final ChannelDepthInterceptor depth = new ChannelDepthInterceptor();
+    // Tasks the channel handed to its executor, run by the test when it chooses
+    private final List<Runnable> pending = new ArrayList<>();
+    // The interceptor's stats as each handler saw them while it ran
+    private final List<Map<String, Object>> seen = new ArrayList<>();
+
+    private ExecutorSubscribableChannel channel(Executor executor) {
+        ExecutorSubscribableChannel channel = new ExecutorSubscribableChannel(executor);
+        channel.addInterceptor(depth);
+        channel.subscribe(message -> seen.add(depth.stats()));
+        channel.subscribe(message -> seen.add(depth.stats()));
+        return channel;
+    }
+
+    private static Message<String> message() {
+        return MessageBuilder.withPayload("update").build();
+    }
+
+    @Test
+    void eachSubscriberIsOneQueuedTaskUntilItRuns() {
+        ExecutorSubscribableChannel channel = channel(pending::add);
+
+        assertTrue(channel.send(message()));
+        assertTrue(channel.send(message()));
+        assertEquals(4, pending.size());
+        assertEquals(4, depth.queued());
+        assertEquals(0, depth.active());
+
+        pending.get(0).run();
+        assertEquals(1L, seen.get(0).get("active"));
+        assertEquals(3L, seen.get(0).get("queued"));
+        assertEquals(3, depth.queued());
+        assertEquals(0, depth.active());
+
+        pending.subList(1, 4).forEach(Runnable::run);
+        assertEquals(0, depth.queued());
+        assertEquals(0, depth.active());
+        Map<String, Object> stats = depth.stats();
+        assertEquals(4L, stats.get("maxQueued"));
+        assertEquals(4L, stats.get("handled"));
+        assertEquals(0L, stats.get("failed"));
+    }
+
+    @Test
+    void rejectedSendTakesItsTasksBack() {
+        ExecutorSubscribableChannel channel = channel(task -> {
+            throw new RejectedExecutionException("pool is full");
+        });
+
+        assertThrows(MessagingException.class, () -> channel.send(message()));
+
+        assertEquals(0, depth.queued());
+        assertEquals(0, depth.active());
+        Map<String, Object> stats = depth.stats();
+        assertEquals(2L, stats.get("maxQueued"));
+        assertEquals(1L, stats.get("failed"));
+        assertEquals(0L, stats.get("handled"));
+        assertTrue(seen.isEmpty());
+    }
+
+    @Test
+    void sendStoppedByALaterInterceptorTakesItsTasksBack() {
+        ExecutorSubscribableChannel channel = channel(pending::add);
+        channel.addInterceptor(new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                return null;
+            }
+        });
+
+        assertFalse(channel.send(message()));
+
+        assertTrue(pending.isEmpty());
+        assertEquals(0, depth.queued());
+        assertEquals(1L, depth.stats().get("failed"));
+    }
+}
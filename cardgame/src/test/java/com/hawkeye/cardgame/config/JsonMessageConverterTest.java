@@ -0,0 +1,77 @@
+package com.hawkeye.cardgame.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hawkeye.cardgame.model.GestureDetectCommand;
+import com.hawkeye.cardgame.model.JsonBytes;
+import com.hawkeye.cardgame.model.SessionCommand;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.MessageConversionException;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonMessageConverterTest {
+
+    private final JsonMessageConverter converter = new JsonMessageConverter(new ObjectMapper());
+
+    private static Message<byte[]> json(String body) {
+        return MessageBuilder.withPayload(body.getBytes(StandardCharsets.UTF_8))
+                .setHeader(MessageHeaders.CONTENT_TYPE, MimeTypeUtils.APPLICATION_JSON)
+                .build();
+    }
+
+    @Test
+    void bindsTypedPayloadRecords() {
+        Object detect = converter.fromMessage(json(
+                "{\"sessionId\":\"s1\",\"gesture\":\"higher\",\"gameId\":\"g1\",\"timestamp\":1700000000000}"),
+                GestureDetectCommand.class);
+        assertEquals(new GestureDetectCommand("s1", "higher", "g1", 1700000000000L), detect);
+
+        // Text frames arrive as strings, and missing fields stay null
+        Message<String> text = MessageBuilder.withPayload("{\"sessionId\":\"s2\"}")
+                .setHeader(MessageHeaders.CONTENT_TYPE, MimeTypeUtils.APPLICATION_JSON)
+                .build();
+        assertEquals(new SessionCommand("s2", null), converter.fromMessage(text, SessionCommand.class));
+    }
+
+    @Test
+    void recordsRoundTrip() {
+        GestureDetectCommand detect = new GestureDetectCommand("s1", "reset", null, 42L);
+        SessionCommand register = new SessionCommand("s1", "delta");
+
+        Message<?> detectOut = converter.toMessage(detect, null);
+        Message<?> registerOut = converter.toMessage(register, null);
+
+        assertInstanceOf(byte[].class, detectOut.getPayload());
+        assertEquals(detect, converter.fromMessage(detectOut, GestureDetectCommand.class));
+        assertEquals(register, converter.fromMessage(registerOut, SessionCommand.class));
+    }
+
+    @Test
+    void jsonBytesGoOutWithoutBeingSerializedAgain() {
+        byte[] body = "{\"seq\":7}".getBytes(StandardCharsets.UTF_8);
+
+        Message<?> out = converter.toMessage(new JsonBytes(body), null);
+
+        assertSame(body, out.getPayload());
+    }
+
+    @Test
+    void stringsAndBytesAreLeftToTheDefaultConverters() {
+        assertNull(converter.fromMessage(json("\"text\""), String.class));
+        assertNull(converter.fromMessage(json("{}"), byte[].class));
+        assertNull(converter.toMessage("text", null));
+        assertNull(converter.toMessage(new byte[] {1, 2}, null));
+    }
+
+    @Test
+    void malformedJsonIsAConversionError() {
+        assertThrows(MessageConversionException.class,
+                () -> converter.fromMessage(json("{\"sessionId\":"), SessionCommand.class));
+    }
+}
@@ -0,0 +1,73 @@
+package com.hawkeye.cardgame.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hawkeye.cardgame.TestGames;
+import com.hawkeye.cardgame.cluster.ClusterMembership;
+import com.hawkeye.cardgame.cluster.GameRouter;
+import com.hawkeye.cardgame.engine.GameMailboxes;
+import com.hawkeye.cardgame.model.GameState;
+import com.hawkeye.cardgame.service.GameService;
+import com.hawkeye.cardgame.session.SessionRegistry;
+import com.hawkeye.cardgame.store.GameStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsConfigTest {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final MetricsConfig config = new MetricsConfig();
+    private final GameStore store = TestGames.store();
+    private final GameMailboxes mailboxes = new GameMailboxes(1);
+    private final GameService gameService = TestGames.gameService(store, mailboxes);
+    private final GameRouter router = new GameRouter(gameService, store,
+            new ClusterMembership(false, "http://localhost:8080", List.of(), 128, 2000, ""), new ObjectMapper(), 2000);
+    private final SessionRegistry sessions = new SessionRegistry(router, List.of(), Duration.ofMinutes(30));
+
+    @AfterEach
+    void tearDown() throws Exception {
+        router.destroy();
+        mailboxes.destroy();
+    }
+
+    private double gauge(String name) {
+        return registry.get(name).gauge().value();
+    }
+
+    @Test
+    void gameGaugesFollowTheStoreAndSessions() {
+        config.gameGauges(store, sessions).bindTo(registry);
+        assertEquals(0.0, gauge("game.active"));
+
+        store.put(new GameState("g1", null, null, 0, false, "test"));
+        store.put(new GameState("g2", null, null, 0, false, "test"));
+        sessions.register("s1", "conn-1");
+        sessions.register("s2", "conn-1");
+        sessions.register("s3", "conn-2");
+
+        assertEquals(2.0, gauge("game.active"));
+        assertEquals(3.0, gauge("game.sessions.active"));
+        assertEquals(2.0, gauge("game.sessions.connections"));
+
+        sessions.unregister("s3");
+        assertEquals(2.0, gauge("game.sessions.active"));
+    }
+
+    @Test
+    void brokerGaugesAreTaggedByChannel() {
+        ChannelDepthInterceptor inbound = new ChannelDepthInterceptor();
+        ChannelDepthInterceptor outbound = new ChannelDepthInterceptor();
+        config.brokerGauges(inbound, outbound).bindTo(registry);
+
+        for (String channel : List.of("inbound", "outbound")) {
+            assertEquals(0.0, registry.get("broker.channel.queued").tag("channel", channel).gauge().value());
+            assertEquals(0.0, registry.get("broker.channel.active").tag("channel", channel).gauge().value());
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.hawkeye.cardgame.diagnostics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SampledLoggerTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void letsThroughUpToTheLimitEachSecond() {
+        SampledLogger.Budget budget = SampledLogger.of(SampledLoggerTest.class, 3).infoBudget;
+        long start = 10 * SECOND;
+
+        assertTrue(budget.acquire(start));
+        assertTrue(budget.acquire(start + 1));
+        assertTrue(budget.acquire(start + 2));
+        assertFalse(budget.acquire(start + 3));
+        assertFalse(budget.acquire(start + SECOND - 1));
+
+        // A new second starts a fresh allowance
+        assertTrue(budget.acquire(start + SECOND));
+        assertTrue(budget.acquire(start + SECOND + 1));
+    }
+
+    @Test
+    void debugFloodLeavesWarningsTheirOwnAllowance() {
+        SampledLogger log = SampledLogger.of(SampledLoggerTest.class, 2);
+        long start = 10 * SECOND;
+
+        for (int i = 0; i < 100; i++) {
+            log.debugBudget.acquire(start + i);
+        }
+        assertFalse(log.debugBudget.acquire(start + 100));
+
+        assertTrue(log.warnBudget.acquire(start + 101));
+        assertTrue(log.warnBudget.acquire(start + 102));
+        assertFalse(log.warnBudget.acquire(start + 103));
+        assertTrue(log.infoBudget.acquire(start + 104));
+    }
+}
@@ -0,0 +1,61 @@
+package com.hawkeye.cardgame.engine;
+
+import com.hawkeye.cardgame.model.Card;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeckTest {
+
+    @Test
+    void drawsEveryCardOncePerPassThroughTheShoe() {
+        Deck deck = new Deck(2, null);
+        int[] seen = new int[Card.DECK_SIZE];
+
+        for (int i = 0; i < deck.size(); i++) {
+            seen[deck.drawCode()]++;
+        }
+
+        for (int count : seen) {
+            assertEquals(2, count);
+        }
+        assertEquals(0, deck.remaining());
+        assertNotNull(deck.draw());
+        assertEquals(deck.size() - 1, deck.remaining());
+    }
+
+    @Test
+    void sameSeedGivesSameOrder() {
+        Deck a = Deck.seeded(1, 42L);
+        Deck b = Deck.seeded(1, 42L);
+
+        for (int i = 0; i < 104; i++) {
+            assertSame(a.draw(), b.draw());
+        }
+    }
+
+    @Test
+    void reshuffleNeverDealsTheCardInPlayStraightBack() {
+        Deck deck = Deck.seeded(1, 7L);
+        int[] seen = new int[Card.DECK_SIZE];
+        int previous = -1;
+
+        for (int pass = 0; pass < 500; pass++) {
+            for (int i = 0; i < deck.size(); i++) {
+                int code = deck.drawCode();
+                if (pass > 0) {
+                    seen[code]++;
+                }
+                if (i == 0) {
+                    assertNotEquals(previous, code);
+                }
+                previous = code;
+            }
+        }
+
+        // Still every card once per pass
+        for (int count : seen) {
+            assertEquals(499, count);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.hawkeye.cardgame.engine;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameMailboxesTest {
+
+    private final GameMailboxes mailboxes = new GameMailboxes(4);
+
+    @AfterEach
+    void shutdown() {
+        mailboxes.destroy();
+    }
+
+    @Test
+    void operationsOnOneGameRunInOrderAndNeverOverlap() {
+        List<Integer> order = new ArrayList<>();
+        AtomicInteger running = new AtomicInteger();
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+
+        for (int i = 0; i < 1000; i++) {
+            int n = i;
+            futures.add(mailboxes.submit("game", () -> {
+                assertEquals(1, running.incrementAndGet());
+                order.add(n);
+                running.decrementAndGet();
+                return n;
+            }));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, order.get(i));
+        }
+    }
+
+    @Test
+    void failuresCompleteTheFutureAndMailboxesAreReleased() {
+        CompletableFuture<Object> failed = mailboxes.submit("game", () -> {
+            throw new IllegalArgumentException("boom");
+        });
+
+        assertThrows(Exception.class, failed::join);
+        assertEquals("ok", mailboxes.submit("game", () -> "ok").join());
+        // The drained mailbox is retired just after the last job completes
+        long deadline = System.currentTimeMillis() + 1000;
+        while (mailboxes.activeMailboxes() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(0, mailboxes.activeMailboxes());
+    }
+}
@@ -0,0 +1,40 @@
+package com.hawkeye.cardgame.gesture;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DropOldestQueueTest {
+
+    @Test
+    void keepsTheNewestElementsWhenFull() {
+        DropOldestQueue<Integer> queue = new DropOldestQueue<>(2);
+
+        assertNull(queue.offer(1));
+        assertNull(queue.offer(2));
+        assertEquals(1, queue.offer(3));
+        assertEquals(2, queue.offer(4));
+
+        assertEquals(2, queue.size());
+        assertEquals(3, queue.poll());
+        assertEquals(4, queue.poll());
+        assertNull(queue.poll());
+    }
+
+    @Test
+    void wrapsAroundTheRing() {
+        DropOldestQueue<Integer> queue = new DropOldestQueue<>(3);
+        queue.offer(1);
+        queue.offer(2);
+        queue.offer(3);
+        assertEquals(1, queue.poll());
+
+        assertNull(queue.offer(4));
+        assertEquals(2, queue.offer(5));
+
+        assertEquals(3, queue.poll());
+        assertEquals(4, queue.poll());
+        assertEquals(5, queue.poll());
+        assertNull(queue.poll());
+    }
+}
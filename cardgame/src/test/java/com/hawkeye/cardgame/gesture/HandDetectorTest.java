@@ -0,0 +1,59 @@
+package com.hawkeye.cardgame.gesture;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs the OpenCV detector headless over recorded frames in src/test/resources/frames
+class HandDetectorTest {
+
+    private final HandDetector detector = new HandDetector();
+
+    private HandDetector.Observation detect(String frame) throws IOException {
+        try (InputStream in = getClass().getResourceAsStream("/frames/" + frame)) {
+            assertNotNull(in, frame);
+            assertTrue(detector.decode(ByteBuffer.wrap(in.readAllBytes())), frame);
+        }
+        return detector.detect();
+    }
+
+    @Test
+    void emptyFrameHasNoHands() throws IOException {
+        HandDetector.Observation hands = detect("empty.jpg");
+
+        assertEquals(0, hands.hands);
+        assertEquals(LandmarkClassifier.NONE, hands.label());
+    }
+
+    @Test
+    void handOnTheLeftOfTheImageIsLabelledLeftLikeMediaPipe() throws IOException {
+        // The player's right hand, which the UI asks for on "higher"
+        assertEquals(LandmarkClassifier.HIGHER, detect("fist-on-image-left.jpg").label());
+        assertEquals(LandmarkClassifier.LOWER, detect("fist-on-image-right.jpg").label());
+    }
+
+    @Test
+    void countsExtendedFingers() throws IOException {
+        assertTrue(detect("open-on-image-right.jpg").extended[0] >= 4);
+        assertTrue(detect("fist-on-image-right.jpg").extended[0] < 4);
+    }
+
+    @Test
+    void twoOpenHandsAreReset() throws IOException {
+        HandDetector.Observation hands = detect("two-open-hands.jpg");
+
+        assertEquals(2, hands.hands);
+        assertTrue(hands.extended[0] >= 4 && hands.extended[1] >= 4);
+        assertEquals(LandmarkClassifier.RESET, hands.label());
+    }
+
+    @Test
+    void garbageIsNotDecoded() {
+        assertFalse(detector.decode(ByteBuffer.wrap(new byte[] {1, 2, 3, 4})));
+        assertFalse(detector.decode(ByteBuffer.allocate(0)));
+    }
+}
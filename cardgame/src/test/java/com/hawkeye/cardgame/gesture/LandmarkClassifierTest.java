@@ -0,0 +1,74 @@
+package com.hawkeye.cardgame.gesture;
+
+import org.junit.jupiter.api.Test;
+
+import static com.hawkeye.cardgame.gesture.LandmarkClassifier.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LandmarkClassifierTest {
+
+    // Writes a hand with the given number of fingers (thumb first) extended
+    private static void hand(float[] frames, int frame, int slot, int extended) {
+        int base = frame * FRAME_STRIDE + slot * HAND_STRIDE;
+        int[] tips = {4, 8, 12, 16, 20};
+        int[] joints = {2, 5, 9, 13, 17};
+        for (int finger = 0; finger < 5; finger++) {
+            boolean out = finger < extended;
+            int coordinate = finger == 0 ? 0 : 1;
+            // Thumb is out when its tip is right of the joint, fingers when the tip is above
+            float tip = finger == 0 ? (out ? 0.6f : 0.4f) : (out ? 0.2f : 0.8f);
+            frames[base + tips[finger] * 3 + coordinate] = tip;
+            frames[base + joints[finger] * 3 + coordinate] = 0.5f;
+        }
+    }
+
+    @Test
+    void classifiesAWholeBatch() {
+        float[] frames = new float[6 * FRAME_STRIDE];
+        byte[] hands = {0, 1, 1, 2, 2, 2};
+        byte[] left = {0, 1, 0, 3, 0, 3};
+        hand(frames, 1, 0, 1);
+        hand(frames, 2, 0, 1);
+        hand(frames, 3, 0, 1);
+        hand(frames, 3, 1, 2);
+        hand(frames, 4, 0, 0);
+        hand(frames, 4, 1, 0);
+        hand(frames, 5, 0, 5);
+        hand(frames, 5, 1, 4);
+        byte[] labels = new byte[6];
+
+        new LandmarkClassifier(6).classify(frames, hands, left, 6, labels);
+
+        assertArrayEquals(new byte[] {NONE, HIGHER, LOWER, HIGHER, LOWER, RESET}, labels);
+    }
+
+    @Test
+    void oneLeftAndOneRightHandIsReset() {
+        float[] frames = new float[FRAME_STRIDE];
+        byte[] labels = new byte[1];
+
+        new LandmarkClassifier(1).classify(frames, new byte[] {2}, new byte[] {1}, 1, labels);
+
+        assertEquals(RESET, labels[0]);
+    }
+
+    @Test
+    void gestureIsReportedOnceWhenItBecomesStable() {
+        StabilityFilter filter = new StabilityFilter();
+
+        assertEquals(NONE, filter.add(HIGHER));
+        assertEquals(NONE, filter.add(NONE));
+        assertEquals(NONE, filter.add(HIGHER));
+        assertEquals(HIGHER, filter.add(HIGHER));
+        assertEquals(NONE, filter.add(HIGHER));
+        assertEquals(NONE, filter.add(HIGHER));
+
+        // Hand drops, then comes back
+        for (int i = 0; i < 5; i++) {
+            filter.add(NONE);
+        }
+        filter.add(HIGHER);
+        filter.add(HIGHER);
+        assertEquals(HIGHER, filter.add(HIGHER));
+    }
+}
@@ -0,0 +1,189 @@
+package com.hawkeye.cardgame.journal;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hawkeye.cardgame.model.Card;
+import com.hawkeye.cardgame.model.GameMessage;
+import com.hawkeye.cardgame.model.GameState;
+import com.hawkeye.cardgame.service.CardService;
+import com.hawkeye.cardgame.service.GameSnapshots;
+import com.hawkeye.cardgame.store.GameStore;
+import com.hawkeye.cardgame.store.ShardedGameStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameJournalTest {
+
+    // Records in the smallest segment the journal allows (1 MB)
+    private static final int RECORDS_PER_SEGMENT = 1024 * 1024 / GameJournal.RECORD_SIZE;
+
+    @TempDir
+    Path directory;
+
+    private final GameSnapshots snapshots = new GameSnapshots(new ObjectMapper());
+    private final List<GameJournal> opened = new ArrayList<>();
+
+    @AfterEach
+    void closeJournals() {
+        opened.forEach(GameJournal::destroy);
+    }
+
+    private GameJournal open(GameStore store) throws IOException {
+        GameJournal journal = new GameJournal(directory.toString(), 1, 10, Long.MAX_VALUE / 2,
+                store, new CardService(1, 42L), snapshots);
+        journal.afterPropertiesSet();
+        opened.add(journal);
+        return journal;
+    }
+
+    private static GameStore store(int maxSize) {
+        return new ShardedGameStore(1, maxSize, Duration.ofMinutes(30), Duration.ofMinutes(30));
+    }
+
+    private static String id(int n) {
+        return new UUID(0x10, n).toString();
+    }
+
+    // Applies a change the way GameService does: store first, then listeners
+    private static GameState play(GameStore store, GameJournal journal, String id, int current, int next,
+                                  int score, GameMessage message, int version) {
+        GameState state = new GameState(id, Card.of(current), Card.of(next), score,
+                message == GameMessage.GAME_OVER, null);
+        state.setMessageType(message);
+        state.setVersion(version);
+        store.put(state);
+        if (version == 1) {
+            journal.onGameStarted(state);
+        } else {
+            journal.onGuessResolved(state);
+        }
+        return state;
+    }
+
+    @Test
+    void restoresGamesFromTheSnapshotAndTheSegmentsAfterIt() throws IOException {
+        GameStore store = store(100_000);
+        GameJournal journal = open(store);
+        play(store, journal, id(1), 3, 40, 0, GameMessage.STARTED, 1);
+        journal.snapshot();
+
+        play(store, journal, id(1), 40, 12, 1, GameMessage.CORRECT, 2);
+        play(store, journal, id(2), 20, 30, 0, GameMessage.STARTED, 1);
+        play(store, journal, id(2), 20, 30, 0, GameMessage.GAME_OVER, 2);
+        // Enough guesses on a third game to fill the segment and roll over
+        for (int version = 1; version <= RECORDS_PER_SEGMENT + 10; version++) {
+            play(store, journal, id(3), 5, 6, version - 1,
+                    version == 1 ? GameMessage.STARTED : GameMessage.CORRECT, version);
+        }
+        assertEquals(2, segments().size());
+        journal.destroy();
+
+        GameStore recovered = store(100_000);
+        open(recovered);
+        assertEquals(3, recovered.size());
+
+        GameState first = recovered.getPlayable(id(1));
+        assertSame(Card.of(40), first.getCurrentCard());
+        assertSame(Card.of(12), first.getNextCard());
+        assertEquals(1, first.getScore());
+        assertFalse(first.isGameOver());
+        assertEquals("Correct! Your score: 1", first.getMessage());
+        assertEquals(2, first.getVersion());
+        assertEquals(2, first.getSnapshot().version());
+        // Decks are not journaled, so the game carries on with a fresh one
+        assertNotNull(first.getDeck());
+
+        GameState lost = recovered.get(id(2));
+        assertTrue(lost.isGameOver());
+        assertEquals("Game Over! Final score: 0", lost.getMessage());
+        assertEquals(2, lost.getVersion());
+
+        GameState rolled = recovered.get(id(3));
+        assertEquals(RECORDS_PER_SEGMENT + 10, rolled.getVersion());
+        assertEquals(RECORDS_PER_SEGMENT + 9, rolled.getScore());
+    }
+
+    @Test
+    void removedAndEvictedGamesStayGone() throws IOException {
+        GameStore store = store(2);
+        GameJournal journal = open(store);
+        play(store, journal, id(1), 3, 40, 0, GameMessage.STARTED, 1);
+        play(store, journal, id(2), 3, 40, 0, GameMessage.STARTED, 1);
+        store.remove(id(1));
+        play(store, journal, id(3), 3, 40, 0, GameMessage.STARTED, 1);
+        // The store holds two games, so this evicts the least recently used one
+        play(store, journal, id(4), 3, 40, 0, GameMessage.STARTED, 1);
+        journal.destroy();
+
+        GameStore recovered = store(100);
+        open(recovered);
+        assertNull(recovered.get(id(1)));
+        assertNull(recovered.get(id(2)));
+        assertNotNull(recovered.get(id(3)));
+        assertNotNull(recovered.get(id(4)));
+    }
+
+    @Test
+    void tornFinalRecordFallsBackToTheImageBeforeIt() throws IOException {
+        GameStore store = store(100);
+        GameJournal journal = open(store);
+        play(store, journal, id(1), 3, 40, 0, GameMessage.STARTED, 1);
+        play(store, journal, id(1), 40, 12, 1, GameMessage.CORRECT, 2);
+        journal.destroy();
+
+        // The type byte goes in last, so a crash mid-record leaves it zero
+        clearType(segments().get(0), 1);
+
+        GameStore recovered = store(100);
+        open(recovered);
+        GameState state = recovered.get(id(1));
+        assertEquals(1, state.getVersion());
+        assertEquals(0, state.getScore());
+        assertSame(Card.of(3), state.getCurrentCard());
+        assertEquals(GameMessage.STARTED, state.getMessageType());
+    }
+
+    @Test
+    void unfinishedRecordDoesNotHideTheOnesWrittenAfterIt() throws IOException {
+        GameStore store = store(100);
+        GameJournal journal = open(store);
+        play(store, journal, id(1), 3, 40, 0, GameMessage.STARTED, 1);
+        play(store, journal, id(2), 3, 40, 0, GameMessage.STARTED, 1);
+        play(store, journal, id(1), 40, 12, 1, GameMessage.CORRECT, 2);
+        journal.destroy();
+
+        // A writer that reserved the middle slot but never finished it
+        clearType(segments().get(0), 1);
+
+        GameStore recovered = store(100);
+        open(recovered);
+        assertNull(recovered.get(id(2)));
+        assertEquals(2, recovered.get(id(1)).getVersion());
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> p.getFileName().toString().endsWith(".log")).sorted().toList();
+        }
+    }
+
+    private static void clearType(Path segment, int record) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(1), (long) record * GameJournal.RECORD_SIZE);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.hawkeye.cardgame.kiosk;
+
+import com.hawkeye.cardgame.TestGames;
+import com.hawkeye.cardgame.engine.GameMailboxes;
+import com.hawkeye.cardgame.model.GameState;
+import com.hawkeye.cardgame.service.GameService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Plays a game headless from a recorded frame looping through the ring
+class KioskRunnerTest {
+
+    private final GameMailboxes mailboxes = new GameMailboxes(1);
+    private final GameService gameService = TestGames.gameService(TestGames.store(), mailboxes);
+    private KioskRunner kiosk;
+
+    @AfterEach
+    void tearDown() {
+        if (kiosk != null) {
+            kiosk.stop();
+        }
+        mailboxes.destroy();
+    }
+
+    @Test
+    void steadyFistPlaysOneGuess() throws Exception {
+        Path fist = Path.of(getClass().getResource("/frames/fist-on-image-left.jpg").toURI());
+        List<String> decisions = new CopyOnWriteArrayList<>();
+        kiosk = new KioskRunner(new FileFrameSource(List.of(fist), 320, 240, 30, true), gameService,
+                (gesture, state) -> decisions.add(gesture), 4);
+        kiosk.start();
+        // Starting announces the new game before any frame is read
+        assertEquals(List.of("reset"), decisions);
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (decisions.size() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        // The stability filter only reports transitions, so a held fist is one guess
+        Thread.sleep(300);
+        assertEquals(List.of("reset", "higher"), decisions);
+
+        GameState game = kiosk.currentGame();
+        assertTrue(game.getScore() == 1 || game.isGameOver());
+        Map<String, Object> stats = kiosk.stats();
+        assertEquals(1L, stats.get("gestures"));
+    }
+}
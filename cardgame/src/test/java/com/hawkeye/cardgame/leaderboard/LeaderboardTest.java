@@ -0,0 +1,76 @@
+package com.hawkeye.cardgame.leaderboard;
+
+import com.hawkeye.cardgame.model.LeaderboardEntry;
+import com.hawkeye.cardgame.model.LeaderboardSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LeaderboardTest {
+
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+
+    @Test
+    void keepsTheBestScoresFirstWithEarlierGamesWinningTies() {
+        Leaderboard leaderboard = new Leaderboard(3, List.of("1h"), 2);
+        long now = 10 * HOUR;
+        leaderboard.record("a", 4, now - 50);
+        leaderboard.record("b", 9, now - 40);
+        leaderboard.record("c", 7, now - 30);
+        leaderboard.record("d", 9, now - 20);
+        leaderboard.record("e", 1, now - 10);
+        leaderboard.rebuild(now);
+
+        assertEquals(List.of("b", "d", "c"), ids(leaderboard.snapshot().allTime()));
+    }
+
+    @Test
+    void windowsDropGamesThatEndedBeforeThem() {
+        Leaderboard leaderboard = new Leaderboard(10, List.of("1h", "24h"), 2);
+        long now = 100 * HOUR;
+        leaderboard.record("old", 50, now - 3 * HOUR);
+        leaderboard.record("recent", 5, now - HOUR / 2);
+        leaderboard.rebuild(now);
+
+        LeaderboardSnapshot snapshot = leaderboard.snapshot();
+        assertEquals(List.of("recent"), ids(snapshot.windows().get("1h")));
+        assertEquals(List.of("old", "recent"), ids(snapshot.windows().get("24h")));
+
+        leaderboard.rebuild(now + HOUR);
+        assertEquals(List.of(), ids(leaderboard.snapshot().windows().get("1h")));
+        assertEquals(List.of("old", "recent"), ids(leaderboard.snapshot().allTime()));
+    }
+
+    @Test
+    void losesNothingWhenStripesOverflowUnderConcurrentWriters() throws Exception {
+        Leaderboard leaderboard = new Leaderboard(5, List.of("1h"), 4);
+        long now = 10 * HOUR;
+        ExecutorService writers = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            int thread = t;
+            writers.execute(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    // The best five scores are spread over every thread
+                    int score = i < 5 ? 1_000 + i * 4 + thread : i % 100;
+                    leaderboard.record(thread + "-" + i, score, now - i);
+                }
+            });
+        }
+        writers.shutdown();
+        assertTrue(writers.awaitTermination(10, TimeUnit.SECONDS));
+        leaderboard.rebuild(now);
+
+        List<LeaderboardEntry> top = leaderboard.snapshot().allTime();
+        assertEquals(List.of(1019, 1018, 1017, 1016, 1015), top.stream().map(LeaderboardEntry::score).toList());
+        assertEquals(80_000L, leaderboard.stats().get("recorded"));
+    }
+
+    private static List<String> ids(List<LeaderboardEntry> entries) {
+        return entries.stream().map(LeaderboardEntry::gameId).toList();
+    }
+}
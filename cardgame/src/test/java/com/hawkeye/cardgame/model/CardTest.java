@@ -0,0 +1,61 @@
+package com.hawkeye.cardgame.model;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CardTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void cardsAreInternedByCode() {
+        Card aceOfSpades = Card.of("SPADES", "A");
+
+        assertSame(aceOfSpades, Card.of(aceOfSpades.code()));
+        assertEquals(14, aceOfSpades.getValue());
+        assertEquals(3 * Card.RANKS_PER_SUIT + 12, aceOfSpades.code());
+    }
+
+    @Test
+    void everyCardRoundTripsThroughJsonToTheSameInstance() throws Exception {
+        for (int code = 0; code < Card.DECK_SIZE; code++) {
+            Card card = Card.of(code);
+            String json = objectMapper.writeValueAsString(card);
+
+            JsonNode fields = objectMapper.readTree(json);
+            assertEquals(card.getSuit(), fields.get("suit").asText());
+            assertEquals(card.getRank(), fields.get("rank").asText());
+            assertEquals(card.getValue(), fields.get("value").asInt());
+            assertEquals(3, fields.size());
+
+            assertSame(card, objectMapper.readValue(json, Card.class));
+        }
+    }
+
+    @Test
+    void cardsInsideAGameRoundTrip() throws Exception {
+        GameState state = new GameState("g1", Card.of("HEARTS", "10"), Card.of("CLUBS", "K"), 3, false, null);
+
+        GameState read = objectMapper.readValue(objectMapper.writeValueAsBytes(state), GameState.class);
+
+        assertSame(state.getCurrentCard(), read.getCurrentCard());
+        assertSame(state.getNextCard(), read.getNextCard());
+    }
+
+    @Test
+    void unknownSuitOrRankIsRejectedWhenBindingAMessage() {
+        String unknownSuit = "{\"sessionId\":\"s1\",\"currentCard\":{\"suit\":\"STARS\",\"rank\":\"A\"}}";
+        String unknownRank = "{\"sessionId\":\"s1\",\"nextCard\":{\"suit\":\"SPADES\",\"rank\":\"1\"}}";
+        String missingRank = "{\"sessionId\":\"s1\",\"nextCard\":{\"suit\":\"SPADES\"}}";
+
+        for (String json : new String[] {unknownSuit, unknownRank, missingRank}) {
+            JsonMappingException error = assertThrows(JsonMappingException.class,
+                    () -> objectMapper.readerFor(GestureMessage.class).readValue(json));
+            assertInstanceOf(IllegalArgumentException.class, error.getCause(), json);
+        }
+    }
+}
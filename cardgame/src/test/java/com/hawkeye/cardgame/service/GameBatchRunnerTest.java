@@ -0,0 +1,101 @@
+package com.hawkeye.cardgame.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hawkeye.cardgame.TestGames;
+import com.hawkeye.cardgame.cluster.ClusterMembership;
+import com.hawkeye.cardgame.cluster.GameRouter;
+import com.hawkeye.cardgame.engine.GameMailboxes;
+import com.hawkeye.cardgame.store.GameStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameBatchRunnerTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final GameSnapshots snapshots = new GameSnapshots(mapper);
+    private final GameStore store = TestGames.store();
+    private final GameMailboxes mailboxes = new GameMailboxes(4);
+    private final GameService gameService = TestGames.gameService(store, mailboxes, snapshots);
+    private final GameRouter router = new GameRouter(gameService, store,
+            new ClusterMembership(false, "http://localhost:8080", List.of(), 128, 2000, ""), mapper, 2000);
+    // Small enough that the guesses below have to wait for room
+    private final GameBatchRunner runner = new GameBatchRunner(router, snapshots, mapper, 4, 100);
+
+    @AfterEach
+    void tearDown() throws Exception {
+        router.destroy();
+        mailboxes.destroy();
+    }
+
+    @Test
+    void startsGamesAndAppliesEachGamesGuessesInOrder() throws Exception {
+        List<JsonNode> started = run("{\"start\": 3}\n");
+        assertEquals(3, started.size());
+        List<String> gameIds = started.stream().map(node -> node.get("gameId").asText()).toList();
+        for (JsonNode node : started) {
+            assertEquals(1, node.get("line").asInt());
+            assertEquals(1, node.get("state").get("version").asInt());
+        }
+
+        StringBuilder body = new StringBuilder();
+        for (int round = 0; round < 20; round++) {
+            for (String gameId : gameIds) {
+                body.append("{\"gameId\":\"").append(gameId).append("\",\"guess\":\"")
+                        .append(round % 2 == 0 ? "higher" : "lower").append("\"}\n");
+            }
+        }
+        List<JsonNode> results = run(body.toString());
+        assertEquals(60, results.size());
+
+        for (String gameId : gameIds) {
+            List<JsonNode> game = new ArrayList<>(results.stream()
+                    .filter(node -> gameId.equals(node.get("gameId").asText())).toList());
+            game.sort((a, b) -> Integer.compare(a.get("line").asInt(), b.get("line").asInt()));
+            assertEquals(20, game.size());
+            int version = 1;
+            for (JsonNode node : game) {
+                int next = node.get("state").get("version").asInt();
+                // Unchanged only once the game is over
+                assertTrue(next == version + 1 || (next == version && node.get("state").get("gameOver").asBoolean()));
+                version = next;
+            }
+        }
+    }
+
+    @Test
+    void reportsBadLinesWithoutStoppingTheBatch() throws Exception {
+        String gameId = gameService.startNewGame().getGameId();
+        List<JsonNode> results = run("not json\n"
+                + "{\"gameId\":\"" + gameId + "\",\"guess\":\"sideways\"}\n"
+                + "\n"
+                + "{\"start\": 1000}\n"
+                + "{\"gameId\":\"" + gameId + "\",\"guess\":\"higher\"}\n");
+
+        assertEquals(4, results.size());
+        results.sort((a, b) -> Integer.compare(a.get("line").asInt(), b.get("line").asInt()));
+        assertEquals("Malformed operation", results.get(0).get("error").asText());
+        assertEquals("Guess must be 'higher' or 'lower'", results.get(1).get("error").asText());
+        assertEquals(4, results.get(2).get("line").asInt());
+        assertTrue(results.get(2).has("error"));
+        assertEquals(2, results.get(3).get("state").get("version").asInt());
+    }
+
+    private List<JsonNode> run(String body) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        runner.run(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), out);
+        List<JsonNode> results = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            results.add(mapper.readTree(line));
+        }
+        return results;
+    }
+}
@@ -0,0 +1,77 @@
+package com.hawkeye.cardgame.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hawkeye.cardgame.TestGames;
+import com.hawkeye.cardgame.engine.GameMailboxes;
+import com.hawkeye.cardgame.model.GameSnapshot;
+import com.hawkeye.cardgame.model.GameState;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameSnapshotsTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final GameSnapshots snapshots = new GameSnapshots(mapper);
+    private final GameMailboxes mailboxes = new GameMailboxes(1);
+    private final GameService gameService = TestGames.gameService(TestGames.store(), mailboxes, snapshots);
+
+    @AfterEach
+    void tearDown() {
+        mailboxes.destroy();
+    }
+
+    @Test
+    void eachVersionIsSerializedOnce() throws Exception {
+        GameState started = gameService.startNewGame();
+        GameSnapshot first = snapshots.of(started);
+
+        assertEquals(1, started.getVersion());
+        assertSame(first, snapshots.of(gameService.getGameState(started.getGameId())));
+        assertEquals(started.getGameId(), mapper.readTree(first.json()).get("gameId").asText());
+
+        GameState guessed = gameService.makeGuess(started.getGameId(), "higher");
+        GameSnapshot second = snapshots.of(guessed);
+
+        assertEquals(2, guessed.getVersion());
+        assertNotSame(first, second);
+        assertEquals(guessed.getScore(), mapper.readTree(second.json()).get("score").asInt());
+        assertNotEquals(snapshots.etag(1), snapshots.etag(2));
+    }
+
+    @Test
+    void ifNoneMatchAcceptsListsWeakTagsAndWildcard() {
+        String etag = snapshots.etag(3);
+
+        assertTrue(snapshots.matches(etag, etag));
+        assertTrue(snapshots.matches("\"other\", W/" + etag, etag));
+        assertTrue(snapshots.matches("*", etag));
+        assertFalse(snapshots.matches(snapshots.etag(2), etag));
+        assertFalse(snapshots.matches(null, etag));
+    }
+
+    @Test
+    void lastEventIdOnlyResumesWithinThisRun() {
+        assertEquals(7, snapshots.versionOf(snapshots.eventId(7)));
+        assertEquals(-1, snapshots.versionOf("x.7"));
+        assertEquals(-1, snapshots.versionOf("7"));
+        assertEquals(-1, snapshots.versionOf(null));
+    }
+
+    @Test
+    void gestureMessageSplicesTheSnapshot() throws Exception {
+        GameState started = gameService.startNewGame();
+
+        byte[] json = snapshots.gestureMessage("s\"1", "higher", 123L, snapshots.of(started)).json();
+        JsonNode message = mapper.readTree(json);
+
+        assertEquals("s\"1", message.get("sessionId").asText());
+        assertEquals("higher", message.get("gesture").asText());
+        assertEquals(123L, message.get("timestamp").asLong());
+        assertEquals(started.getGameId(), message.get("gameId").asText());
+        assertEquals(started.getCurrentCard().getValue(), message.get("currentCard").get("value").asInt());
+        assertEquals(started.getMessage(), message.get("message").asText());
+    }
+}
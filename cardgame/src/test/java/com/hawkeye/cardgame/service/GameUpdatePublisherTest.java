@@ -0,0 +1,261 @@
+package com.hawkeye.cardgame.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hawkeye.cardgame.config.OutboundBacklogInterceptor;
+import com.hawkeye.cardgame.model.Card;
+import com.hawkeye.cardgame.model.GameDelta;
+import com.hawkeye.cardgame.model.GameMessage;
+import com.hawkeye.cardgame.model.GameState;
+import com.hawkeye.cardgame.model.GestureMessage;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.converter.SimpleMessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The outbound channel is a list here; a stalled session is one whose messages are never acknowledged
+class GameUpdatePublisherTest {
+
+    private final List<Message<?>> outbound = new ArrayList<>();
+    private final MessageChannel channel = (message, timeout) -> outbound.add(message);
+    private final OutboundBacklogInterceptor backlog = new OutboundBacklogInterceptor("/topic/gesture/", "/topic/delta/");
+
+    private GameUpdatePublisher publisher(int maxInFlight, long stallTimeoutMs) {
+        SimpMessagingTemplate template = new SimpMessagingTemplate(channel);
+        // Payloads stay objects, so tests can look at them
+        template.setMessageConverter(new SimpleMessageConverter());
+        return new GameUpdatePublisher(template, backlog, new GameSnapshots(new ObjectMapper()), maxInFlight, stallTimeoutMs);
+    }
+
+    private static GameState state(int score) {
+        return state("game-1", score, score % 13, 13 + score % 13, false);
+    }
+
+    private static GameState state(String gameId, int score, int current, int next, boolean over) {
+        GameState state = new GameState(gameId, Card.of(current), Card.of(next), score, over, null);
+        state.setMessageType(over ? GameMessage.GAME_OVER : GameMessage.CORRECT);
+        state.setVersion(score + 1);
+        return state;
+    }
+
+    // The outbound channel hands message i to the socket
+    private void acknowledge(int i) {
+        backlog.afterMessageHandled(outbound.get(i), channel, null, null);
+    }
+
+    private List<Integer> sentScores() {
+        List<Integer> scores = new ArrayList<>();
+        for (Message<?> message : outbound) {
+            if (message.getPayload() instanceof GestureMessage gesture && gesture.getGameId() != null) {
+                scores.add(gesture.getScore());
+            }
+        }
+        return scores;
+    }
+
+    private List<GameDelta> deltas() {
+        List<GameDelta> deltas = new ArrayList<>();
+        for (Message<?> message : outbound) {
+            if (message.getPayload() instanceof GameDelta delta) {
+                deltas.add(delta);
+            }
+        }
+        return deltas;
+    }
+
+    // Deltas carry the message as an int id
+    private static int id(GameMessage message) {
+        return message.id();
+    }
+
+    private static String destination(Message<?> message) {
+        return SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+    }
+
+    @Test
+    void stalledSessionOnlyGetsTheLatestUpdate() {
+        GameUpdatePublisher publisher = publisher(2, 60_000);
+        publisher.open("s1", false);
+
+        for (int score = 1; score <= 5; score++) {
+            publisher.publishGameUpdate("s1", "higher", state(score), null);
+        }
+
+        // Two on their way, 3 parked then replaced by 4, then by 5
+        assertEquals(List.of(1, 2), sentScores());
+        assertEquals(2L, publisher.stats().get("conflated"));
+
+        acknowledge(0);
+        assertEquals(List.of(1, 2, 5), sentScores());
+
+        // Nothing parked any more, so the next acknowledgement sends nothing
+        acknowledge(1);
+        assertEquals(3, outbound.size());
+        publisher.publishGameUpdate("s1", "higher", state(6), null);
+        assertEquals(List.of(1, 2, 5, 6), sentScores());
+    }
+
+    @Test
+    void eventsGoOutBehindTheParkedUpdate() {
+        GameUpdatePublisher publisher = publisher(1, 60_000);
+        publisher.open("s1", false);
+        publisher.publishGameUpdate("s1", "higher", state(1), null);
+        publisher.publishGameUpdate("s1", "higher", state(2), null);
+
+        publisher.sendEvent("s1", new GestureMessage("s1", "error", "oops"));
+
+        assertEquals(3, outbound.size());
+        assertEquals(List.of(1, 2), sentScores());
+        assertEquals("oops", ((GestureMessage) outbound.get(2).getPayload()).getMessage());
+    }
+
+    @Test
+    void sessionsAreCountedApart() {
+        GameUpdatePublisher publisher = publisher(1, 60_000);
+        publisher.open("s1", false);
+        publisher.open("s2", false);
+
+        publisher.publishGameUpdate("s1", "higher", state(1), null);
+        publisher.publishGameUpdate("s1", "higher", state(2), null);
+        publisher.publishGameUpdate("s2", "higher", state(3), null);
+
+        assertEquals(List.of(1, 3), sentScores());
+    }
+
+    @Test
+    void updatesNobodyAcknowledgesStopCountingAfterTheStallTimeout() throws InterruptedException {
+        GameUpdatePublisher publisher = publisher(1, 50);
+        publisher.open("s1", false);
+        publisher.publishGameUpdate("s1", "higher", state(1), null);
+        publisher.publishGameUpdate("s1", "higher", state(2), null);
+        assertEquals(List.of(1), sentScores());
+
+        Thread.sleep(100);
+        publisher.publishGameUpdate("s1", "higher", state(3), null);
+
+        assertEquals(List.of(1, 3), sentScores());
+        assertEquals(1L, publisher.stats().get("stalled"));
+    }
+
+    @Test
+    void closingASessionDropsItsParkedUpdate() {
+        GameUpdatePublisher publisher = publisher(1, 60_000);
+        publisher.open("s1", false);
+        publisher.publishGameUpdate("s1", "higher", state(1), null);
+        publisher.publishGameUpdate("s1", "higher", state(2), null);
+
+        publisher.onSessionClosed("s1");
+        acknowledge(0);
+
+        assertEquals(List.of(1), sentScores());
+        assertEquals(1L, publisher.stats().get("dropped"));
+    }
+
+    @Test
+    void deltaSessionsGetSequencedChangesOnTheirOwnTopic() {
+        GameUpdatePublisher publisher = publisher(4, 60_000);
+        publisher.open("s1", true);
+
+        publisher.publishGameUpdate("s1", "reset", state("game-1", 0, 3, 20, false), GameMessage.RESET);
+        publisher.publishGameUpdate("s1", "higher", state("game-1", 1, 20, 33, false), null);
+        publisher.publishGameUpdate("s1", "higher", state("game-1", 1, 20, 33, true), null);
+
+        assertEquals("/topic/delta/s1", destination(outbound.get(0)));
+        List<GameDelta> deltas = deltas();
+        assertEquals(3, deltas.size());
+
+        // The first update of a game carries every field
+        assertEquals(new GameDelta(1, "delta", "reset", "game-1", 3, 20, 0, false, id(GameMessage.RESET)),
+                deltas.get(0));
+        // After that only what changed: both cards, the score and the message, but not the game
+        assertEquals(new GameDelta(2, "delta", "higher", null, 20, 33, 1, null, id(GameMessage.CORRECT)),
+                deltas.get(1));
+        assertEquals(new GameDelta(3, "delta", "higher", null, null, null, null, true, id(GameMessage.GAME_OVER)),
+                deltas.get(2));
+    }
+
+    @Test
+    void aNewGameSendsEveryFieldAgain() {
+        GameUpdatePublisher publisher = publisher(4, 60_000);
+        publisher.open("s1", true);
+        publisher.publishGameUpdate("s1", "higher", state("game-1", 2, 5, 6, true), null);
+
+        // Same cards and score as before, but a different game
+        publisher.publishGameUpdate("s1", "reset", state("game-2", 2, 5, 6, false), GameMessage.RESET);
+
+        assertEquals(new GameDelta(2, "delta", "reset", "game-2", 5, 6, 2, false, id(GameMessage.RESET)),
+                deltas().get(1));
+    }
+
+    @Test
+    void resyncSendsTheFullStateAtTheCurrentSeq() {
+        GameUpdatePublisher publisher = publisher(4, 60_000);
+        publisher.open("s1", true);
+
+        // Nothing to resync to before the first update
+        publisher.resync("s1");
+        assertTrue(outbound.isEmpty());
+
+        publisher.publishGameUpdate("s1", "reset", state("game-1", 0, 3, 20, false), GameMessage.RESET);
+        publisher.publishGameUpdate("s1", "higher", state("game-1", 1, 20, 33, false), null);
+        // The client missed seq 2 and asks to start over
+        publisher.resync("s1");
+        publisher.publishGameUpdate("s1", "lower", state("game-1", 1, 20, 33, true), null);
+
+        List<GameDelta> deltas = deltas();
+        assertEquals(new GameDelta(2, "snapshot", null, "game-1", 20, 33, 1, false, id(GameMessage.CORRECT)),
+                deltas.get(2));
+        // The snapshot does not use up a seq, so the next delta follows on from it
+        assertEquals(3, deltas.get(3).seq());
+        assertEquals("delta", deltas.get(3).type());
+    }
+
+    @Test
+    void aParkedDeltaStillDiffsAgainstWhatTheClientLastSaw() {
+        GameUpdatePublisher publisher = publisher(1, 60_000);
+        publisher.open("s1", true);
+        publisher.publishGameUpdate("s1", "reset", state("game-1", 0, 3, 20, false), GameMessage.RESET);
+        publisher.publishGameUpdate("s1", "higher", state("game-1", 1, 20, 33, false), null);
+        publisher.publishGameUpdate("s1", "higher", state("game-1", 2, 33, 40, false), null);
+
+        acknowledge(0);
+
+        List<GameDelta> deltas = deltas();
+        assertEquals(2, deltas.size());
+        // Seq has no gap, and the score jumps from what seq 1 said straight to 2
+        assertEquals(new GameDelta(2, "delta", "higher", null, 33, 40, 2, null, id(GameMessage.CORRECT)),
+                deltas.get(1));
+    }
+
+    @Test
+    void fullSessionsGetWholeGestureMessages() {
+        GameUpdatePublisher publisher = publisher(4, 60_000);
+        publisher.open("s1", false);
+
+        publisher.publishGameUpdate("s1", "reset", state("game-1", 0, 3, 20, false), GameMessage.RESET);
+        publisher.publishGameUpdate("s1", "higher", state("game-1", 1, 20, 33, false), null);
+
+        assertTrue(deltas().isEmpty());
+        assertEquals("/topic/gesture/s1", destination(outbound.get(1)));
+        GestureMessage full = (GestureMessage) outbound.get(1).getPayload();
+        assertEquals("game-1", full.getGameId());
+        assertSame(Card.of(20), full.getCurrentCard());
+        assertSame(Card.of(33), full.getNextCard());
+        assertEquals(1, full.getScore().intValue());
+        assertFalse(full.getGameOver());
+
+        // Switching protocol starts a new stream, and resync only applies to deltas
+        publisher.resync("s1");
+        assertEquals(2, outbound.size());
+        publisher.open("s1", true);
+        publisher.publishGameUpdate("s1", "higher", state("game-1", 2, 33, 40, false), null);
+        assertEquals(1, deltas().get(0).seq());
+        assertEquals("game-1", deltas().get(0).gameId());
+    }
+}
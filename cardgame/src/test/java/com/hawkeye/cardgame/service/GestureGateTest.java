@@ -0,0 +1,61 @@
+package com.hawkeye.cardgame.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.hawkeye.cardgame.service.GestureGate.Verdict.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class GestureGateTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    void repeatedGestureInsideWindowIsDebounced() {
+        GestureGate gate = new GestureGate(1000, 100, 10);
+
+        assertEquals(ACCEPTED, gate.check("s", "higher", 0));
+        assertEquals(DEBOUNCED, gate.check("s", "higher", 500 * MS));
+        assertEquals(ACCEPTED, gate.check("s", "lower", 600 * MS));
+        assertEquals(ACCEPTED, gate.check("s", "higher", 700 * MS));
+        assertEquals(ACCEPTED, gate.check("s", "higher", 1800 * MS));
+    }
+
+    @Test
+    void burstIsAllowedThenRateApplies() {
+        // 2 per second, burst of 3; alternate gestures so debouncing never kicks in
+        GestureGate gate = new GestureGate(0, 2, 3);
+
+        assertEquals(ACCEPTED, gate.check("s", "a", 0));
+        assertEquals(ACCEPTED, gate.check("s", "b", 0));
+        assertEquals(ACCEPTED, gate.check("s", "a", 0));
+        assertEquals(REJECTED, gate.check("s", "b", 0));
+
+        assertEquals(ACCEPTED, gate.check("s", "b", 500 * MS));
+        assertEquals(REJECTED, gate.check("s", "a", 600 * MS));
+        assertEquals(ACCEPTED, gate.check("s", "a", 1000 * MS));
+
+        assertEquals(5L, gate.stats().get("accepted"));
+        assertEquals(2L, gate.stats().get("rejected"));
+    }
+
+    @Test
+    void sessionsHaveSeparateBuckets() {
+        GestureGate gate = new GestureGate(0, 1, 1);
+
+        assertEquals(ACCEPTED, gate.check("a", "x", 0));
+        assertEquals(REJECTED, gate.check("a", "y", 0));
+        assertEquals(ACCEPTED, gate.check("b", "x", 0));
+    }
+
+    @Test
+    void missingGestureDoesNotWedgeTheSession() {
+        GestureGate gate = new GestureGate(1000, 100, 10);
+
+        assertEquals(ACCEPTED, gate.check("s", null, 0));
+        assertEquals(DEBOUNCED, gate.check("s", null, 500 * MS));
+        assertEquals(ACCEPTED, gate.check("s", "higher", 600 * MS));
+        assertEquals(DEBOUNCED, gate.check("s", "higher", 700 * MS));
+    }
+}
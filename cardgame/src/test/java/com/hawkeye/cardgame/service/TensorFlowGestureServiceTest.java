@@ -0,0 +1,34 @@
+package com.hawkeye.cardgame.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TensorFlowGestureServiceTest {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final TensorFlowGestureService service = new TensorFlowGestureService();
+
+    @Test
+    void plausibleTimestampsAreRecordedAndSkewedOnesCounted() {
+        service.setMeterRegistry(registry);
+        long now = System.currentTimeMillis();
+
+        service.recordLatency(now - 50);
+        // Ahead of the server clock, and more than a minute old
+        service.recordLatency(now + 5_000);
+        service.recordLatency(now - 120_000);
+        // Clients that send no timestamp are neither
+        service.recordLatency(null);
+
+        Timer latency = registry.get("game.gesture.latency").timer();
+        assertEquals(1, latency.count());
+        assertTrue(latency.totalTime(TimeUnit.MILLISECONDS) >= 50);
+        assertEquals(2.0, registry.get("game.gesture.latency.skewed").counter().count());
+    }
+}
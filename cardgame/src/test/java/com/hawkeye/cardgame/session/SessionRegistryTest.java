@@ -0,0 +1,106 @@
+package com.hawkeye.cardgame.session;
+
+import com.hawkeye.cardgame.model.GameState;
+import com.hawkeye.cardgame.store.ShardedGameStore;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionRegistryTest {
+
+    private final ShardedGameStore store = new ShardedGameStore(4, 100, Duration.ofMinutes(30), Duration.ZERO);
+    private final List<String> closed = new ArrayList<>();
+
+    private SessionRegistry registry(Duration idleTimeout) {
+        SessionListener listener = closed::add;
+        return new SessionRegistry(store::release, List.of(listener), idleTimeout);
+    }
+
+    private void game(String id) {
+        store.put(new GameState(id, null, null, 0, false, "test"));
+    }
+
+    @Test
+    void unregisterReleasesGameAndNotifiesListeners() {
+        SessionRegistry registry = registry(Duration.ofMinutes(30));
+        game("g1");
+        registry.register("s1", "conn-1");
+        registry.bindGame("s1", "g1");
+
+        assertTrue(registry.touch("s1"));
+        assertEquals("g1", registry.gameOf("s1"));
+
+        registry.unregister("s1");
+        registry.unregister("s1");
+
+        assertFalse(registry.touch("s1"));
+        assertEquals(List.of("s1"), closed);
+        assertNull(store.get("g1"));
+        assertEquals(0, registry.activeSessions());
+    }
+
+    @Test
+    void bindingNewGameReleasesThePreviousOne() {
+        SessionRegistry registry = registry(Duration.ofMinutes(30));
+        game("g1");
+        game("g2");
+        registry.register("s1", "conn-1");
+        registry.bindGame("s1", "g1");
+        registry.bindGame("s1", "g2");
+
+        assertNull(store.get("g1"));
+        assertNotNull(store.get("g2"));
+    }
+
+    @Test
+    void sharedGameIsOnlyReleasedByTheLastSessionOnIt() {
+        SessionRegistry registry = registry(Duration.ofMinutes(30));
+        game("g1");
+        game("g2");
+        registry.register("owner", "conn-1");
+        registry.register("other", "conn-2");
+        registry.bindGame("owner", "g1");
+        registry.bindGame("other", "g1");
+
+        // Moving off a game someone else is still on, or leaving it, keeps it alive
+        registry.bindGame("other", "g2");
+        registry.bindGame("other", "g1");
+        registry.unregister("other");
+        assertNotNull(store.get("g1"));
+        assertEquals(1, registry.stats().get("boundGames"));
+
+        registry.unregister("owner");
+        assertNull(store.get("g1"));
+        assertEquals(0, registry.stats().get("boundGames"));
+    }
+
+    @Test
+    void reRegisteringKeepsTheGame() {
+        SessionRegistry registry = registry(Duration.ofMinutes(30));
+        registry.register("s1", "conn-1");
+        registry.bindGame("s1", "g1");
+        registry.register("s1", "conn-2");
+
+        assertEquals("g1", registry.gameOf("s1"));
+        assertTrue(closed.isEmpty());
+        // Still counted once, so leaving releases it
+        registry.unregister("s1");
+        assertEquals(0, registry.stats().get("boundGames"));
+    }
+
+    @Test
+    void idleSessionsExpire() {
+        SessionRegistry registry = registry(Duration.ZERO);
+        registry.register("s1", "conn-1");
+
+        registry.expireIdle();
+
+        assertFalse(registry.isActive("s1"));
+        assertEquals(List.of("s1"), closed);
+        assertEquals(1L, registry.stats().get("expired"));
+    }
+}
@@ -0,0 +1,111 @@
+package com.hawkeye.cardgame.spectate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hawkeye.cardgame.TestGames;
+import com.hawkeye.cardgame.engine.GameMailboxes;
+import com.hawkeye.cardgame.model.GameState;
+import com.hawkeye.cardgame.service.GameService;
+import com.hawkeye.cardgame.service.GameSnapshots;
+import com.hawkeye.cardgame.store.GameStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpectatorHubTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final GameSnapshots snapshots = new GameSnapshots(mapper);
+    private final GameStore store = TestGames.store();
+    private final GameMailboxes mailboxes = new GameMailboxes(1);
+    // Sent but never completed until the test says so, like sockets that have stalled
+    private final List<Message<?>> outbound = new CopyOnWriteArrayList<>();
+    private final SpectatorHub hub = new SpectatorHub(store, snapshots,
+            (message, timeout) -> outbound.add(message), null, false, 2, 1);
+    private final GameService gameService = TestGames.gameService(store, mailboxes, snapshots, hub);
+
+    @AfterEach
+    void tearDown() {
+        hub.destroy();
+        mailboxes.destroy();
+    }
+
+    @Test
+    void everyViewerGetsTheSameSerializedUpdate() throws Exception {
+        String gameId = gameService.startNewGame().getGameId();
+        hub.subscribe("c1", "s1", gameId, null);
+        hub.subscribe("c2", "s1", gameId, null);
+        hub.subscribe("c3", "s1", gameId, null);
+        // Current state on joining
+        awaitSent(3);
+        completeAll();
+
+        GameState guessed = gameService.makeGuess(gameId, "higher");
+        awaitSent(6);
+
+        List<Message<?>> update = outbound.subList(3, 6);
+        for (Message<?> message : update) {
+            assertSame(update.get(0).getPayload(), message.getPayload());
+            assertEquals("/topic/spectate/" + gameId, SimpMessageHeaderAccessor.getDestination(message.getHeaders()));
+        }
+        assertEquals(guessed.getVersion(), mapper.readTree((byte[]) update.get(0).getPayload()).get("version").asInt());
+        assertEquals(3, hub.viewers(gameId));
+    }
+
+    @Test
+    void viewersThatFallBehindGetTheLatestOrSkipByPolicy() throws Exception {
+        String gameId = gameService.startNewGame().getGameId();
+        hub.subscribe("latest", "s1", gameId, "latest");
+        hub.subscribe("skip", "s1", gameId, "skip");
+        awaitSent(2);
+
+        // Neither socket has taken its first message yet
+        gameService.makeGuess(gameId, "higher");
+        GameState last = gameService.makeGuess(gameId, "higher");
+        Thread.sleep(100);
+        assertEquals(2, outbound.size());
+
+        completeAll();
+        awaitSent(3);
+        Message<?> caughtUp = outbound.get(2);
+        assertEquals("latest", SimpMessageHeaderAccessor.getSessionId(caughtUp.getHeaders()));
+        assertEquals(last.getVersion(), mapper.readTree((byte[]) caughtUp.getPayload()).get("version").asInt());
+
+        Thread.sleep(100);
+        assertEquals(3, outbound.size());
+        assertEquals(1L, hub.stats().get("conflated"));
+        assertEquals(2L, hub.stats().get("skipped"));
+    }
+
+    @Test
+    void unsubscribingTheLastViewerDropsTheAudience() {
+        String gameId = gameService.startNewGame().getGameId();
+        hub.subscribe("c1", "s1", gameId, null);
+        hub.subscribe("c1", "s2", gameId, null);
+        assertEquals(2, hub.viewers(gameId));
+
+        hub.unsubscribe("c1", "s1");
+        hub.unsubscribe("c1", "s2");
+        assertEquals(0, hub.viewers(gameId));
+        assertEquals(0, hub.stats().get("games"));
+    }
+
+    private void completeAll() {
+        for (Message<?> message : List.copyOf(outbound)) {
+            hub.afterMessageHandled(message, null, null, null);
+        }
+    }
+
+    private void awaitSent(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (outbound.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(count, outbound.size());
+    }
+}
@@ -0,0 +1,64 @@
+package com.hawkeye.cardgame.store;
+
+import com.hawkeye.cardgame.model.GameState;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedGameStoreTest {
+
+    private static GameState game(String id, boolean over) {
+        return new GameState(id, null, null, 0, over, "test");
+    }
+
+    @Test
+    void putAndGet() {
+        ShardedGameStore store = new ShardedGameStore(4, 100, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        store.put(game("a", false));
+
+        assertNotNull(store.get("a"));
+        assertNull(store.get("b"));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedWhenShardIsFull() {
+        ShardedGameStore store = new ShardedGameStore(1, 2, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        store.put(game("a", false));
+        store.put(game("b", false));
+        store.get("a");
+        store.put(game("c", false));
+
+        assertNotNull(store.get("a"));
+        assertNull(store.get("b"));
+        assertEquals(2, store.size());
+        assertEquals(1, store.evictionCount());
+    }
+
+    @Test
+    void finishedGamesExpireOnTheShorterTtl() {
+        ShardedGameStore store = new ShardedGameStore(2, 100, Duration.ofMinutes(1), Duration.ZERO);
+        store.put(game("live", false));
+        store.put(game("done", true));
+        store.evictExpired();
+
+        assertNotNull(store.get("live"));
+        assertNull(store.get("done"));
+        assertEquals(1, store.evictionCount());
+    }
+
+    @Test
+    void releasedGameExpiresWithGameOverTtl() {
+        ShardedGameStore store = new ShardedGameStore(4, 100, Duration.ofMinutes(30), Duration.ZERO);
+        store.put(game("a", false));
+        store.put(game("b", false));
+
+        store.release("a");
+        store.release("missing");
+
+        assertNull(store.get("a"));
+        assertNotNull(store.get("b"));
+    }
+}
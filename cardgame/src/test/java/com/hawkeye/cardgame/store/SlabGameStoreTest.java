@@ -0,0 +1,174 @@
+package com.hawkeye.cardgame.store;
+
+import com.hawkeye.cardgame.engine.Deck;
+import com.hawkeye.cardgame.model.Card;
+import com.hawkeye.cardgame.model.GameMessage;
+import com.hawkeye.cardgame.model.GameState;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlabGameStoreTest {
+
+    private static String id(int n) {
+        return new UUID(0x5eed, n).toString();
+    }
+
+    private static GameState game(String id, boolean over, Deck deck) {
+        GameState state = new GameState(id, Card.of(3), Card.of(40), 7, over, null);
+        state.setMessageType(GameMessage.CORRECT);
+        state.setVersion(5);
+        state.setDeck(deck);
+        return state;
+    }
+
+    private static GameState game(String id, boolean over) {
+        return game(id, over, Deck.seeded(1, 42L));
+    }
+
+    @Test
+    void putAndGet() {
+        SlabGameStore store = new SlabGameStore(4, 100, 1, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        store.put(game(id(1), false));
+
+        GameState read = store.get(id(1));
+        assertEquals(id(1), read.getGameId());
+        assertSame(Card.of(3), read.getCurrentCard());
+        assertSame(Card.of(40), read.getNextCard());
+        assertEquals(7, read.getScore());
+        assertFalse(read.isGameOver());
+        assertEquals(GameMessage.CORRECT, read.getMessageType());
+        assertEquals(5, read.getVersion());
+        // Plain reads never unpack the deck
+        assertNull(read.getDeck());
+
+        assertNull(store.get(id(2)));
+        assertNull(store.get("not-a-uuid"));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void playableReadRestoresTheDeckWhereItLeftOff() {
+        SlabGameStore store = new SlabGameStore(1, 100, 1, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        Deck reference = Deck.seeded(1, 7L);
+        Deck deck = Deck.seeded(1, 7L);
+        deck.draw();
+        reference.draw();
+        store.put(game(id(1), false, deck));
+
+        GameState playing = store.getPlayable(id(1));
+        assertEquals(1, playing.getDeck().cursor());
+        assertSame(reference.draw(), playing.getDeck().draw());
+        store.put(playing);
+
+        Deck restored = store.getPlayable(id(1)).getDeck();
+        assertEquals(2, restored.cursor());
+        for (int i = 2; i < restored.size(); i++) {
+            assertSame(reference.draw(), restored.draw());
+        }
+    }
+
+    @Test
+    void putWithoutADeckKeepsTheStoredOne() {
+        SlabGameStore store = new SlabGameStore(1, 100, 1, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        store.put(game(id(1), false, Deck.seeded(1, 7L)));
+
+        GameState read = store.get(id(1));
+        read.setScore(8);
+        store.put(read);
+
+        GameState playing = store.getPlayable(id(1));
+        assertEquals(8, playing.getScore());
+        assertSame(Deck.seeded(1, 7L).draw(), playing.getDeck().draw());
+
+        assertThrows(IllegalArgumentException.class, () -> store.put(game(id(2), false, null)));
+        assertThrows(IllegalArgumentException.class, () -> store.put(game("not-a-uuid", false)));
+        assertThrows(IllegalArgumentException.class, () -> store.put(game(id(3), false, Deck.seeded(2, 1L))));
+    }
+
+    @Test
+    void removeHandsBackTheGameWithItsDeck() {
+        SlabGameStore store = new SlabGameStore(2, 100, 1, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        store.put(game(id(1), false));
+
+        GameState removed = store.remove(id(1));
+        assertEquals(7, removed.getScore());
+        assertNotNull(removed.getDeck());
+        assertNull(store.get(id(1)));
+        assertNull(store.remove(id(1)));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void freedSlotsAndTombstonesAreReused() {
+        SlabGameStore store = new SlabGameStore(1, 1_000, 1, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        for (int i = 0; i < 10; i++) {
+            store.put(game(id(i), false));
+        }
+        long reserved = store.footprint().reservedOffHeapBytes();
+
+        // Churn far more games through than the index or slab could hold without reuse
+        for (int i = 10; i < 20_000; i++) {
+            store.put(game(id(i), false));
+            assertNotNull(store.remove(id(i)));
+        }
+
+        assertEquals(10, store.size());
+        assertEquals(reserved, store.footprint().reservedOffHeapBytes());
+        for (int i = 0; i < 10; i++) {
+            assertNotNull(store.get(id(i)), "game " + i);
+        }
+        assertNull(store.get(id(10)));
+        assertEquals(0, store.evictionCount());
+    }
+
+    @Test
+    void evictsTheStalestGameWhenShardIsFull() {
+        SlabGameStore store = new SlabGameStore(1, 2, 1, Duration.ofMinutes(30), Duration.ofMinutes(1));
+        store.put(game(id(1), false));
+        store.put(game(id(2), false));
+        // Now due to expire well before the other, so it is the one sampled out
+        store.release(id(1));
+        store.put(game(id(3), false));
+
+        assertNull(store.get(id(1)));
+        assertNotNull(store.get(id(2)));
+        assertNotNull(store.get(id(3)));
+        assertEquals(2, store.size());
+        assertEquals(1, store.evictionCount());
+    }
+
+    @Test
+    void finishedGamesExpireOnTheShorterTtl() {
+        SlabGameStore store = new SlabGameStore(2, 100, 1, Duration.ofMinutes(1), Duration.ZERO);
+        store.put(game(id(1), false));
+        store.put(game(id(2), true));
+        store.put(game(id(3), true));
+        store.evictExpired();
+
+        assertNotNull(store.get(id(1)));
+        assertEquals(1, store.size());
+        assertEquals(2, store.evictionCount());
+
+        // Also dropped when read after expiring, without waiting for the sweep
+        store.put(game(id(4), true));
+        assertNull(store.get(id(4)));
+        assertEquals(3, store.evictionCount());
+    }
+
+    @Test
+    void releasedGameExpiresWithGameOverTtl() {
+        SlabGameStore store = new SlabGameStore(4, 100, 1, Duration.ofMinutes(30), Duration.ZERO);
+        store.put(game(id(1), false));
+        store.put(game(id(2), false));
+
+        store.release(id(1));
+        store.release(id(3));
+
+        assertNull(store.get(id(1)));
+        assertNotNull(store.get(id(2)));
+    }
+}
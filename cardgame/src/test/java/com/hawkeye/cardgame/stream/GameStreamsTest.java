@@ -0,0 +1,199 @@
+package com.hawkeye.cardgame.stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hawkeye.cardgame.TestGames;
+import com.hawkeye.cardgame.cluster.ClusterMembership;
+import com.hawkeye.cardgame.model.Card;
+import com.hawkeye.cardgame.model.GameMessage;
+import com.hawkeye.cardgame.model.GameState;
+import com.hawkeye.cardgame.service.GameSnapshots;
+import com.hawkeye.cardgame.store.GameStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Emitters write into a list; drains run when the test says so, or straight away
+class GameStreamsTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final GameSnapshots snapshots = new GameSnapshots(mapper);
+    private final GameStore gameStore = TestGames.store();
+    private final ClusterMembership membership =
+            new ClusterMembership(false, "http://localhost:8080", List.of(), 128, 2000, "");
+    private final Queue<Runnable> drains = new ArrayDeque<>();
+
+    private GameStreams queued() {
+        return new GameStreams(gameStore, snapshots, membership, Duration.ofMinutes(30), drains::add);
+    }
+
+    private GameStreams direct() {
+        return new GameStreams(gameStore, snapshots, membership, Duration.ofMinutes(30), Runnable::run);
+    }
+
+    private void runDrains() {
+        Runnable drain;
+        while ((drain = drains.poll()) != null) {
+            drain.run();
+        }
+    }
+
+    private GameState game(int version) {
+        GameState state = new GameState("game-1", Card.of(3), Card.of(20), version - 1, false, null);
+        state.setMessageType(GameMessage.CORRECT);
+        state.setVersion(version);
+        gameStore.put(state);
+        return state;
+    }
+
+    private FakeEmitter open(GameStreams streams, String lastEventId) {
+        FakeEmitter emitter = new FakeEmitter();
+        assertSame(emitter, streams.open("game-1", lastEventId, () -> emitter));
+        return emitter;
+    }
+
+    private String id(int version) {
+        return "id:" + snapshots.eventId(version) + "\n";
+    }
+
+    @Test
+    void unknownGameHasNoStream() {
+        assertNull(direct().open("missing", null, FakeEmitter::new));
+    }
+
+    @Test
+    void onlyTheNewestVersionWaitsToBeSent() throws Exception {
+        game(1);
+        GameStreams streams = queued();
+        FakeEmitter emitter = open(streams, null);
+
+        streams.onGuessResolved(game(2));
+        streams.onGuessResolved(game(3));
+        // A version the watcher has already been offered is not queued again
+        streams.onGuessResolved(game(2));
+        runDrains();
+
+        assertEquals(1, emitter.events.size());
+        String event = emitter.events.get(0);
+        assertTrue(event.startsWith(id(3) + "event:state\ndata:"), event);
+        assertEquals(2, mapper.readTree(event.substring(event.indexOf("data:") + 5)).get("score").asInt());
+        assertEquals(2L, streams.stats().get("conflated"));
+        assertEquals(1L, streams.stats().get("events"));
+    }
+
+    @Test
+    void reconnectWithTheCurrentVersionWaitsForTheNextOne() {
+        game(3);
+        GameStreams streams = direct();
+
+        FakeEmitter current = open(streams, snapshots.eventId(3));
+        assertTrue(current.events.isEmpty());
+        assertEquals(1L, streams.stats().get("resumedCurrent"));
+
+        streams.onGuessResolved(game(4));
+        assertEquals(1, current.events.size());
+        assertTrue(current.events.get(0).startsWith(id(4)));
+    }
+
+    @Test
+    void reconnectFromAnOlderOrForeignIdGetsTheCurrentState() {
+        game(3);
+        GameStreams streams = direct();
+
+        FakeEmitter behind = open(streams, snapshots.eventId(2));
+        // Another run's ids say nothing about this run's versions
+        FakeEmitter foreign = open(streams, "0.9");
+
+        assertTrue(behind.events.get(0).startsWith(id(3)));
+        assertTrue(foreign.events.get(0).startsWith(id(3)));
+        assertEquals(0L, streams.stats().get("resumedCurrent"));
+    }
+
+    @Test
+    void heartbeatOnlyGoesToQuietStreams() {
+        game(1);
+        GameStreams streams = queued();
+        FakeEmitter emitter = open(streams, null);
+
+        // An event is about to go out anyway, so no comment is needed
+        streams.heartbeat();
+        runDrains();
+        assertEquals(1, emitter.events.size());
+        assertTrue(emitter.events.get(0).startsWith(id(1)));
+
+        streams.heartbeat();
+        runDrains();
+        assertEquals(2, emitter.events.size());
+        assertEquals(":heartbeat\n\n", emitter.events.get(1));
+    }
+
+    @Test
+    void failedSendClosesAndForgetsTheStream() {
+        game(1);
+        GameStreams streams = direct();
+        FakeEmitter healthy = open(streams, null);
+        FakeEmitter broken = new FakeEmitter();
+        broken.failing = true;
+        assertSame(broken, streams.open("game-1", null, () -> broken));
+
+        assertEquals(1L, streams.stats().get("failed"));
+        assertEquals(1, streams.stats().get("watchers"));
+        assertNotNull(broken.error);
+
+        // Later updates and heartbeats only reach the stream still open
+        streams.onGuessResolved(game(2));
+        streams.heartbeat();
+        assertEquals(1, broken.attempts);
+        assertEquals(3, healthy.events.size());
+    }
+
+    @Test
+    void lastWatcherLeavingDropsTheGame() {
+        game(1);
+        GameStreams streams = direct();
+        FakeEmitter emitter = open(streams, null);
+        assertEquals(1, streams.stats().get("games"));
+
+        emitter.failing = true;
+        streams.heartbeat();
+
+        assertEquals(0, streams.stats().get("games"));
+        assertEquals(0, streams.stats().get("watchers"));
+    }
+
+    // Records each event as the text that would go down the wire
+    private static final class FakeEmitter extends SseEmitter {
+        final List<String> events = new ArrayList<>();
+        boolean failing;
+        int attempts;
+        Throwable error;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            attempts++;
+            if (failing) {
+                throw new IOException("Broken pipe");
+            }
+            StringBuilder text = new StringBuilder();
+            for (ResponseBodyEmitter.DataWithMediaType part : builder.build()) {
+                Object data = part.getData();
+                text.append(data instanceof byte[] bytes ? new String(bytes, StandardCharsets.UTF_8) : data);
+            }
+            events.add(text.toString());
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+            error = ex;
+        }
+    }
+}